@@ -0,0 +1,131 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.AttendanceMarkDTO;
+import com.marcedev.attendance.entities.Attendance;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.util.LongObjectMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ Pase de lista en memoria (la parte de applyMarks que no toca la base): cruzar las marcas
+ * recibidas con las filas existentes de la sesión y quedarse con las que cambiaron.
+ * - streamScan: camino anterior, un stream con Long.equals sobre todas las filas por cada marca.
+ * - hashMap: HashMap&lt;Long, ...&gt; con tamaño inicial, como alternativa estándar.
+ * - longObjectMap: el camino actual (LongObjectMap).
+ * Ids consecutivos (lo habitual con AUTO_INCREMENT) o dispersos. Ninguna variante modifica
+ * las filas, así cada invocación hace el mismo trabajo.
+ * <p>
+ * Ejecutar (tiempo y asignación por operación con el profiler gc):
+ * <pre>
+ *   mvn -Ptomcat,benchmark test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main RollCallMarksBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RollCallMarksBenchmark {
+
+    @Param({"1000", "10000"})
+    int marks;
+
+    @Param({"sequential", "sparse"})
+    String ids;
+
+    private List<Attendance> rows;
+    private List<AttendanceMarkDTO> request;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rows = new ArrayList<>(marks);
+        request = new ArrayList<>(marks);
+        Set<Long> used = new HashSet<>();
+        for (int i = 0; i < marks; i++) {
+            long id = "sequential".equals(ids) ? 1_000 + i : nextSparseId(random, used);
+            boolean attended = random.nextBoolean();
+            rows.add(Attendance.builder().student(User.builder().id(id).build()).attended(attended).build());
+            // la mitad de las marcas cambia el estado guardado
+            request.add(new AttendanceMarkDTO(id, random.nextBoolean() ? attended : !attended));
+        }
+        Collections.shuffle(request, random);
+    }
+
+    private static long nextSparseId(Random random, Set<Long> used) {
+        long id;
+        do {
+            id = 1 + random.nextInt(50_000_000);
+        } while (!used.add(id));
+        return id;
+    }
+
+    @Benchmark
+    public List<AttendanceMarkDTO> streamScan() {
+        List<AttendanceMarkDTO> changed = new ArrayList<>();
+        for (AttendanceMarkDTO mark : request) {
+            rows.stream()
+                    .filter(a -> a.getStudent().getId().equals(mark.getUserId()))
+                    .findFirst()
+                    .ifPresent(a -> {
+                        if (a.isAttended() != mark.isPresent()) changed.add(mark);
+                    });
+        }
+        return changed;
+    }
+
+    @Benchmark
+    public List<AttendanceMarkDTO> hashMap() {
+        Map<Long, Boolean> byStudent = new HashMap<>(request.size() * 4 / 3 + 1);
+        for (AttendanceMarkDTO mark : request) {
+            byStudent.put(mark.getUserId(), mark.isPresent());
+        }
+        Map<Long, Attendance> existing = new HashMap<>(rows.size() * 4 / 3 + 1);
+        for (Attendance row : rows) {
+            existing.put(row.getStudent().getId(), row);
+        }
+
+        List<AttendanceMarkDTO> changed = new ArrayList<>();
+        byStudent.forEach((studentId, present) -> {
+            Attendance row = existing.get(studentId);
+            if (row != null && row.isAttended() != present) changed.add(new AttendanceMarkDTO(studentId, present));
+        });
+        return changed;
+    }
+
+    @Benchmark
+    public List<AttendanceMarkDTO> longObjectMap() {
+        LongObjectMap<Boolean> byStudent = new LongObjectMap<>(request.size());
+        for (AttendanceMarkDTO mark : request) {
+            byStudent.put(mark.getUserId(), mark.isPresent());
+        }
+        LongObjectMap<Attendance> existing = new LongObjectMap<>(rows.size());
+        for (Attendance row : rows) {
+            existing.put(row.getStudent().getId(), row);
+        }
+
+        List<AttendanceMarkDTO> changed = new ArrayList<>();
+        byStudent.forEach((studentId, present) -> {
+            Attendance row = existing.get(studentId);
+            if (row != null && row.isAttended() != present) changed.add(new AttendanceMarkDTO(studentId, present));
+        });
+        return changed;
+    }
+
+    // Desde el IDE: mismo resultado que la línea de comando de arriba
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RollCallMarksBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
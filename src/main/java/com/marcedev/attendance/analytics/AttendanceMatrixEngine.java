@@ -0,0 +1,200 @@
+package com.marcedev.attendance.analytics;
+
+import com.marcedev.attendance.archive.ColdArchiveStore;
+import com.marcedev.attendance.archive.CourseMonthSnapshot;
+import com.marcedev.attendance.dto.AttendanceMarkDTO;
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import com.marcedev.attendance.events.AttendanceDeletedEvent;
+import com.marcedev.attendance.repository.AttendanceArchiveRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 📊 Motor de analítica en memoria: una {@link CourseMatrix} por curso, cargada la primera
+ * vez que se consulta y mantenida al día con los eventos de asistencia (después del commit).
+ * - La carga incluye las marcas archivadas: años cerrados de attendances_archive y meses
+ *   del archivo en frío. Las clases siguen en classes, así que los días no cambian.
+ * - Los cambios que llegan mientras un curso se está cargando se guardan y se vuelven a
+ *   aplicar en orden sobre la matriz recién cargada, así no se pierde ninguna marca.
+ * - Las inscripciones y las clases nuevas sin marcas no generan eventos: cada matriz
+ *   se recarga después de {@code analytics.matrix.ttl-minutes}.
+ * - Como máximo {@code analytics.matrix.max-courses} matrices; se descartan las más viejas.
+ */
+@Component
+public class AttendanceMatrixEngine {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceArchiveRepository archiveRepository;
+    private final ColdArchiveStore coldArchiveStore;
+    private final long ttlMillis;
+    private final int maxCourses;
+
+    private final Map<Long, CourseMatrix> matrices = new ConcurrentHashMap<>();
+    private final Map<Long, List<Consumer<CourseMatrix>>> loading = new ConcurrentHashMap<>();
+    // Un monitor por curso: dos consultas simultáneas no cargan la misma matriz dos veces
+    private final Map<Long, Object> loadLocks = new ConcurrentHashMap<>();
+
+    public AttendanceMatrixEngine(JdbcTemplate jdbcTemplate,
+                                  AttendanceArchiveRepository archiveRepository,
+                                  ColdArchiveStore coldArchiveStore,
+                                  @Value("${analytics.matrix.ttl-minutes:10}") long ttlMinutes,
+                                  @Value("${analytics.matrix.max-courses:2000}") int maxCourses) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveRepository = archiveRepository;
+        this.coldArchiveStore = coldArchiveStore;
+        this.ttlMillis = ttlMinutes * 60_000;
+        this.maxCourses = maxCourses;
+    }
+
+    /** 🔹 Matriz del curso (la carga si no está o si venció) */
+    public CourseMatrix matrix(long courseId) {
+        CourseMatrix matrix = matrices.get(courseId);
+        if (matrix != null && !isExpired(matrix)) return matrix;
+
+        synchronized (lockFor(courseId)) {
+            matrix = matrices.get(courseId);
+            if (matrix != null && !isExpired(matrix)) return matrix;
+            return load(courseId);
+        }
+    }
+
+    // ================== ACTUALIZACIÓN ==================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        if (event.courseId() == null || event.classSessionId() == null) return;
+        apply(event.courseId(), matrix -> {
+            Integer day = dayOf(matrix, event.classSessionId());
+            if (day == null) return;
+            for (AttendanceMarkDTO mark : event.marks()) {
+                matrix.mark(mark.getUserId(), day, mark.isPresent());
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttendanceDeleted(AttendanceDeletedEvent event) {
+        if (event.courseId() == null || event.classSessionId() == null || event.studentId() == null) return;
+        apply(event.courseId(), matrix -> {
+            Integer day = dayOf(matrix, event.classSessionId());
+            if (day != null) matrix.unmark(event.studentId(), day);
+        });
+    }
+
+    private void apply(long courseId, Consumer<CourseMatrix> change) {
+        List<Consumer<CourseMatrix>> pending = loading.get(courseId);
+        if (pending != null) pending.add(change);
+
+        CourseMatrix matrix = matrices.get(courseId);
+        if (matrix != null) change.accept(matrix);
+    }
+
+    // 🧹 Descartar matrices vencidas y, si sobran, las más viejas
+    @Scheduled(fixedDelayString = "${analytics.matrix.sweep-ms:60000}")
+    public void evict() {
+        matrices.values().removeIf(this::isExpired);
+
+        int excess = matrices.size() - maxCourses;
+        if (excess <= 0) return;
+        matrices.values().stream()
+                .sorted(Comparator.comparingLong(CourseMatrix::getLoadedAt))
+                .limit(excess)
+                .toList()
+                .forEach(matrix -> matrices.remove(matrix.getCourseId(), matrix));
+    }
+
+    // ================== CARGA ==================
+
+    private CourseMatrix load(long courseId) {
+        List<Consumer<CourseMatrix>> pending = Collections.synchronizedList(new ArrayList<>());
+        loading.put(courseId, pending);
+        try {
+            List<Long> orgIds = jdbcTemplate.queryForList(
+                    "SELECT organization_id FROM courses WHERE id = ?", Long.class, courseId);
+            if (orgIds.isEmpty()) {
+                matrices.remove(courseId);
+                throw new IllegalArgumentException("Curso no encontrado");
+            }
+            long orgId = orgIds.get(0);
+
+            CourseMatrix matrix = new CourseMatrix(courseId, orgId);
+            jdbcTemplate.query("""
+                    SELECT u.id, u.full_name, u.email
+                    FROM user_courses uc
+                    JOIN users u ON u.id = uc.user_id
+                    WHERE uc.course_id = ?
+                    ORDER BY u.full_name
+                    """, rs -> {
+                matrix.addStudent(rs.getLong(1), rs.getString(2), rs.getString(3));
+            }, courseId);
+            jdbcTemplate.query("SELECT id, date FROM classes WHERE course_id = ? AND date IS NOT NULL", rs -> {
+                matrix.addSession(rs.getLong(1), rs.getDate(2).toLocalDate());
+            }, courseId);
+            loadArchived(matrix, orgId, courseId);
+            jdbcTemplate.query("""
+                    SELECT a.student_id, c.date, a.attended
+                    FROM attendances a
+                    JOIN classes c ON c.id = a.class_id
+                    WHERE a.organization_id = ? AND a.course_id = ? AND c.date IS NOT NULL
+                    """, rs -> {
+                matrix.mark(rs.getLong(1), (int) rs.getDate(2).toLocalDate().toEpochDay(), rs.getBoolean(3));
+            }, orgId, courseId);
+            matrix.optimize();
+
+            // Publicar y reaplicar lo que llegó durante la carga (en orden)
+            matrices.put(courseId, matrix);
+            synchronized (pending) {
+                pending.forEach(change -> change.accept(matrix));
+            }
+            return matrix;
+        } finally {
+            loading.remove(courseId);
+        }
+    }
+
+    // 🧊 Cada marca vive en un solo lugar: attendances, attendances_archive o un mes en frío
+    private void loadArchived(CourseMatrix matrix, long orgId, long courseId) {
+        if (archiveRepository.exists()) {
+            jdbcTemplate.query("""
+                    SELECT student_id, class_date, attended
+                    FROM attendances_archive
+                    WHERE organization_id = ? AND course_id = ?
+                    """, rs -> {
+                matrix.mark(rs.getLong(1), (int) rs.getDate(2).toLocalDate().toEpochDay(), rs.getBoolean(3));
+            }, orgId, courseId);
+        }
+        for (CourseMonthSnapshot snapshot : coldArchiveStore.readCourse(orgId, courseId)) {
+            for (CourseMonthSnapshot.Mark mark : snapshot.marks()) {
+                matrix.mark(mark.studentId(), (int) mark.date().toEpochDay(), mark.attended());
+            }
+        }
+    }
+
+    private Integer dayOf(CourseMatrix matrix, long sessionId) {
+        Integer day = matrix.dayOf(sessionId);
+        if (day != null) return day;
+
+        // Clase creada después de cargar la matriz
+        List<Date> dates = jdbcTemplate.queryForList("SELECT date FROM classes WHERE id = ?", Date.class, sessionId);
+        if (dates.isEmpty() || dates.get(0) == null) return null;
+        matrix.addSession(sessionId, dates.get(0).toLocalDate());
+        return matrix.dayOf(sessionId);
+    }
+
+    private boolean isExpired(CourseMatrix matrix) {
+        return System.currentTimeMillis() - matrix.getLoadedAt() > ttlMillis;
+    }
+
+    private Object lockFor(long courseId) {
+        return loadLocks.computeIfAbsent(courseId, k -> new Object());
+    }
+}
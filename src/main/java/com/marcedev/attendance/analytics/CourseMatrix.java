@@ -0,0 +1,211 @@
+package com.marcedev.attendance.analytics;
+
+import com.marcedev.attendance.dto.AtRiskStudentDTO;
+import com.marcedev.attendance.dto.CourseAttendanceRateDTO;
+import com.marcedev.attendance.dto.CourseMonthlyAttendanceDTO;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 📊 Matriz alumnos × clases de un curso en bitmaps Roaring.
+ * Cada bit es un día (LocalDate.toEpochDay): un rango de fechas es un rango de bits,
+ * así que los conteos son rangeCardinality sin recorrer filas.
+ * Si un curso tiene dos clases el mismo día, cuentan como un solo día de clase.
+ */
+public class CourseMatrix {
+
+    private final long courseId;
+    private final long organizationId;
+    private final long loadedAt = System.currentTimeMillis();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap sessionDays = new RoaringBitmap();
+    private final Map<Long, Integer> dayBySession = new HashMap<>();
+    private final Map<Long, Student> roster = new LinkedHashMap<>();     // inscriptos, por nombre
+    private final Map<Long, RoaringBitmap> present = new HashMap<>();
+    private final Map<Long, RoaringBitmap> absent = new HashMap<>();
+
+    record Student(long id, String fullName, String email) {}
+
+    CourseMatrix(long courseId, long organizationId) {
+        this.courseId = courseId;
+        this.organizationId = organizationId;
+    }
+
+    public long getCourseId() { return courseId; }
+    public long getOrganizationId() { return organizationId; }
+    long getLoadedAt() { return loadedAt; }
+
+    // ================== ESCRITURA ==================
+
+    void addStudent(long id, String fullName, String email) {
+        roster.put(id, new Student(id, fullName, email));
+    }
+
+    void addSession(long sessionId, LocalDate date) {
+        lock.writeLock().lock();
+        try {
+            int day = (int) date.toEpochDay();
+            dayBySession.put(sessionId, day);
+            sessionDays.add(day);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Integer dayOf(long sessionId) {
+        lock.readLock().lock();
+        try {
+            return dayBySession.get(sessionId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void mark(long studentId, int day, boolean attended) {
+        lock.writeLock().lock();
+        try {
+            sessionDays.add(day);
+            (attended ? present : absent).computeIfAbsent(studentId, k -> new RoaringBitmap()).add(day);
+            RoaringBitmap other = (attended ? absent : present).get(studentId);
+            if (other != null) other.remove(day);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void unmark(long studentId, int day) {
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap bits = present.get(studentId);
+            if (bits != null) bits.remove(day);
+            bits = absent.get(studentId);
+            if (bits != null) bits.remove(day);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Después de la carga: bitmaps compactos (runs para cursos con asistencia perfecta)
+    void optimize() {
+        lock.writeLock().lock();
+        try {
+            sessionDays.runOptimize();
+            present.values().forEach(RoaringBitmap::runOptimize);
+            absent.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ================== CONSULTAS ==================
+
+    /** 🔹 Mismo resultado que getMonthlyCourseStats, para cualquier rango [from, to) */
+    public List<CourseMonthlyAttendanceDTO> stats(LocalDate from, LocalDate to) {
+        long start = from.toEpochDay();
+        long end = to.toEpochDay();
+
+        lock.readLock().lock();
+        try {
+            long total = sessionDays.rangeCardinality(start, end);
+            List<CourseMonthlyAttendanceDTO> result = new ArrayList<>(roster.size());
+            for (Student student : roster.values()) {
+                RoaringBitmap bits = present.get(student.id());
+                long attended = bits != null ? bits.rangeCardinality(start, end) : 0;
+                result.add(new CourseMonthlyAttendanceDTO(student.id(), student.fullName(),
+                        attended, total, total == 0 ? 0.0 : attended * 100.0 / total));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 🔹 Tasa del curso en [from, to): presentes / marcas registradas */
+    public CourseAttendanceRateDTO rate(LocalDate from, LocalDate to) {
+        long start = from.toEpochDay();
+        long end = to.toEpochDay();
+
+        lock.readLock().lock();
+        try {
+            long presentCount = 0;
+            long absentCount = 0;
+            for (RoaringBitmap bits : present.values()) presentCount += bits.rangeCardinality(start, end);
+            for (RoaringBitmap bits : absent.values()) absentCount += bits.rangeCardinality(start, end);
+            long marks = presentCount + absentCount;
+
+            return CourseAttendanceRateDTO.builder()
+                    .courseId(courseId)
+                    .from(from)
+                    .to(to.minusDays(1))
+                    .sessions(sessionDays.rangeCardinality(start, end))
+                    .present(presentCount)
+                    .absent(absentCount)
+                    .rate(marks == 0 ? null : presentCount * 100.0 / marks)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 🔹 Ausencias consecutivas hasta la última marca de cada alumno inscripto */
+    public List<AtRiskStudentDTO> absenceStreaks(int min) {
+        lock.readLock().lock();
+        try {
+            List<AtRiskStudentDTO> result = new ArrayList<>();
+            for (Student student : roster.values()) {
+                RoaringBitmap absences = absent.get(student.id());
+                if (absences == null || absences.getCardinality() < min) continue;
+
+                RoaringBitmap marked = present.containsKey(student.id())
+                        ? RoaringBitmap.or(absences, present.get(student.id()))
+                        : absences;
+
+                int streak = 0;
+                int lastDay = marked.last();
+                IntIterator days = marked.getReverseIntIterator();
+                while (days.hasNext() && absences.contains(days.next())) streak++;
+
+                if (streak >= min) {
+                    result.add(AtRiskStudentDTO.builder()
+                            .studentId(student.id())
+                            .fullName(student.fullName())
+                            .email(student.email())
+                            .consecutiveAbsences(streak)
+                            .lastClassDate(LocalDate.ofEpochDay(lastDay))
+                            .build());
+                }
+            }
+            result.sort(Comparator.comparingInt(AtRiskStudentDTO::getConsecutiveAbsences).reversed());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 🔹 Alumnos (ids) con al menos un presente en [from, to) */
+    public RoaringBitmap attendees(LocalDate from, LocalDate to) {
+        long start = from.toEpochDay();
+        long end = to.toEpochDay();
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = new RoaringBitmap();
+            present.forEach((studentId, bits) -> {
+                if (bits.intersects(start, end)) result.add(Math.toIntExact(studentId));
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String nameOf(long studentId) {
+        Student student = roster.get(studentId);
+        return student != null ? student.fullName() : null;
+    }
+}
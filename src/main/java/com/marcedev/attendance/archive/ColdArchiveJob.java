@@ -0,0 +1,158 @@
+package com.marcedev.attendance.archive;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🧊 Archivo en frío: los meses cerrados más viejos que {@code archive.cold.retention-months}
+ * se guardan por curso en un archivo columnar comprimido ({@link CourseMonthSnapshot})
+ * y se borran de attendances. Las clases quedan en classes (los totales de los reportes no cambian);
+ * AttendanceService y el motor de analítica suman las marcas archivadas al leer.
+ * - Qué guarda cada archivo: el archivo en frío se lleva, por antigüedad, los meses que siguen en
+ *   attendances; attendances_archive guarda los años académicos que un SUPER_ADMIN cierra a mano
+ *   (AttendanceStorageService). Los dos leen solo de attendances y AttendanceService no acepta marcas
+ *   en un mes ya archivado, así que cada marca vive en un único lugar.
+ * - Cada mes se mueve en una transacción: SELECT ... FOR UPDATE, archivo y DELETE de las mismas filas.
+ *   Si algo falla después de escribir el archivo, el rollback deja las filas y la próxima corrida
+ *   vuelve a combinar las mismas marcas (idempotente).
+ * - Desactivado por defecto: el disco local tiene que ser persistente y con backup.
+ */
+@Component
+public class ColdArchiveJob {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ColdArchiveStore store;
+    private final ThreadPoolTaskExecutor maintenanceExecutor;
+    private final boolean enabled;
+    private final int retentionMonths;
+    private final int chunkSize;
+
+    public ColdArchiveJob(JdbcTemplate jdbcTemplate,
+                          NamedParameterJdbcTemplate namedJdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          ColdArchiveStore store,
+                          @Qualifier("maintenanceExecutor") ThreadPoolTaskExecutor maintenanceExecutor,
+                          @Value("${archive.cold.enabled:false}") boolean enabled,
+                          @Value("${archive.cold.retention-months:24}") int retentionMonths,
+                          @Value("${archive.cold.chunk-size:2000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.store = store;
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.enabled = enabled;
+        this.retentionMonths = retentionMonths;
+        this.chunkSize = chunkSize;
+    }
+
+    // ⏳ Una vez por mes, de madrugada
+    @Scheduled(cron = "${archive.cold.cron:0 0 4 2 * *}")
+    public void scheduledRun() {
+        if (!enabled) return;
+        try {
+            runAsync();
+        } catch (TaskRejectedException e) {
+            System.err.println("⚠️ Archivo en frío postergado: cola de mantenimiento llena");
+        }
+    }
+
+    public void runAsync() {
+        if (!enabled) {
+            throw new IllegalArgumentException("El archivo en frío está deshabilitado (archive.cold.enabled)");
+        }
+        maintenanceExecutor.execute(this::archiveClosedMonths);
+    }
+
+    private void archiveClosedMonths() {
+        LocalDate cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1);
+
+        List<Object[]> candidates = jdbcTemplate.query("""
+                        SELECT a.organization_id, a.course_id, YEAR(c.date), MONTH(c.date)
+                        FROM attendances a
+                        JOIN classes c ON c.id = a.class_id
+                        WHERE c.date < ?
+                        GROUP BY a.organization_id, a.course_id, YEAR(c.date), MONTH(c.date)
+                        """,
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getLong(2), YearMonth.of(rs.getInt(3), rs.getInt(4))},
+                Date.valueOf(cutoff));
+
+        long moved = 0;
+        for (Object[] candidate : candidates) {
+            long orgId = (Long) candidate[0];
+            long courseId = (Long) candidate[1];
+            YearMonth month = (YearMonth) candidate[2];
+            try {
+                moved += archiveMonth(orgId, courseId, month);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Error archivando el curso " + courseId + " (" + month + "): " + e.getMessage());
+            }
+        }
+        System.out.println("✅ Archivo en frío: " + candidates.size() + " meses, " + moved + " asistencias antes de " + cutoff);
+    }
+
+    // Todo el mes en una transacción: las marcas quedan bloqueadas (FOR UPDATE) desde que se leen
+    // hasta que se borran, así una corrección en el medio espera y no se pierde.
+    private long archiveMonth(long orgId, long courseId, YearMonth month) {
+        Date from = Date.valueOf(month.atDay(1));
+        Date to = Date.valueOf(month.plusMonths(1).atDay(1));
+
+        Long moved = transactionTemplate.execute(tx -> {
+            List<CourseMonthSnapshot.Session> sessions = jdbcTemplate.query("""
+                            SELECT id, date FROM classes
+                            WHERE course_id = ? AND date >= ? AND date < ?
+                            """,
+                    (rs, i) -> new CourseMonthSnapshot.Session(rs.getLong(1), rs.getDate(2).toLocalDate()),
+                    courseId, from, to);
+
+            List<Long> ids = new ArrayList<>();
+            List<CourseMonthSnapshot.Mark> marks = new ArrayList<>();
+            jdbcTemplate.query("""
+                    SELECT a.id, a.student_id, a.class_id, c.date, a.attended
+                    FROM attendances a
+                    JOIN classes c ON c.id = a.class_id
+                    WHERE a.organization_id = ? AND a.course_id = ? AND c.date >= ? AND c.date < ?
+                    FOR UPDATE OF a
+                    """, rs -> {
+                ids.add(rs.getLong(1));
+                marks.add(new CourseMonthSnapshot.Mark(rs.getLong(2), rs.getLong(3),
+                        rs.getDate(4).toLocalDate(), rs.getBoolean(5)));
+            }, orgId, courseId, from, to);
+            if (ids.isEmpty()) return 0L;
+
+            CourseMonthSnapshot previous = store.read(orgId, courseId, month).orElse(null);
+            try {
+                store.write(CourseMonthSnapshot.merge(previous, orgId, courseId, month, sessions, marks));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo escribir el archivo en frío", e);
+            }
+
+            // Recién con el archivo en disco se borran las mismas filas (siguen bloqueadas), en bloques
+            for (int start = 0; start < ids.size(); start += chunkSize) {
+                namedJdbcTemplate.update(
+                        "DELETE FROM attendances WHERE organization_id = :orgId AND id IN (:ids)",
+                        new MapSqlParameterSource("orgId", orgId)
+                                .addValue("ids", ids.subList(start, Math.min(start + chunkSize, ids.size()))));
+            }
+            return (long) ids.size();
+        });
+        return moved != null ? moved : 0;
+    }
+}
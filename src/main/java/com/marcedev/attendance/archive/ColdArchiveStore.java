@@ -0,0 +1,106 @@
+package com.marcedev.attendance.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * 📁 Archivos en frío en disco local: {@code <archive.cold.path>/<organización>/<curso>/<yyyy-MM>.att}.
+ * La escritura es atómica (archivo temporal + fsync + move), así un corte nunca deja
+ * un mes a medio escribir.
+ */
+@Component
+public class ColdArchiveStore {
+
+    private static final String EXTENSION = ".att";
+
+    private final Path root;
+
+    public ColdArchiveStore(@Value("${archive.cold.path:./data/cold-archive}") String root) {
+        this.root = Path.of(root);
+    }
+
+    public Optional<CourseMonthSnapshot> read(long organizationId, long courseId, YearMonth month) {
+        Path file = fileFor(organizationId, courseId, month);
+        if (!Files.exists(file)) return Optional.empty();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            return Optional.of(CourseMonthSnapshot.readFrom(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo en frío " + file, e);
+        }
+    }
+
+    /** 🔹 ¿El mes del curso ya está en frío? (sin leer el archivo) */
+    public boolean exists(long organizationId, long courseId, YearMonth month) {
+        return Files.exists(fileFor(organizationId, courseId, month));
+    }
+
+    /** 🔹 Todos los meses archivados de un curso */
+    public List<CourseMonthSnapshot> readCourse(long organizationId, long courseId) {
+        Path dir = root.resolve(String.valueOf(organizationId)).resolve(String.valueOf(courseId));
+        if (!Files.exists(dir)) return List.of();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            List<CourseMonthSnapshot> result = new ArrayList<>();
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(EXTENSION)).sorted().toList()) {
+                String name = file.getFileName().toString();
+                read(organizationId, courseId, YearMonth.parse(name.substring(0, name.length() - EXTENSION.length())))
+                        .ifPresent(result::add);
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo listar el archivo en frío del curso " + courseId, e);
+        }
+    }
+
+    public void write(CourseMonthSnapshot snapshot) throws IOException {
+        Path file = fileFor(snapshot.getOrganizationId(), snapshot.getCourseId(), snapshot.getMonth());
+        Files.createDirectories(file.getParent());
+
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                snapshot.writeTo(out);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** 🧹 Baja de organización: borra todos sus meses archivados */
+    public void deleteOrganization(long organizationId) {
+        Path dir = root.resolve(String.valueOf(organizationId));
+        if (!Files.exists(dir)) return;
+
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo borrar el archivo en frío de la organización " + organizationId, e);
+        }
+    }
+
+    private Path fileFor(long organizationId, long courseId, YearMonth month) {
+        return root.resolve(String.valueOf(organizationId))
+                .resolve(String.valueOf(courseId))
+                .resolve(month + EXTENSION);
+    }
+}
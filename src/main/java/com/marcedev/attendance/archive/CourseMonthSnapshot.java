@@ -0,0 +1,259 @@
+package com.marcedev.attendance.archive;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 🧊 Foto columnar de un mes de asistencias de un curso (archivo en frío).
+ * Formato (comprimido con Deflate):
+ * <pre>
+ *   int    magic "ATT1"
+ *   long   organizationId, long courseId, short año, byte mes
+ *   varint cantidad de clases, ids de clase en orden de fecha (delta zigzag varint), día del mes (1 byte c/u)
+ *   varint cantidad de alumnos, ids de alumno (delta varint)
+ *   bloque "presente": un bitmap por alumno (un bit por clase, ancho fijo)
+ *   bloque "marcado":  un bitmap por alumno (hubo registro para esa clase)
+ * </pre>
+ * Ausente = marcado y no presente. Los bloques van uno detrás del otro para que
+ * el compresor aproveche las columnas repetidas.
+ */
+public final class CourseMonthSnapshot {
+
+    private static final int MAGIC = 0x41545431; // "ATT1"
+
+    /** Clase del mes (las clases siguen en la tabla classes; solo se archivan las asistencias) */
+    public record Session(long id, LocalDate date) {}
+
+    /** Registro de asistencia tal como sale de la tabla attendances */
+    public record Mark(long studentId, long sessionId, LocalDate date, boolean attended) {}
+
+    private final long organizationId;
+    private final long courseId;
+    private final YearMonth month;
+    private final long[] sessionIds;
+    private final byte[] days;
+    private final long[] studentIds;
+    private final BitSet[] present;
+    private final BitSet[] marked;
+
+    private CourseMonthSnapshot(long organizationId, long courseId, YearMonth month, long[] sessionIds,
+                                byte[] days, long[] studentIds, BitSet[] present, BitSet[] marked) {
+        this.organizationId = organizationId;
+        this.courseId = courseId;
+        this.month = month;
+        this.sessionIds = sessionIds;
+        this.days = days;
+        this.studentIds = studentIds;
+        this.present = present;
+        this.marked = marked;
+    }
+
+    public long getOrganizationId() { return organizationId; }
+    public long getCourseId() { return courseId; }
+    public YearMonth getMonth() { return month; }
+    public int getSessionCount() { return sessionIds.length; }
+    public int getStudentCount() { return studentIds.length; }
+
+    /** 🔹 Presentes por alumno (popcount de cada bitmap) */
+    public Map<Long, Long> presentByStudent() {
+        Map<Long, Long> result = new HashMap<>(studentIds.length * 2);
+        for (int i = 0; i < studentIds.length; i++) {
+            result.put(studentIds[i], (long) present[i].cardinality());
+        }
+        return result;
+    }
+
+    /** 🔹 Marcas registradas (presentes + ausentes) */
+    public long markCount() {
+        long total = 0;
+        for (BitSet bits : marked) total += bits.cardinality();
+        return total;
+    }
+
+    /** 🔹 Marcas registradas, una por alumno y clase (para reconstruir la matriz de analítica) */
+    public List<Mark> marks() {
+        List<Mark> result = new ArrayList<>();
+        for (int i = 0; i < studentIds.length; i++) {
+            for (int s = marked[i].nextSetBit(0); s >= 0; s = marked[i].nextSetBit(s + 1)) {
+                result.add(new Mark(studentIds[i], sessionIds[s], month.atDay(days[s]), present[i].get(s)));
+            }
+        }
+        return result;
+    }
+
+    // ================== CONSTRUCCIÓN ==================
+
+    /**
+     * Arma la foto con las clases y marcas leídas de la base, sumando lo que ya
+     * estaba archivado (las marcas nuevas pisan a las viejas). Permite volver a
+     * correr el archivo sobre un mes con marcas cargadas tarde.
+     */
+    public static CourseMonthSnapshot merge(CourseMonthSnapshot previous, long organizationId, long courseId,
+                                            YearMonth month, List<Session> sessions, List<Mark> marks) {
+        TreeMap<Long, LocalDate> sessionDates = new TreeMap<>();
+        TreeSet<Long> students = new TreeSet<>();
+
+        if (previous != null) {
+            for (int s = 0; s < previous.sessionIds.length; s++) {
+                sessionDates.put(previous.sessionIds[s], month.atDay(previous.days[s]));
+            }
+            for (long id : previous.studentIds) students.add(id);
+        }
+        for (Session session : sessions) sessionDates.put(session.id(), session.date());
+        for (Mark mark : marks) {
+            sessionDates.putIfAbsent(mark.sessionId(), mark.date());
+            students.add(mark.studentId());
+        }
+
+        // Clases ordenadas por fecha (y por id dentro del día)
+        List<Map.Entry<Long, LocalDate>> ordered = new ArrayList<>(sessionDates.entrySet());
+        ordered.sort(Map.Entry.<Long, LocalDate>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+
+        long[] sessionIds = new long[ordered.size()];
+        byte[] days = new byte[ordered.size()];
+        Map<Long, Integer> sessionIndex = new HashMap<>(ordered.size() * 2);
+        for (int s = 0; s < ordered.size(); s++) {
+            sessionIds[s] = ordered.get(s).getKey();
+            days[s] = (byte) ordered.get(s).getValue().getDayOfMonth();
+            sessionIndex.put(sessionIds[s], s);
+        }
+
+        long[] studentIds = students.stream().mapToLong(Long::longValue).toArray();
+        Map<Long, Integer> studentIndex = new HashMap<>(studentIds.length * 2);
+        BitSet[] present = new BitSet[studentIds.length];
+        BitSet[] marked = new BitSet[studentIds.length];
+        for (int i = 0; i < studentIds.length; i++) {
+            studentIndex.put(studentIds[i], i);
+            present[i] = new BitSet(sessionIds.length);
+            marked[i] = new BitSet(sessionIds.length);
+        }
+
+        if (previous != null) {
+            for (int i = 0; i < previous.studentIds.length; i++) {
+                int row = studentIndex.get(previous.studentIds[i]);
+                BitSet oldMarked = previous.marked[i];
+                for (int s = oldMarked.nextSetBit(0); s >= 0; s = oldMarked.nextSetBit(s + 1)) {
+                    int column = sessionIndex.get(previous.sessionIds[s]);
+                    marked[row].set(column);
+                    present[row].set(column, previous.present[i].get(s));
+                }
+            }
+        }
+        for (Mark mark : marks) {
+            int row = studentIndex.get(mark.studentId());
+            int column = sessionIndex.get(mark.sessionId());
+            marked[row].set(column);
+            present[row].set(column, mark.attended());
+        }
+
+        return new CourseMonthSnapshot(organizationId, courseId, month, sessionIds, days, studentIds, present, marked);
+    }
+
+    // ================== FORMATO ==================
+
+    public void writeTo(OutputStream target) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            DeflaterOutputStream deflate = new DeflaterOutputStream(target, deflater);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(deflate));
+            out.writeInt(MAGIC);
+            out.writeLong(organizationId);
+            out.writeLong(courseId);
+            out.writeShort(month.getYear());
+            out.writeByte(month.getMonthValue());
+
+            writeVarLong(out, sessionIds.length);
+            writeDeltas(out, sessionIds);
+            out.write(days);
+            writeVarLong(out, studentIds.length);
+            writeDeltas(out, studentIds);
+
+            int width = (sessionIds.length + 7) / 8;
+            for (BitSet bits : present) out.write(Arrays.copyOf(bits.toByteArray(), width));
+            for (BitSet bits : marked) out.write(Arrays.copyOf(bits.toByteArray(), width));
+            out.flush();
+            deflate.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static CourseMonthSnapshot readFrom(InputStream source) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(source)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Formato de archivo en frío desconocido");
+        }
+        long organizationId = in.readLong();
+        long courseId = in.readLong();
+        YearMonth month = YearMonth.of(in.readShort(), in.readByte());
+
+        int sessionCount = (int) readVarLong(in);
+        long[] sessionIds = readDeltas(in, sessionCount);
+        byte[] days = new byte[sessionCount];
+        in.readFully(days);
+        int studentCount = (int) readVarLong(in);
+        long[] studentIds = readDeltas(in, studentCount);
+
+        int width = (sessionCount + 7) / 8;
+        byte[] row = new byte[width];
+        BitSet[] present = new BitSet[studentCount];
+        BitSet[] marked = new BitSet[studentCount];
+        for (int i = 0; i < studentCount; i++) {
+            in.readFully(row);
+            present[i] = BitSet.valueOf(row);
+        }
+        for (int i = 0; i < studentCount; i++) {
+            in.readFully(row);
+            marked[i] = BitSet.valueOf(row);
+        }
+
+        return new CourseMonthSnapshot(organizationId, courseId, month,
+                sessionIds, days, studentIds, present, marked);
+    }
+
+    // ================== AUXILIARES ==================
+
+    private static void writeDeltas(DataOutputStream out, long[] values) throws IOException {
+        long previous = 0;
+        for (long value : values) {
+            writeVarLong(out, zigZag(value - previous));
+            previous = value;
+        }
+    }
+
+    private static long[] readDeltas(DataInputStream in, int count) throws IOException {
+        long[] values = new long[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(readVarLong(in));
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static long zigZag(long value) { return (value << 1) ^ (value >> 63); }
+    private static long unZigZag(long value) { return (value >>> 1) ^ -(value & 1); }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Varint inválido en archivo en frío");
+    }
+}
@@ -0,0 +1,123 @@
+package com.marcedev.attendance.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 🔹 Executors acotados para trabajos en segundo plano.
+ * Cada pool tiene tamaño y cola fijos: si se llena, el submit falla
+ * (TaskRejectedException) y el controller responde 429 en vez de encolar sin límite.
+ */
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    // ======================================================
+    // 📤 EXPORTACIONES (CSV / XLSX)
+    // ======================================================
+    @Bean(name = "exportExecutor")
+    public ThreadPoolTaskExecutor exportExecutor(
+            @Value("${export.threads:2}") int threads,
+            @Value("${export.queue-capacity:10}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // ======================================================
+    // 🧹 MANTENIMIENTO (bajas de organizaciones, backfills)
+    // ======================================================
+    @Bean(name = "maintenanceExecutor")
+    public ThreadPoolTaskExecutor maintenanceExecutor(
+            @Value("${maintenance.queue-capacity:20}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("maintenance-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    // ======================================================
+    // 📡 STREAMS SSE (envío de eventos a las tablets)
+    // ======================================================
+    @Bean(name = "sseExecutor")
+    public ThreadPoolTaskExecutor sseExecutor(
+            @Value("${attendance.stream.threads:2}") int threads,
+            @Value("${attendance.stream.queue-capacity:1000}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("sse-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    // ======================================================
+    // 🚀 BOOTSTRAP DE LA APP (consultas en paralelo por request)
+    // ======================================================
+    @Bean(name = "bootstrapExecutor")
+    public ThreadPoolTaskExecutor bootstrapExecutor(
+            @Value("${bootstrap.threads:4}") int threads,
+            @Value("${bootstrap.queue-capacity:200}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bootstrap-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    // ======================================================
+    // 🔐 HASH DE CONTRASEÑAS
+    // ======================================================
+    // Login / registro: pool acotado con AbortPolicy → si se llena, 429 (PasswordHashingService).
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${password-hash.threads:0}") int threads,
+            @Value("${password-hash.queue-capacity:50}") int queueCapacity
+    ) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bcrypt-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    // Importaciones masivas: pool aparte para no competir con los logins.
+    // Cola llena → CallerRunsPolicy: el hilo que importa hashea él mismo (back-pressure natural).
+    @Bean(name = "bulkPasswordHashExecutor")
+    public ThreadPoolTaskExecutor bulkPasswordHashExecutor(
+            @Value("${password-hash.bulk-threads:0}") int threads,
+            @Value("${password-hash.bulk-queue-capacity:500}") int queueCapacity
+    ) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bcrypt-bulk-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,48 @@
+package com.marcedev.attendance.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 🔹 Cache de datos de referencia (Caffeine).
+ * Tamaño, TTL y nombres de los caches se configuran en application.properties
+ * (spring.cache.caffeine.spec / spring.cache.cache-names); con recordStats
+ * las estadísticas quedan en /actuator/metrics (cache.gets, cache.puts, ...).
+ * Se cachean DTOs, nunca entidades, para no arrastrar relaciones lazy fuera de la sesión.
+ * Los put/evict dentro de una transacción se aplican recién después del commit
+ * (ver {@link #transactionAwareCacheManager()}).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // 📚 Listas de cursos (todas / por organización / por instructor)
+    public static final String COURSE_LISTS = "courseLists";
+
+    // 🏢 Listado de organizaciones
+    public static final String ORGANIZATIONS = "organizations";
+
+    /**
+     * 🔹 Envuelve el CacheManager (Caffeine o el de dos niveles con Redis) para que los
+     * {@code @CacheEvict} dentro de una transacción se apliquen en afterCommit: si se
+     * borrara antes, una lectura concurrente volvería a cachear la fila vieja hasta el TTL.
+     * Fuera de una transacción se aplican en el momento, como antes.
+     * Las métricas de Caffeine siguen funcionando: Boot desenvuelve el decorator.
+     */
+    @Bean
+    public static BeanPostProcessor transactionAwareCacheManager() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof TransactionAwareCacheManagerProxy)) {
+                    return new TransactionAwareCacheManagerProxy(cacheManager);
+                }
+                return bean;
+            }
+        };
+    }
+}
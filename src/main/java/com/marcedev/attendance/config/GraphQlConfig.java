@@ -0,0 +1,63 @@
+package com.marcedev.attendance.config;
+
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.DataFetcherExceptionResolver;
+import org.springframework.graphql.execution.ErrorType;
+
+/**
+ * 🔹 Límites y errores de la API GraphQL (Boot registra los beans en el GraphQlSource).
+ * - Profundidad máxima: cada nivel es a lo sumo una consulta IN por asociación,
+ *   así que acota la cantidad de SQL por request.
+ * - Complejidad máxima: acota la cantidad de campos pedidos. Un campo lista cuenta
+ *   list-multiplier veces su selección (se asume que trae varias filas), así que
+ *   las listas anidadas crecen en forma multiplicativa.
+ * - Errores: mismo criterio que los controllers REST
+ *   (IllegalStateException → FORBIDDEN, IllegalArgumentException → BAD_REQUEST).
+ */
+@Configuration
+public class GraphQlConfig {
+
+    @Bean
+    public Instrumentation maxQueryDepthInstrumentation(@Value("${graphql.limits.max-depth:6}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public Instrumentation maxQueryComplexityInstrumentation(
+            @Value("${graphql.limits.max-complexity:1000}") int maxComplexity,
+            @Value("${graphql.limits.list-multiplier:10}") int listMultiplier) {
+        return new MaxQueryComplexityInstrumentation(maxComplexity, listWeightedComplexity(listMultiplier));
+    }
+
+    // 1 por campo + su selección; en los campos lista, todo multiplicado por listMultiplier
+    static FieldComplexityCalculator listWeightedComplexity(int listMultiplier) {
+        return (env, childComplexity) -> {
+            int cost = 1 + childComplexity;
+            boolean list = GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()));
+            return list ? Math.multiplyExact(cost, listMultiplier) : cost;
+        };
+    }
+
+    @Bean
+    public DataFetcherExceptionResolver graphQlExceptionResolver() {
+        return DataFetcherExceptionResolver.forSingleError((ex, env) -> {
+            if (ex instanceof IllegalStateException) {
+                return GraphqlErrorBuilder.newError(env).errorType(ErrorType.FORBIDDEN)
+                        .message("🚫 " + ex.getMessage()).build();
+            }
+            if (ex instanceof IllegalArgumentException) {
+                return GraphqlErrorBuilder.newError(env).errorType(ErrorType.BAD_REQUEST)
+                        .message("❌ " + ex.getMessage()).build();
+            }
+            return null;
+        });
+    }
+}
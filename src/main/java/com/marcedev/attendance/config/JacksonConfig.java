@@ -0,0 +1,39 @@
+package com.marcedev.attendance.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * 🔹 Módulos del ObjectMapper de Spring (Boot registra todos los beans Module).
+ * - Blackbird: getters/setters vía LambdaMetafactory, sin reflexión por propiedad.
+ * - CBOR / Smile: mismo mapper que JSON (módulos incluidos) con otro formato; se eligen
+ *   con Accept: application/cbor o application/x-jackson-smile. JSON sigue siendo el
+ *   formato por defecto: Boot reemplaza los converters CBOR/Smile de Spring MVC en su
+ *   lugar, detrás del de JSON.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // Jackson2ObjectMapperBuilder de Boot es prototype: cada converter recibe el suyo
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,109 @@
+package com.marcedev.attendance.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🔹 Cache de dos niveles para despliegues con más de un nodo (cache.redis.enabled=true).
+ * Reemplaza al CacheManager de Caffeine autoconfigurado: cada cache es un
+ * {@link TwoLevelCache} (L1 Caffeine local + L2 Redis) y los evicts se difunden
+ * por el canal {@value #CHANNEL} para que ningún nodo sirva un L1 viejo.
+ * Funciona con cualquier servidor que hable el protocolo de Redis (Redis, Valkey, KeyDB...).
+ */
+@Configuration
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+public class RedisCacheConfig {
+
+    private static final String CHANNEL = "attendance:cache-invalidation";
+    private static final String SEPARATOR = "\u001F";
+
+    /** Identifica a este nodo para ignorar sus propios mensajes */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate redisTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${spring.cache.caffeine.spec}") String localSpec,
+                                     @Value("${cache.redis.ttl:30m}") Duration remoteTtl) {
+
+        RedisCacheManager remote = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(remoteTtl)
+                        .prefixCacheNameWith("attendance:")
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair
+                                .fromSerializer(new GenericJackson2JsonRedisSerializer())))
+                .build();
+        remote.initializeCaches();
+
+        return new CacheManager() {
+            @Override
+            public Cache getCache(String name) {
+                return caches.computeIfAbsent(name, n -> {
+                    com.github.benmanes.caffeine.cache.Cache<Object, Object> l1 = Caffeine.from(localSpec).build();
+                    CaffeineCacheMetrics.monitor(meterRegistry, l1, n);
+                    return new TwoLevelCache(new CaffeineCache(n, l1), remote.getCache(n),
+                            (cacheName, key) -> publish(redisTemplate, cacheName, key));
+                });
+            }
+
+            @Override
+            public Collection<String> getCacheNames() {
+                return caches.keySet();
+            }
+        };
+    }
+
+    // 📩 Escucha las invalidaciones de los otros nodos
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+            if (parts.length != 3 || nodeId.equals(parts[0])) return;
+
+            TwoLevelCache cache = caches.get(parts[1]);
+            if (cache != null) {
+                cache.evictLocal(parts[2].isEmpty() ? null : parts[2]);
+            }
+        }, new ChannelTopic(CHANNEL));
+        return container;
+    }
+
+    // Mensaje: nodo | cache | clave (vacía = clear)
+    private void publish(StringRedisTemplate redisTemplate, String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL,
+                    nodeId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key.toString() : ""));
+        } catch (RuntimeException e) {
+            // ⚠️ Sin Redis los otros nodos igual expiran su L1 por TTL
+            System.err.println("⚠️ No se pudo publicar la invalidación de cache " + cacheName + ": " + e.getMessage());
+        }
+    }
+}
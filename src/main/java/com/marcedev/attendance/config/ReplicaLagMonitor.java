@@ -0,0 +1,80 @@
+package com.marcedev.attendance.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ⏳ Vigila el atraso de la réplica (SHOW REPLICA STATUS).
+ * Si supera max-lag-seconds o no responde, ReplicaRouting manda todas las lecturas
+ * al primario hasta que se recupere. Sin filas (no es una réplica real) → lag 0.
+ * Métrica: datasource.replica.lag (-1 = no disponible).
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class ReplicaLagMonitor {
+
+    private final DataSource replicaDataSource;
+    private final ReplicaRouting routing;
+    private final long maxLagSeconds;
+    private final AtomicLong lastLagSeconds = new AtomicLong(-1);
+
+    public ReplicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                             ReplicaRouting routing,
+                             @Value("${datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+                             MeterRegistry registry) {
+        this.replicaDataSource = replicaDataSource;
+        this.routing = routing;
+        this.maxLagSeconds = maxLagSeconds;
+        Gauge.builder("datasource.replica.lag", lastLagSeconds, AtomicLong::get)
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-ms:5000}")
+    public void checkLag() {
+        long lag = readLag();
+        lastLagSeconds.set(lag);
+
+        boolean available = lag >= 0 && lag <= maxLagSeconds;
+        if (available != routing.isReplicaAvailable()) {
+            System.err.println(available
+                    ? "✅ Réplica disponible (lag " + lag + "s): lecturas readOnly a la réplica"
+                    : "⚠️ Réplica no disponible o atrasada (lag " + lag + "s): lecturas al primario");
+        }
+        routing.setReplicaAvailable(available);
+    }
+
+    private long readLag() {
+        try (Connection con = replicaDataSource.getConnection();
+             Statement st = con.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SHOW REPLICA STATUS")) {
+                return lagFrom(rs, "Seconds_Behind_Source");
+            } catch (SQLException e) {
+                // MySQL < 8.0.22
+                try (ResultSet rs = st.executeQuery("SHOW SLAVE STATUS")) {
+                    return lagFrom(rs, "Seconds_Behind_Master");
+                }
+            }
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    private long lagFrom(ResultSet rs, String column) throws SQLException {
+        if (!rs.next()) return 0;
+        long lag = rs.getLong(column);
+        return rs.wasNull() ? -1 : lag;
+    }
+}
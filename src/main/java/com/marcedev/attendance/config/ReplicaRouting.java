@@ -0,0 +1,97 @@
+package com.marcedev.attendance.config;
+
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🔀 Decide si una conexión va a la réplica o al primario.
+ * - Réplica: transacciones @Transactional(readOnly = true) y bloques onReplica(...).
+ * - Primario: escrituras, réplica atrasada o caída, y los usuarios que acaban de
+ *   tomar asistencia (read-your-writes durante unos segundos).
+ * Sin datasource.replica.url todo va al primario y esta clase no hace nada.
+ */
+@Component
+public class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> FORCE_REPLICA = new ThreadLocal<>();
+
+    private final boolean configured;
+    private final long readYourWritesMillis;
+
+    // email → hasta cuándo sus lecturas van al primario
+    private final Map<String, Long> recentWriters = new ConcurrentHashMap<>();
+
+    private volatile boolean replicaAvailable = false;
+
+    public ReplicaRouting(@Value("${datasource.replica.url:}") String replicaUrl,
+                         @Value("${datasource.replica.read-your-writes-seconds:10}") long readYourWritesSeconds) {
+        this.configured = !replicaUrl.isBlank();
+        this.readYourWritesMillis = readYourWritesSeconds * 1000;
+    }
+
+    /** true si la conexión que se está por abrir puede ir a la réplica */
+    public boolean useReplica() {
+        if (!configured || !replicaAvailable) return false;
+
+        boolean readOnly = Boolean.TRUE.equals(FORCE_REPLICA.get())
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!readOnly) return false;
+
+        String user = currentUser();
+        if (user == null) return true;
+        Long until = recentWriters.get(user);
+        return until == null || until < System.currentTimeMillis();
+    }
+
+    /** Ejecuta una lectura fuera de transacción (ej. exportaciones) contra la réplica */
+    public void onReplica(Runnable task) {
+        Boolean previous = FORCE_REPLICA.get();
+        FORCE_REPLICA.set(true);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) FORCE_REPLICA.remove();
+            else FORCE_REPLICA.set(previous);
+        }
+    }
+
+    /** Lo actualiza el chequeo de lag (ReplicaDataSourceConfig) */
+    void setReplicaAvailable(boolean available) {
+        this.replicaAvailable = available;
+    }
+
+    public boolean isReplicaAvailable() {
+        return configured && replicaAvailable;
+    }
+
+    // ✅ Quien toma asistencia lee sus propios cambios desde el primario
+    @EventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        if (!configured) return;
+        String user = currentUser();
+        if (user != null) {
+            recentWriters.put(user, System.currentTimeMillis() + readYourWritesMillis);
+        }
+    }
+
+    // 🧹 Limpiar entradas vencidas
+    @Scheduled(fixedDelayString = "${datasource.replica.read-your-writes-sweep-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        recentWriters.values().removeIf(until -> until < now);
+    }
+
+    private String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : null;
+    }
+}
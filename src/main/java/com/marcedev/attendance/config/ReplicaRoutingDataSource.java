@@ -0,0 +1,25 @@
+package com.marcedev.attendance.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * 🔀 Elige el pool (primario / réplica) al momento de pedir la conexión física.
+ * Va envuelto en un LazyConnectionDataSourceProxy para que la decisión se tome
+ * cuando la transacción ya está marcada como readOnly.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReplicaRouting routing;
+
+    public ReplicaRoutingDataSource(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return routing.useReplica() ? REPLICA : PRIMARY;
+    }
+}
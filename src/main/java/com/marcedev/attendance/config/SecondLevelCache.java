@@ -0,0 +1,57 @@
+package com.marcedev.attendance.config;
+
+import com.marcedev.attendance.entities.Course;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 🔹 Invalidación manual del cache de segundo nivel de Hibernate.
+ * Hibernate no ve las escrituras hechas por JDBC (INSERT IGNORE en user_courses,
+ * bajas de organizaciones) ni los cambios hechos desde el lado User.courses
+ * (la tabla user_courses tiene dos lados dueños), así que quien escribe así debe avisar acá.
+ * Dentro de una transacción se invalida al momento y otra vez en afterCommit: entre la
+ * escritura y el commit otra request puede volver a cachear los datos viejos.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCache {
+
+    private static final String COURSE_STUDENTS = Course.class.getName() + ".students";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    // 📚 Alumnos de un curso
+    public void evictCourseStudents(Long courseId) {
+        evict(() -> cache().evictCollectionData(COURSE_STUDENTS, courseId));
+    }
+
+    // 📚 Alumnos de todos los cursos
+    public void evictCourseStudents() {
+        evict(() -> cache().evictCollectionData(COURSE_STUDENTS));
+    }
+
+    // 🧹 Todas las regiones (entidades, colecciones y consultas)
+    public void evictAll() {
+        evict(() -> cache().evictAllRegions());
+    }
+
+    private void evict(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private org.hibernate.Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,102 @@
+package com.marcedev.attendance.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * 🔹 Cache de dos niveles: L1 local (Caffeine) + L2 compartido (Redis).
+ * - Lectura: L1 → L2 → origen; lo que viene de L2 se copia a L1.
+ * - Escritura / evict: se aplica en L2 y L1 y se avisa al resto de los nodos
+ *   (pub/sub) para que descarten su L1.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final CaffeineCache local;
+    private final Cache remote;
+    private final BiConsumer<String, Object> invalidationPublisher;
+
+    public TwoLevelCache(CaffeineCache local, Cache remote, BiConsumer<String, Object> invalidationPublisher) {
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.get(key);
+        if (value != null) return value;
+
+        value = remote.get(key);
+        if (value != null) {
+            local.put(key, value.get());
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        Object result = value != null ? value.get() : null;
+        if (result != null && type != null && !type.isInstance(result)) {
+            throw new IllegalStateException("El valor cacheado no es del tipo " + type.getName() + ": " + result);
+        }
+        return (T) result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return local.get(key, () -> {
+            ValueWrapper value = remote.get(key);
+            if (value != null) return (T) value.get();
+
+            T loaded = valueLoader.call();
+            remote.put(key, loaded);
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, value);
+        invalidationPublisher.accept(getName(), key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.evict(key);
+        invalidationPublisher.accept(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+        invalidationPublisher.accept(getName(), null);
+    }
+
+    // 📩 Invalidación recibida de otro nodo: solo se toca el L1
+    public void evictLocal(String key) {
+        if (key == null) {
+            local.clear();
+        } else {
+            local.getNativeCache().asMap().keySet().removeIf(k -> k.toString().equals(key));
+        }
+    }
+}
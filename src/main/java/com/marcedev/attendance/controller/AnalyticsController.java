@@ -0,0 +1,92 @@
+package com.marcedev.attendance.controller;
+
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.service.AttendanceAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * 📊 Reportes desde las matrices de asistencia en memoria.
+ * Sin from/to se usa el mes actual; los rangos son inclusivos.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AttendanceAnalyticsService analyticsService;
+    private final UserRepository userRepository;
+
+    // 🔹 Presentes por alumno (mismo formato que /api/attendance/course/{id}/monthly)
+    @GetMapping("/courses/{courseId}/stats")
+    public ResponseEntity<?> getCourseStats(@PathVariable Long courseId,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        User currentUser = getAuthenticatedUser();
+        return respond(() -> analyticsService.getCourseStats(currentUser, courseId, fromOrDefault(from), toOrDefault(to)));
+    }
+
+    // 🔹 Tasa de asistencia del curso
+    @GetMapping("/courses/{courseId}/rate")
+    public ResponseEntity<?> getCourseRate(@PathVariable Long courseId,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        User currentUser = getAuthenticatedUser();
+        return respond(() -> analyticsService.getCourseRate(currentUser, courseId, fromOrDefault(from), toOrDefault(to)));
+    }
+
+    // ⚠️ Rachas de ausencias consecutivas
+    @GetMapping("/courses/{courseId}/streaks")
+    public ResponseEntity<?> getStreaks(@PathVariable Long courseId,
+                                        @RequestParam(defaultValue = "3") int min) {
+        User currentUser = getAuthenticatedUser();
+        return respond(() -> analyticsService.getAbsenceStreaks(currentUser, courseId, min));
+    }
+
+    // 🧩 Alumnos que asistieron a ambos cursos en el rango
+    @GetMapping("/cohort")
+    public ResponseEntity<?> getCohort(@RequestParam Long courseA,
+                                       @RequestParam Long courseB,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        User currentUser = getAuthenticatedUser();
+        return respond(() -> analyticsService.getCohort(currentUser, courseA, courseB, fromOrDefault(from), toOrDefault(to)));
+    }
+
+    private ResponseEntity<?> respond(Supplier<?> report) {
+        try {
+            return ResponseEntity.ok(report.get());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(403).body("🚫 " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        }
+    }
+
+    private LocalDate fromOrDefault(LocalDate from) {
+        return from != null ? from : LocalDate.now().withDayOfMonth(1);
+    }
+
+    private LocalDate toOrDefault(LocalDate to) {
+        return to != null ? to : LocalDate.now().withDayOfMonth(1).plusMonths(1).minusDays(1);
+    }
+
+    // ✅ Obtener usuario autenticado
+    private User getAuthenticatedUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new RuntimeException("Usuario no autenticado");
+        }
+
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+}
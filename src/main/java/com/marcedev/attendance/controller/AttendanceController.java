@@ -4,8 +4,11 @@ import com.marcedev.attendance.dto.AttendanceDTO;
 import com.marcedev.attendance.dto.AttendanceMarkDTO;
 import com.marcedev.attendance.entities.User;
 import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.mapper.AttendanceMapper;
+import com.marcedev.attendance.service.AttendanceStreamService;
 import com.marcedev.attendance.service.impl.AttendanceServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/attendance")
@@ -20,7 +24,12 @@ import java.util.Map;
 
 public class AttendanceController {
 
+    private static final String SHAPE_ROWS = "rows";
+    private static final String SHAPE_COLUMNAR = "columnar";
+
     private final AttendanceServiceImpl attendanceService;
+    private final AttendanceStreamService attendanceStreamService;
+    private final AttendanceMapper attendanceMapper;
 
     @PostMapping("/create")
     public ResponseEntity<?> create(@RequestBody AttendanceDTO dto) {
@@ -31,28 +40,46 @@ public class AttendanceController {
         return ResponseEntity.ok(saved);
     }
 
+    // 🔹 Listados: ?shape=columnar devuelve AttendanceColumnsDTO (más compacto para listas grandes)
     @GetMapping
-    public ResponseEntity<List<AttendanceDTO>> getAll() {
+    public ResponseEntity<?> getAll(@RequestParam(defaultValue = SHAPE_ROWS) String shape) {
         if (!hasPermission(Rol.INSTRUCTOR, Rol.ADMIN, Rol.SUPER_ADMIN)) {
             return ResponseEntity.status(403).build();
         }
-        return ResponseEntity.ok(attendanceService.findAll());
+        return shaped(shape, attendanceService::findAll);
     }
 
     @GetMapping("/class/{id}")
-    public ResponseEntity<List<AttendanceDTO>> getByClass(@PathVariable Long id) {
+    public ResponseEntity<?> getByClass(@PathVariable Long id,
+                                        @RequestParam(defaultValue = SHAPE_ROWS) String shape) {
+        if (!hasPermission(Rol.INSTRUCTOR, Rol.ADMIN, Rol.SUPER_ADMIN)) {
+            return ResponseEntity.status(403).build();
+        }
+        return shaped(shape, () -> attendanceService.findByClassId(id));
+    }
+
+    // ✅ Cambios en tiempo real de la clase (SSE): reemplaza el polling de /class/{id}
+    @GetMapping(value = "/class/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamByClass(@PathVariable Long id) {
         if (!hasPermission(Rol.INSTRUCTOR, Rol.ADMIN, Rol.SUPER_ADMIN)) {
             return ResponseEntity.status(403).build();
         }
-        return ResponseEntity.ok(attendanceService.findByClassId(id));
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no") // sin buffer en proxies tipo nginx
+                    .body(attendanceStreamService.subscribe(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).build();
+        }
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<AttendanceDTO>> getByCourse(@PathVariable Long courseId) {
+    public ResponseEntity<?> getByCourse(@PathVariable Long courseId,
+                                         @RequestParam(defaultValue = SHAPE_ROWS) String shape) {
         if (!hasPermission(Rol.INSTRUCTOR, Rol.ADMIN, Rol.SUPER_ADMIN)) {
             return ResponseEntity.status(403).build();
         }
-        return ResponseEntity.ok(attendanceService.findByCourseId(courseId));
+        return shaped(shape, () -> attendanceService.findByCourseId(courseId));
     }
 
     @GetMapping("/{id}")
@@ -76,6 +103,13 @@ public class AttendanceController {
         return ResponseEntity.ok("✅ Asistencia eliminada correctamente.");
     }
 
+    // ✅ Filas (por defecto) o columnas; la forma se valida antes de consultar
+    private ResponseEntity<?> shaped(String shape, Supplier<List<AttendanceDTO>> rows) {
+        if (SHAPE_ROWS.equals(shape)) return ResponseEntity.ok(rows.get());
+        if (SHAPE_COLUMNAR.equals(shape)) return ResponseEntity.ok(attendanceMapper.toColumns(rows.get()));
+        return ResponseEntity.badRequest().body("❌ Forma no soportada: " + shape + " (rows | columnar)");
+    }
+
     private boolean hasPermission(Rol... allowedRoles) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated()) return false;
@@ -123,6 +157,15 @@ public class AttendanceController {
         return ResponseEntity.ok(attendanceService.getCourseMonthlyStats(courseId, month, year));
     }
 
+    // 🔹 Año completo (suma también los meses del archivo en frío)
+    @GetMapping("/course/{courseId}/yearly")
+    public ResponseEntity<?> getYearlyStats(
+            @PathVariable Long courseId,
+            @RequestParam int year
+    ) {
+        return ResponseEntity.ok(attendanceService.getCourseYearlyStats(courseId, year));
+    }
+
     @GetMapping("/course/{courseId}/report")
     public ResponseEntity<?> getCourseReport(
             @PathVariable Long courseId,
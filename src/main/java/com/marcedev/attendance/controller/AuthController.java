@@ -1,11 +1,16 @@
 package com.marcedev.attendance.controller;
 
+import com.marcedev.attendance.security.LoginRateLimiter;
 import com.marcedev.attendance.security.model.AuthRequest;
 import com.marcedev.attendance.security.model.AuthResponse;
 import com.marcedev.attendance.security.model.RegisterRequest;
 import com.marcedev.attendance.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
 @RestController // ✅ Asegurate que esté esto
@@ -15,10 +20,35 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
+
+    @Value("${security.login-rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<?> login(@RequestBody AuthRequest request, HttpServletRequest http) {
+        // ⏳ Rechazo barato antes de tocar la base o BCrypt. El intento se reserva acá mismo:
+        // una ráfaga en paralelo no puede pasar toda junta mientras BCrypt verifica.
+        String ip = clientIp(http);
+        LoginRateLimiter.Attempt attempt = loginRateLimiter.tryAcquire(request.getEmail(), ip);
+        if (attempt == null) {
+            return ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginRateLimiter.retryAfterSeconds()))
+                    .body("⏳ Demasiados intentos de inicio de sesión, intente más tarde.");
+        }
+
+        AuthResponse response;
+        boolean badCredentials = false;
+        try {
+            response = authService.login(request);
+        } catch (BadCredentialsException e) {
+            // Solo los intentos fallidos consumen el cupo del email y de la IP: la reserva queda
+            badCredentials = true;
+            throw e;
+        } finally {
+            if (!badCredentials) loginRateLimiter.release(attempt);
+        }
+        loginRateLimiter.reset(request.getEmail());
         return ResponseEntity.ok(response); // ✅ Devuelve JSON correcto
     }
 
@@ -27,4 +57,21 @@ public class AuthController {
         AuthResponse response = authService.register(request);
         return ResponseEntity.ok(response); // ✅ También JSON
     }
+
+    /**
+     * 🔹 IP del cliente. Por defecto la del socket: X-Forwarded-For lo controla el cliente.
+     * Con trust-forwarded-for=true (solo detrás de un proxy que agrega la IP, ej. Railway) se toma
+     * el último salto, el que agregó el proxy; los anteriores los puede inventar cualquiera.
+     */
+    private String clientIp(HttpServletRequest http) {
+        if (trustForwardedFor) {
+            String forwarded = http.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                String last = hops[hops.length - 1].trim();
+                if (!last.isEmpty()) return last;
+            }
+        }
+        return http.getRemoteAddr();
+    }
 }
@@ -0,0 +1,39 @@
+package com.marcedev.attendance.controller;
+
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.service.BootstrapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/bootstrap")
+@RequiredArgsConstructor
+public class BootstrapController {
+
+    private final BootstrapService bootstrapService;
+    private final UserRepository userRepository;
+
+    // 🚀 Pantalla de inicio en un solo request: usuario, organización, cursos,
+    // clases de hoy y pases de lista pendientes (reemplaza las llamadas sueltas del arranque)
+    @GetMapping
+    public ResponseEntity<?> getBootstrap() {
+        return ResponseEntity.ok(bootstrapService.getBootstrap(getAuthenticatedUser()));
+    }
+
+    // ✅ Obtener usuario autenticado
+    private User getAuthenticatedUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new RuntimeException("Usuario no autenticado");
+        }
+
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+}
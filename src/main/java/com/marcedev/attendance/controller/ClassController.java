@@ -4,9 +4,10 @@ import com.marcedev.attendance.dto.AttendanceMarkDTO;
 import com.marcedev.attendance.dto.ClassCreateDTO;
 import com.marcedev.attendance.dto.ClassDetailsDTO;
 import com.marcedev.attendance.entities.ClassSession;
-import com.marcedev.attendance.entities.Course;
 import com.marcedev.attendance.entities.User;
 import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.mapper.ClassMapper;
+import com.marcedev.attendance.mapper.UserMapper;
 import com.marcedev.attendance.repository.ClassSessionRepository;
 import com.marcedev.attendance.repository.CourseRepository;
 import com.marcedev.attendance.repository.UserRepository;
@@ -20,7 +21,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/classes")
@@ -32,17 +32,19 @@ public class ClassController {
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final ClassSessionRepository classSessionRepository;
+    private final ClassMapper classMapper;
+    private final UserMapper userMapper;
 
     // ✅ Obtener o crear la clase del día (para tomar asistencia)
     @GetMapping("/today/{courseId}")
     public ResponseEntity<?> getOrCreateTodayClass(@PathVariable Long courseId) {
-        return ResponseEntity.ok(classService.getOrCreateTodaySession(courseId));
+        return ResponseEntity.ok(classMapper.toSummary(classService.getOrCreateTodaySession(courseId)));
     }
 
     // ✅ Obtener clases por curso
     @GetMapping("/course/{courseId}")
     public ResponseEntity<?> getClassesByCourse(@PathVariable Long courseId) {
-        return ResponseEntity.ok(classService.findByCourseId(courseId));
+        return ResponseEntity.ok(classMapper.toSummaryList(classService.findByCourseId(courseId)));
     }
 
     @GetMapping("/{id}/details")
@@ -96,13 +98,7 @@ public class ClassController {
             return ResponseEntity.status(404).body("❌ Clase no encontrada");
         }
 
-        // Evitar serialización recursiva
-        if (session.getInstructor() != null) session.getInstructor().setPassword(null);
-        if (session.getCourse() != null && session.getCourse().getInstructor() != null) {
-            session.getCourse().getInstructor().setPassword(null);
-        }
-
-        return ResponseEntity.ok(session);
+        return ResponseEntity.ok(classMapper.toSummary(session));
     }
 
 
@@ -127,31 +123,14 @@ public class ClassController {
     @GetMapping("/{classId}/students")
     public ResponseEntity<?> getStudentsForClass(@PathVariable Long classId) {
 
-        ClassSession classSession = classService.findById(classId);
-        if (classSession == null) {
+        List<User> students;
+        try {
+            students = classService.findStudentsByClassId(classId);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.status(404).body("❌ Clase no encontrada");
         }
 
-        Course course = classSession.getCourse();
-        if (course == null || course.getStudents() == null) {
-            return ResponseEntity.ok(List.of());
-        }
-
-        return ResponseEntity.ok(
-                course.getStudents().stream()
-                        .map(this::mapStudent)
-                        .collect(Collectors.toList())
-        );
-    }
-
-    // ✅ Mapear alumno → JSON simple
-    private Map<String, Object> mapStudent(User user) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", user.getId());
-        map.put("fullName", user.getFullName());
-        map.put("email", user.getEmail());
-        map.put("role", user.getRole().name());
-        return map;
+        return ResponseEntity.ok(userMapper.toStudentDTOList(students));
     }
 
     // ✅ Permisos
@@ -170,7 +149,7 @@ public class ClassController {
     public ResponseEntity<?> createOrGetSession(@RequestBody Map<String, Long> body) {
         Long courseId = body.get("courseId");
         ClassSession session = classService.getOrCreateTodaySession(courseId);
-        return ResponseEntity.ok(session);
+        return ResponseEntity.ok(classMapper.toSummary(session));
     }
     // ✅ Obtener usuario autenticado
     private User getAuthenticatedUser() {
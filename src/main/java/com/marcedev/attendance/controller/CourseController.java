@@ -2,22 +2,26 @@ package com.marcedev.attendance.controller;
 
 import com.marcedev.attendance.entities.Course;
 import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.dto.CourseDetailDTO;
 import com.marcedev.attendance.enums.Rol;
 import com.marcedev.attendance.mapper.CourseMapper;
+import com.marcedev.attendance.mapper.UserMapper;
 import com.marcedev.attendance.repository.CourseRepository;
 import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.service.AttendanceStreakService;
 import com.marcedev.attendance.service.CourseService;
 import com.marcedev.attendance.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.HashMap;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -29,6 +33,8 @@ public class CourseController {
     private final UserService userService;
     private final UserRepository userRepository;
     private final CourseMapper courseMapper;
+    private final UserMapper userMapper;
+    private final AttendanceStreakService attendanceStreakService;
 
     // ✅ Listar cursos según rol
     @GetMapping
@@ -36,25 +42,19 @@ public class CourseController {
         User currentUser = getAuthenticatedUser();
 
         return switch (currentUser.getRole()) {
-            case SUPER_ADMIN -> ResponseEntity.ok(
-                    courseMapper.toDTOList(courseRepository.findAll())
-            );
+            case SUPER_ADMIN -> ResponseEntity.ok(courseService.findAllDTOs());
 
             case ADMIN -> {
                 if (currentUser.getOrganization() == null)
                     yield ResponseEntity.badRequest().body("⚠️ No tiene organización asignada.");
 
                 yield ResponseEntity.ok(
-                        courseMapper.toDTOList(
-                                courseRepository.findByOrganizationId(currentUser.getOrganization().getId())
-                        )
+                        courseService.findDTOsByOrganizationId(currentUser.getOrganization().getId())
                 );
             }
 
             case INSTRUCTOR -> ResponseEntity.ok(
-                    courseMapper.toDTOList(
-                            courseRepository.findByInstructorId(currentUser.getId())
-                    )
+                    courseService.findDTOsByInstructorId(currentUser.getId())
             );
 
             default -> ResponseEntity.status(403).body("🚫 No tiene permisos para ver cursos.");
@@ -69,13 +69,8 @@ public class CourseController {
         if (courseOpt.isEmpty())
             return ResponseEntity.status(404).body("❌ Curso no encontrado");
 
-        var course = courseOpt.get();
-
-        // Forzamos Lazy Load
-        if (course.getOrganization() != null) course.getOrganization().getName();
-        if (course.getStudents() != null) course.getStudents().size();
-
-        return ResponseEntity.ok(course);
+        // findById ya trae las clases dentro de la transacción
+        return ResponseEntity.ok(courseMapper.toDetailDTO(courseOpt.get()));
     }
 
     // ✅ Crear curso
@@ -111,36 +106,26 @@ public class CourseController {
         }
 
         Course saved = courseService.save(course);
-        return ResponseEntity.ok(saved);
+        return ResponseEntity.ok(courseMapper.toDTO(saved));
     }
 
     // ✅ Actualizar curso
     @PutMapping("/{id}")
-    public ResponseEntity<Course> update(@PathVariable Long id, @RequestBody Course course) {
-        return ResponseEntity.ok(courseService.update(id, course));
+    public ResponseEntity<CourseDetailDTO> update(@PathVariable Long id, @RequestBody Course course) {
+        return ResponseEntity.ok(courseMapper.toDetailDTO(courseService.update(id, course)));
     }
 
     // ✅ Obtener alumnos del curso
     @GetMapping("/{courseId}/students")
     public ResponseEntity<?> getStudentsByCourse(@PathVariable Long courseId) {
-        var courseOpt = courseService.findById(courseId);
-
-        if (courseOpt.isEmpty())
+        List<User> students;
+        try {
+            students = courseService.findStudents(courseId);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.status(404).body("❌ Curso no encontrado");
+        }
 
-        var students = courseOpt.get().getStudents();
-
-        if (students == null || students.isEmpty())
-            return ResponseEntity.ok(List.of());
-
-        var result = students.stream().map(s -> new HashMap<String, Object>() {{
-            put("id", s.getId());
-            put("fullName", s.getFullName());
-            put("email", s.getEmail());
-            put("role", s.getRole().name());
-        }}).toList();
-
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(userMapper.toStudentDTOList(students));
     }
 
     // ✅ Eliminar curso
@@ -157,14 +142,34 @@ public class CourseController {
 
     // ✅ Inscribir alumno
     @PutMapping("/{courseId}/students/{userId}")
-    public ResponseEntity<Course> addStudent(@PathVariable Long courseId, @PathVariable Long userId) {
-        return ResponseEntity.ok(courseService.addStudentToCourse(courseId, userId));
+    public ResponseEntity<CourseDetailDTO> addStudent(@PathVariable Long courseId, @PathVariable Long userId) {
+        return ResponseEntity.ok(courseMapper.toDetailDTO(courseService.addStudentToCourse(courseId, userId)));
+    }
+
+    // ✅ Inscripción masiva (body: lista de IDs de usuario)
+    @PostMapping("/{courseId}/students/bulk")
+    public ResponseEntity<?> addStudentsBulk(@PathVariable Long courseId, @RequestBody List<Long> userIds) {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() == Rol.USER)
+            return ResponseEntity.status(403).body("🚫 No tiene permisos.");
+
+        ResponseEntity<?> denied = checkCourseAccess(currentUser, courseId);
+        if (denied != null) return denied;
+
+        try {
+            return ResponseEntity.ok(courseService.addStudentsToCourse(courseId, userIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // ✅ Quitar alumno
     @DeleteMapping("/{courseId}/students/{userId}")
-    public ResponseEntity<Course> removeStudent(@PathVariable Long courseId, @PathVariable Long userId) {
-        return ResponseEntity.ok(courseService.removeStudentFromCourse(courseId, userId));
+    public ResponseEntity<CourseDetailDTO> removeStudent(@PathVariable Long courseId, @PathVariable Long userId) {
+        return ResponseEntity.ok(courseMapper.toDetailDTO(courseService.removeStudentFromCourse(courseId, userId)));
     }
 
     // ✅ Cursos del instructor/admin autenticado
@@ -186,6 +191,64 @@ public class CourseController {
         return ResponseEntity.ok(courseMapper.toDTOList(filteredCourses));
     }
 
+    // ⚠️ Alumnos en riesgo: N o más ausencias seguidas (lectura directa de attendance_streaks)
+    @GetMapping("/{courseId}/at-risk")
+    public ResponseEntity<?> getAtRiskStudents(@PathVariable Long courseId,
+                                               @RequestParam(defaultValue = "3") int min) {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() == Rol.USER)
+            return ResponseEntity.status(403).body("🚫 No tiene permisos.");
+
+        ResponseEntity<?> denied = checkCourseAccess(currentUser, courseId);
+        if (denied != null) return denied;
+
+        return ResponseEntity.ok(attendanceStreakService.findAtRisk(courseId, min));
+    }
+
+    // 🔄 Recalcular las rachas de un curso desde el historial
+    @PostMapping("/{courseId}/at-risk/rebuild")
+    public ResponseEntity<?> rebuildAtRisk(@PathVariable Long courseId) {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() != Rol.ADMIN && currentUser.getRole() != Rol.SUPER_ADMIN)
+            return ResponseEntity.status(403).body("🚫 Solo ADMIN o SUPER_ADMIN.");
+
+        ResponseEntity<?> denied = checkCourseAccess(currentUser, courseId);
+        if (denied != null) return denied;
+
+        int rows = attendanceStreakService.rebuildCourse(courseId);
+        return ResponseEntity.ok(Map.of("message", "✅ Rachas recalculadas", "rows", rows));
+    }
+
+    // 🔄 Recalcular todas las rachas (segundo plano)
+    @PostMapping("/at-risk/rebuild")
+    public ResponseEntity<?> rebuildAllAtRisk() {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() != Rol.SUPER_ADMIN)
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN.");
+
+        try {
+            attendanceStreakService.rebuildAllAsync();
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(429).body("⏳ Hay demasiadas tareas de mantenimiento en curso.");
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "⏳ Recalculando rachas en segundo plano"));
+    }
+
+    // 🔍 404 / 403 leyendo solo organization_id del curso; null si tiene acceso
+    private ResponseEntity<?> checkCourseAccess(User user, Long courseId) {
+        Optional<Long> orgId = courseRepository.findOrganizationIdById(courseId);
+        if (orgId.isEmpty() && !courseRepository.existsById(courseId))
+            return ResponseEntity.status(404).body("❌ Curso no encontrado");
+
+        if (user.getRole() != Rol.SUPER_ADMIN
+                && (user.getOrganization() == null || !orgId.map(user.getOrganization().getId()::equals).orElse(false)))
+            return ResponseEntity.status(403).body("🚫 El curso no pertenece a su organización.");
+        return null;
+    }
+
     // ✅ Obtener usuario autenticado
     private User getAuthenticatedUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
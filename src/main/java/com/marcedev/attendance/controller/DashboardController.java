@@ -0,0 +1,70 @@
+package com.marcedev.attendance.controller;
+
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final UserRepository userRepository;
+
+    // 📊 Asistencia de la organización por semana (totales y por curso)
+    @GetMapping
+    public ResponseEntity<?> getDashboard(@RequestParam(required = false) Long organizationId,
+                                          @RequestParam(defaultValue = "12") int weeks) {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() != Rol.ADMIN && currentUser.getRole() != Rol.SUPER_ADMIN) {
+            return ResponseEntity.status(403).body("🚫 No tiene permisos para ver el dashboard.");
+        }
+
+        try {
+            return ResponseEntity.ok(dashboardService.getDashboard(currentUser, organizationId, weeks));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(403).body("🚫 " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        }
+    }
+
+    // 🔄 Recalcular todos los agregados (segundo plano)
+    @PostMapping("/reconcile")
+    public ResponseEntity<?> reconcile() {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() != Rol.SUPER_ADMIN) {
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN.");
+        }
+
+        try {
+            dashboardService.reconcileAllAsync();
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(429).body("⏳ Hay demasiadas tareas de mantenimiento en curso.");
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "⏳ Recalculando el dashboard en segundo plano"));
+    }
+
+    // ✅ Obtener usuario autenticado
+    private User getAuthenticatedUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new RuntimeException("Usuario no autenticado");
+        }
+
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+}
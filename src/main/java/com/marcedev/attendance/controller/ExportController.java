@@ -0,0 +1,92 @@
+package com.marcedev.attendance.controller;
+
+import com.marcedev.attendance.dto.ExportJobDTO;
+import com.marcedev.attendance.dto.ExportRequestDTO;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.ExportFormat;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ExportService exportService;
+    private final UserRepository userRepository;
+
+    // ✅ Crear job de exportación (responde 202 con el id del job)
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody ExportRequestDTO request) {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() == Rol.USER) {
+            return ResponseEntity.status(403).body("🚫 No tiene permisos para exportar asistencias.");
+        }
+
+        try {
+            return ResponseEntity.accepted().body(exportService.submit(request, currentUser));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(429).body("⏳ Hay demasiadas exportaciones en curso, intente más tarde.");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(403).body("🚫 " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        }
+    }
+
+    // ✅ Estado del job
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getStatus(@PathVariable String jobId) {
+        return exportService.findJob(jobId, getAuthenticatedUser())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body("❌ Exportación no encontrada."));
+    }
+
+    // ✅ Descargar el archivo generado
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<?> download(@PathVariable String jobId) {
+        User currentUser = getAuthenticatedUser();
+
+        ExportJobDTO job = exportService.findJob(jobId, currentUser).orElse(null);
+        if (job == null) {
+            return ResponseEntity.status(404).body("❌ Exportación no encontrada.");
+        }
+
+        Resource file = exportService.getFile(jobId, currentUser).orElse(null);
+        if (file == null) {
+            return ResponseEntity.status(409).body("⏳ La exportación no está lista (estado: " + job.getStatus() + ").");
+        }
+
+        return ResponseEntity.ok()
+                .contentType(job.getFormat() == ExportFormat.XLSX ? XLSX : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                .body(file);
+    }
+
+    // ✅ Obtener usuario autenticado
+    private User getAuthenticatedUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new RuntimeException("Usuario no autenticado");
+        }
+
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+}
@@ -0,0 +1,172 @@
+package com.marcedev.attendance.controller;
+
+import com.marcedev.attendance.dto.*;
+import com.marcedev.attendance.graphql.GraphQlScope;
+import com.marcedev.attendance.service.GraphQlReadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.ContextValue;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 🔹 Resolvers de la API GraphQL (schema en resources/graphql).
+ * Las queries raíz exigen un usuario staff; las asociaciones son @BatchMapping:
+ * un DataLoader por campo que junta los padres de todo el nivel en una sola consulta.
+ */
+@Controller
+@RequiredArgsConstructor
+public class GraphQlQueryController {
+
+    private final GraphQlReadService readService;
+
+    // ================== QUERIES ==================
+
+    @QueryMapping
+    public UserDTO me(@ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        scope.requireStaff();
+        return readService.findUsersById(scope, List.of(scope.userId())).get(scope.userId());
+    }
+
+    @QueryMapping
+    public List<OrganizationDTO> organizations(@ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        scope.requireStaff();
+        return readService.findOrganizations(scope);
+    }
+
+    @QueryMapping
+    public OrganizationDTO organization(@Argument Long id, @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        scope.requireStaff();
+        return readService.findOrganizationsById(scope, List.of(id)).get(id);
+    }
+
+    @QueryMapping
+    public List<CourseDTO> courses(@ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        scope.requireStaff();
+        return readService.findCourses(scope);
+    }
+
+    @QueryMapping
+    public CourseDTO course(@Argument Long id, @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        scope.requireStaff();
+        return readService.findCoursesById(scope, List.of(id)).get(id);
+    }
+
+    @QueryMapping
+    public ClassSummaryDTO classSession(@Argument Long id, @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        scope.requireStaff();
+        return readService.findClassesById(scope, List.of(id)).get(id);
+    }
+
+    // ================== Organization ==================
+
+    @BatchMapping(typeName = "Organization", field = "courses")
+    public List<List<CourseDTO>> organizationCourses(List<OrganizationDTO> organizations,
+                                                     @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return children(organizations, OrganizationDTO::getId,
+                readService.findCoursesByOrganization(scope, ids(organizations, OrganizationDTO::getId)));
+    }
+
+    // ================== Course ==================
+
+    @BatchMapping(typeName = "Course")
+    public List<OrganizationDTO> organization(List<CourseDTO> courses,
+                                              @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return parents(courses, CourseDTO::getOrganizationId,
+                readService.findOrganizationsById(scope, ids(courses, CourseDTO::getOrganizationId)));
+    }
+
+    @BatchMapping(typeName = "Course")
+    public List<UserDTO> instructor(List<CourseDTO> courses,
+                                    @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return parents(courses, CourseDTO::getInstructorId,
+                readService.findUsersById(scope, ids(courses, CourseDTO::getInstructorId)));
+    }
+
+    @BatchMapping(typeName = "Course")
+    public List<List<UserDTO>> students(List<CourseDTO> courses,
+                                        @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return children(courses, CourseDTO::getId,
+                readService.findStudentsByCourse(scope, ids(courses, CourseDTO::getId)));
+    }
+
+    @BatchMapping(typeName = "Course")
+    public List<List<ClassSummaryDTO>> classes(List<CourseDTO> courses,
+                                               @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return children(courses, CourseDTO::getId,
+                readService.findClassesByCourse(scope, ids(courses, CourseDTO::getId)));
+    }
+
+    // ================== ClassSession ==================
+
+    @BatchMapping(typeName = "ClassSession")
+    public List<CourseDTO> course(List<ClassSummaryDTO> sessions,
+                                  @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return parents(sessions, ClassSummaryDTO::getCourseId,
+                readService.findCoursesById(scope, ids(sessions, ClassSummaryDTO::getCourseId)));
+    }
+
+    @BatchMapping(typeName = "ClassSession")
+    public List<List<AttendanceDTO>> attendances(List<ClassSummaryDTO> sessions,
+                                                 @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return children(sessions, ClassSummaryDTO::getId,
+                readService.findAttendancesByClass(scope, ids(sessions, ClassSummaryDTO::getId)));
+    }
+
+    // ================== Attendance ==================
+
+    @BatchMapping(typeName = "Attendance")
+    public List<UserDTO> student(List<AttendanceDTO> attendances,
+                                 @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return parents(attendances, AttendanceDTO::getStudentId,
+                readService.findUsersById(scope, ids(attendances, AttendanceDTO::getStudentId)));
+    }
+
+    @BatchMapping(typeName = "Attendance")
+    public List<ClassSummaryDTO> classSession(List<AttendanceDTO> attendances,
+                                              @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return parents(attendances, AttendanceDTO::getClassId,
+                readService.findClassesById(scope, ids(attendances, AttendanceDTO::getClassId)));
+    }
+
+    // ================== User ==================
+
+    @BatchMapping(typeName = "User", field = "organization")
+    public List<OrganizationDTO> userOrganization(List<UserDTO> users,
+                                                  @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return parents(users, UserDTO::getOrganizationId,
+                readService.findOrganizationsById(scope, ids(users, UserDTO::getOrganizationId)));
+    }
+
+    @BatchMapping(typeName = "User", field = "courses")
+    public List<List<CourseDTO>> userCourses(List<UserDTO> users,
+                                             @ContextValue(GraphQlScope.CONTEXT_KEY) GraphQlScope scope) {
+        return children(users, UserDTO::getId,
+                readService.findCoursesByUser(scope, ids(users, UserDTO::getId)));
+    }
+
+    // ================== AUXILIARES ==================
+
+    // IDs del lote sin nulos ni repetidos
+    private static <T> List<Long> ids(List<T> sources, Function<T, Long> key) {
+        return sources.stream().map(key).filter(Objects::nonNull).distinct().toList();
+    }
+
+    // Un valor por fuente, en el mismo orden que el lote (null si no existe o es de otra organización)
+    private static <T, V> List<V> parents(List<T> sources, Function<T, Long> key, Map<Long, V> byId) {
+        return sources.stream().map(source -> {
+            Long id = key.apply(source);
+            return id != null ? byId.get(id) : null;
+        }).toList();
+    }
+
+    private static <T, V> List<List<V>> children(List<T> sources, Function<T, Long> key, Map<Long, List<V>> byParent) {
+        return sources.stream().map(source -> byParent.getOrDefault(key.apply(source), List.of())).toList();
+    }
+}
@@ -1,6 +1,5 @@
 package com.marcedev.attendance.controller;
 
-import com.marcedev.attendance.dto.OrganizationDTO;
 import com.marcedev.attendance.entities.Organization;
 import com.marcedev.attendance.entities.User;
 import com.marcedev.attendance.enums.Rol;
@@ -8,6 +7,7 @@ import com.marcedev.attendance.repository.OrganizationRepository;
 import com.marcedev.attendance.repository.UserRepository;
 import com.marcedev.attendance.service.OrganizationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -32,19 +32,7 @@ public class OrganizationController {
 
         // 🟣 SUPER_ADMIN ve todas las organizaciones
         if (currentUser.getRole() == Rol.SUPER_ADMIN) {
-            var dtos = organizationRepository.findAll().stream()
-                    .map(org -> OrganizationDTO.builder()
-                            .id(org.getId())
-                            .name(org.getName())
-                            .type(org.getType())
-                            .phone(org.getPhone())
-                            .address(org.getAddress())
-                            .logoUrl(org.getLogoUrl())
-                            .adminFullName(org.getAdmin() != null ? org.getAdmin().getFullName() : null) // ✅ AQUI
-                            .build())
-                    .toList();
-
-            return ResponseEntity.ok(dtos);
+            return ResponseEntity.ok(organizationService.findAllDTOs());
         }
 
         // 🔵 ADMIN ve solo su organización
@@ -53,18 +41,9 @@ public class OrganizationController {
                 return ResponseEntity.badRequest().body("⚠️ No tiene organización asignada");
             }
 
-            var org = currentUser.getOrganization();
-            var dto = OrganizationDTO.builder()
-                    .id(org.getId())
-                    .name(org.getName())
-                    .type(org.getType())
-                    .phone(org.getPhone())
-                    .address(org.getAddress())
-                    .logoUrl(org.getLogoUrl())
-                    .adminFullName(org.getAdmin() != null ? org.getAdmin().getFullName() : null) // ✅ AQUI
-                    .build();
-
-            return ResponseEntity.ok(List.of(dto));
+            return ResponseEntity.ok(organizationService.findDTOById(currentUser.getOrganization().getId())
+                    .map(List::of)
+                    .orElse(List.of()));
         }
 
         // 🔴 INSTRUCTOR / USER no pueden ver organizaciones
@@ -81,16 +60,38 @@ public class OrganizationController {
             return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN puede crear organizaciones.");
         }
 
-        Organization saved = organizationRepository.save(organization);
-        return ResponseEntity.ok(saved);
+        return ResponseEntity.ok(organizationService.create(organization));
     }
 
     // 🔹 Eliminar organización (solo SUPER_ADMIN)
+    // La baja corre en segundo plano: responde 202 con el job para consultar el progreso.
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteOrganization(@PathVariable Long id) {
-        // … validaciones de rol, etc.
-        organizationService.deleteById(id);
-        return ResponseEntity.noContent().build(); // 204 sin body
+    public ResponseEntity<?> deleteOrganization(@PathVariable Long id) {
+        User current = getAuthenticatedUser();
+
+        if (current.getRole() != Rol.SUPER_ADMIN) {
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN puede eliminar organizaciones.");
+        }
+
+        try {
+            return ResponseEntity.accepted().body(organizationService.startDeletion(id));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(429).body("⏳ Hay demasiadas tareas de mantenimiento en curso.");
+        }
+    }
+
+    // 🔹 Progreso de una baja de organización
+    @GetMapping("/deletions/{jobId}")
+    public ResponseEntity<?> getDeletionStatus(@PathVariable String jobId) {
+        User current = getAuthenticatedUser();
+
+        if (current.getRole() != Rol.SUPER_ADMIN) {
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN puede ver bajas de organizaciones.");
+        }
+
+        return organizationService.findDeletionJob(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body("❌ Job no encontrado."));
     }
 
     // 🧩 Helper: obtener usuario autenticado actual
@@ -0,0 +1,125 @@
+package com.marcedev.attendance.controller;
+
+import com.marcedev.attendance.archive.ColdArchiveJob;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.service.AttendanceStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/storage")
+@RequiredArgsConstructor
+public class StorageController {
+
+    private final AttendanceStorageService storageService;
+    private final ColdArchiveJob coldArchiveJob;
+    private final UserRepository userRepository;
+
+    // 📊 Tamaño de datos e índices por tabla y partición
+    @GetMapping
+    public ResponseEntity<?> getReport() {
+        if (!isSuperAdmin()) {
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN.");
+        }
+        return ResponseEntity.ok(storageService.getStorageReport());
+    }
+
+    // 🔍 Sentencias pendientes para particionar (no ejecuta nada)
+    @GetMapping("/partitioning/plan")
+    public ResponseEntity<?> getPartitioningPlan(@RequestParam(defaultValue = "16") int partitions) {
+        if (!isSuperAdmin()) {
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN.");
+        }
+
+        try {
+            return ResponseEntity.ok(storageService.planPartitioning(partitions));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        }
+    }
+
+    // 🗄️ Particionar attendances y classes por organización (segundo plano, responde 202 con el job)
+    @PostMapping("/partitioning")
+    public ResponseEntity<?> partition(@RequestParam(defaultValue = "16") int partitions) {
+        if (!isSuperAdmin()) {
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN.");
+        }
+
+        try {
+            return ResponseEntity.accepted().body(storageService.partitionAsync(partitions));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(429).body("⏳ Hay demasiadas tareas de mantenimiento en curso.");
+        }
+    }
+
+    // 🧊 Mover un año académico cerrado al archivo (segundo plano, responde 202 con el job)
+    @PostMapping("/archive")
+    public ResponseEntity<?> archive(@RequestParam int year,
+                                     @RequestParam(required = false) Long organizationId) {
+        if (!isSuperAdmin()) {
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN.");
+        }
+
+        try {
+            return ResponseEntity.accepted().body(storageService.archiveAcademicYearAsync(year, organizationId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(429).body("⏳ Hay demasiadas tareas de mantenimiento en curso.");
+        }
+    }
+
+    // 🔹 Progreso de un particionado o archivo
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+        if (!isSuperAdmin()) {
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN.");
+        }
+
+        return storageService.findJob(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body("❌ Job no encontrado."));
+    }
+
+    // 🧊 Pasar los meses viejos a archivos columnares en disco (segundo plano)
+    @PostMapping("/cold-archive")
+    public ResponseEntity<?> coldArchive() {
+        if (!isSuperAdmin()) {
+            return ResponseEntity.status(403).body("🚫 Solo SUPER_ADMIN.");
+        }
+
+        try {
+            coldArchiveJob.runAsync();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(429).body("⏳ Hay demasiadas tareas de mantenimiento en curso.");
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "⏳ Archivando meses viejos en disco"));
+    }
+
+    private boolean isSuperAdmin() {
+        return getAuthenticatedUser().getRole() == Rol.SUPER_ADMIN;
+    }
+
+    // ✅ Obtener usuario autenticado
+    private User getAuthenticatedUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new RuntimeException("Usuario no autenticado");
+        }
+
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+}
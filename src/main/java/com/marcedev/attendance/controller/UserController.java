@@ -4,18 +4,23 @@ package com.marcedev.attendance.controller;
 import com.marcedev.attendance.dto.UserDTO;
 import com.marcedev.attendance.entities.User;
 import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.mapper.UserMapper;
 import com.marcedev.attendance.repository.CourseRepository;
 import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.service.RosterImportService;
 import com.marcedev.attendance.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -26,6 +31,8 @@ public class UserController {
     private final UserService userService;
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
+    private final RosterImportService rosterImportService;
+    private final UserMapper userMapper;
 
     // ==========================================================
     // ✅ LISTAR USUARIOS (PAGINADO)
@@ -80,7 +87,41 @@ public class UserController {
             if (user.getRole() == Rol.SUPER_ADMIN)
                 return ResponseEntity.status(403).body("🚫 No puede crear SUPER_ADMIN.");
         }
-        return ResponseEntity.ok(userService.save(user));
+        return ResponseEntity.ok(userMapper.toDTO(userService.save(user)));
+    }
+
+    // ==========================================================
+    // ✅ IMPORTAR PADRÓN (CSV: fullName,email,password,role,courseIds)
+    // ==========================================================
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importRoster(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Long organizationId
+    ) {
+        User me = userService.findByEmail(getAuthenticatedEmail()).orElseThrow();
+
+        Long targetOrgId;
+        if (me.getRole() == Rol.SUPER_ADMIN) {
+            targetOrgId = organizationId != null ? organizationId
+                    : me.getOrganization() != null ? me.getOrganization().getId() : null;
+        } else if (me.getRole() == Rol.ADMIN) {
+            targetOrgId = me.getOrganization() != null ? me.getOrganization().getId() : null;
+        } else {
+            return ResponseEntity.status(403).body("🚫 Sin permisos.");
+        }
+
+        if (targetOrgId == null)
+            return ResponseEntity.badRequest().body("⚠️ Debe indicar la organización destino.");
+        if (file.isEmpty())
+            return ResponseEntity.badRequest().body("⚠️ El archivo está vacío.");
+
+        try (var in = file.getInputStream()) {
+            return ResponseEntity.ok(rosterImportService.importCsv(in, targetOrgId, me.getRole()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("❌ No se pudo leer el archivo.");
+        }
     }
 
     // ==========================================================
@@ -104,7 +145,7 @@ public class UserController {
         if (role != Rol.SUPER_ADMIN && role != Rol.ADMIN && role != Rol.INSTRUCTOR)
             return ResponseEntity.status(403).body("🚫 Sin permisos.");
 
-        return ResponseEntity.ok(userService.assignCourses(userId, courseIds));
+        return ResponseEntity.ok(userMapper.toDTO(userService.assignCourses(userId, courseIds)));
     }
 
     // ==========================================================
@@ -129,13 +170,7 @@ public class UserController {
             return ResponseEntity.status(403).body("🚫 No tienes permisos para ver instructores.");
         }
 
-        users.forEach(u -> {
-            if (u.getCourses() != null) {
-                u.getCourses().forEach(c -> c.setInstructor(null));
-            }
-        });
-
-        return ResponseEntity.ok(users);
+        return ResponseEntity.ok(userMapper.toDTOList(users));
     }
 
     // ==========================================================
@@ -0,0 +1,87 @@
+package com.marcedev.attendance.controller;
+
+import com.marcedev.attendance.dto.WebhookSubscriptionDTO;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.service.WebhookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/webhooks")
+@RequiredArgsConstructor
+public class WebhookController {
+
+    private final WebhookService webhookService;
+    private final UserRepository userRepository;
+
+    // ✅ Listar suscripciones (con estado de entrega)
+    @GetMapping
+    public ResponseEntity<?> getAll(@RequestParam(required = false) Long organizationId) {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() != Rol.ADMIN && currentUser.getRole() != Rol.SUPER_ADMIN) {
+            return ResponseEntity.status(403).body("🚫 No tiene permisos para ver webhooks.");
+        }
+
+        try {
+            return ResponseEntity.ok(webhookService.findAll(currentUser, organizationId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(403).body("🚫 " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        }
+    }
+
+    // ✅ Crear suscripción
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody WebhookSubscriptionDTO dto) {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() != Rol.ADMIN && currentUser.getRole() != Rol.SUPER_ADMIN) {
+            return ResponseEntity.status(403).body("🚫 No tiene permisos para crear webhooks.");
+        }
+
+        try {
+            return ResponseEntity.ok(webhookService.create(dto, currentUser));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(403).body("🚫 " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
+        }
+    }
+
+    // ✅ Eliminar suscripción
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable Long id) {
+        User currentUser = getAuthenticatedUser();
+
+        if (currentUser.getRole() != Rol.ADMIN && currentUser.getRole() != Rol.SUPER_ADMIN) {
+            return ResponseEntity.status(403).body("🚫 No tiene permisos para eliminar webhooks.");
+        }
+
+        try {
+            webhookService.delete(id, currentUser);
+            return ResponseEntity.ok("✅ Webhook eliminado.");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(403).body("🚫 " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body("❌ " + e.getMessage());
+        }
+    }
+
+    // ✅ Obtener usuario autenticado
+    private User getAuthenticatedUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new RuntimeException("Usuario no autenticado");
+        }
+
+        return userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    }
+}
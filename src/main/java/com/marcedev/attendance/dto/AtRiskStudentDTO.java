@@ -0,0 +1,17 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AtRiskStudentDTO {
+    private Long studentId;
+    private String fullName;
+    private String email;
+    private int consecutiveAbsences;
+    private LocalDate lastClassDate;
+}
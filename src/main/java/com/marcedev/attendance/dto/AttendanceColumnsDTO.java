@@ -0,0 +1,47 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lista de asistencias en forma columnar (?shape=columnar).
+ * Una lista por campo en vez de un objeto por fila, y los nombres
+ * (clase, alumno, curso, organización) una sola vez en diccionarios por ID.
+ * La fila i es: id[i], classId[i], studentId[i], attended[i], courseId[i], organizationId[i].
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceColumnsDTO {
+
+    private int size;
+
+    // 🔹 Columnas
+    @Builder.Default
+    private List<Long> id = new ArrayList<>();
+    @Builder.Default
+    private List<Long> classId = new ArrayList<>();
+    @Builder.Default
+    private List<Long> studentId = new ArrayList<>();
+    @Builder.Default
+    private List<Boolean> attended = new ArrayList<>();
+    @Builder.Default
+    private List<Long> courseId = new ArrayList<>();
+    @Builder.Default
+    private List<Long> organizationId = new ArrayList<>();
+
+    // 🔹 Diccionarios ID → nombre
+    @Builder.Default
+    private Map<Long, String> classNames = new LinkedHashMap<>();
+    @Builder.Default
+    private Map<Long, String> studentNames = new LinkedHashMap<>();
+    @Builder.Default
+    private Map<Long, String> courseNames = new LinkedHashMap<>();
+    @Builder.Default
+    private Map<Long, String> organizationNames = new LinkedHashMap<>();
+}
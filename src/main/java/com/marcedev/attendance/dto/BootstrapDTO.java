@@ -0,0 +1,30 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Datos de arranque de la app (GET /api/bootstrap): todo lo que la pantalla
+ * de inicio pedía en llamadas separadas, armado en un solo viaje.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BootstrapDTO {
+
+    private UserDTO user;
+
+    // 🔹 null si el usuario no tiene organización
+    private OrganizationDTO organization;
+
+    // 🔹 Cursos según el rol (los mismos que GET /api/courses; inscriptos para USER)
+    private List<CourseDTO> courses;
+
+    // 🔹 Clases de hoy de esos cursos
+    private List<ClassSummaryDTO> todaySessions;
+
+    // 🔹 Clases recientes sin asistencia tomada (vacío para USER)
+    private List<ClassSummaryDTO> pendingRollCalls;
+}
@@ -0,0 +1,26 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkEnrollmentResultDTO {
+
+    private Long courseId;
+
+    /** IDs distintos recibidos */
+    private int requested;
+
+    /** Inscripciones nuevas */
+    private int enrolled;
+
+    /** Ya estaban inscriptos */
+    private int alreadyEnrolled;
+
+    /** IDs inexistentes o de otra organización (no se inscriben) */
+    private List<Long> rejected;
+}
@@ -0,0 +1,20 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Clase (ClassSession) para listados y para tomar asistencia.
+ * Solo columnas propias: no toca course / instructor / organization (LAZY).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClassSummaryDTO {
+    private Long id;
+    private String name;
+    private LocalDate date;
+    private Long courseId;
+}
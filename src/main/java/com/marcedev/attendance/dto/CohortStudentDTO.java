@@ -0,0 +1,12 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CohortStudentDTO {
+    private Long studentId;
+    private String fullName;
+}
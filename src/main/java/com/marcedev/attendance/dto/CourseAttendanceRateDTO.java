@@ -0,0 +1,19 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseAttendanceRateDTO {
+    private Long courseId;
+    private LocalDate from;
+    private LocalDate to;          // inclusive
+    private long sessions;         // días con clase en el rango
+    private long present;
+    private long absent;
+    private Double rate;           // 0-100, null si no hubo marcas
+}
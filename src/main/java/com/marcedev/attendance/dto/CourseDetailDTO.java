@@ -0,0 +1,27 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Curso con sus clases (detalle / respuesta de altas y modificaciones).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseDetailDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private String universityProgram;
+
+    private Long instructorId;
+    private String instructorName;
+
+    private Long organizationId;
+    private String organizationName;
+
+    private List<ClassSummaryDTO> classes;
+}
@@ -0,0 +1,32 @@
+package com.marcedev.attendance.dto;
+
+import com.marcedev.attendance.enums.ExportFormat;
+import com.marcedev.attendance.enums.ExportScope;
+import com.marcedev.attendance.enums.JobStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportJobDTO {
+
+    private String id;
+
+    private ExportScope scope;
+    private Long targetId;
+    private ExportFormat format;
+
+    // 🔹 Estado del job
+    private JobStatus status;
+    private long rowsWritten;
+    private String error;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    /** Nombre sugerido para la descarga (solo cuando está COMPLETED) */
+    private String fileName;
+}
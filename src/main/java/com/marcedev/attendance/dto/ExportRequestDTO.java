@@ -0,0 +1,27 @@
+package com.marcedev.attendance.dto;
+
+import com.marcedev.attendance.enums.ExportFormat;
+import com.marcedev.attendance.enums.ExportScope;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportRequestDTO {
+
+    /** COURSE u ORGANIZATION */
+    private ExportScope scope;
+
+    /** ID del curso o de la organización según el scope */
+    private Long targetId;
+
+    /** CSV (por defecto) o XLSX */
+    private ExportFormat format;
+
+    // 🔹 Rango opcional de fechas de clase (inclusive)
+    private LocalDate from;
+    private LocalDate to;
+}
@@ -1,9 +1,13 @@
 package com.marcedev.attendance.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @Builder
 public class OrganizationDTO {
     private Long id;
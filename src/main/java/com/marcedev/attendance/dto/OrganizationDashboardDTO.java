@@ -0,0 +1,18 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrganizationDashboardDTO {
+    private Long organizationId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<WeeklyAttendanceStatsDTO> weeks;   // totales de la organización por semana
+    private List<WeeklyAttendanceStatsDTO> courses; // por curso y semana
+}
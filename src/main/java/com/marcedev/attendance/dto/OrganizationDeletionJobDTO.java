@@ -0,0 +1,25 @@
+package com.marcedev.attendance.dto;
+
+import com.marcedev.attendance.enums.JobStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrganizationDeletionJobDTO {
+
+    private String id;
+    private Long organizationId;
+
+    // 🔹 Progreso: lo escribe el hilo del job y lo leen los requests de consulta (volatile)
+    private volatile JobStatus status;
+    private volatile String step;          // paso actual (ej: "attendances", "courses")
+    private volatile long processedRows;   // filas borradas/actualizadas hasta ahora (un solo escritor)
+    private volatile String error;
+
+    private LocalDateTime createdAt;
+    private volatile LocalDateTime finishedAt;
+}
@@ -0,0 +1,28 @@
+package com.marcedev.attendance.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.marcedev.attendance.enums.OutboxEventType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 📤 Mensaje que reciben los sinks del outbox.
+ * {@code id} es estable entre reintentos: los consumidores lo usan para deduplicar.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxMessageDTO {
+    private Long id;
+    private OutboxEventType type;
+    private Long classSessionId;
+    private Long courseId;
+    private Long organizationId;
+
+    @JsonRawValue
+    private String payload;
+
+    private LocalDateTime createdAt;
+}
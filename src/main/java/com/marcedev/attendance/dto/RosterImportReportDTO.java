@@ -0,0 +1,22 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RosterImportReportDTO {
+
+    private Long organizationId;
+
+    private long totalRows;
+    private long created;
+    private long skipped;
+    private long failed;
+
+    /** Resultado fila por fila */
+    private List<RosterImportRowDTO> rows;
+}
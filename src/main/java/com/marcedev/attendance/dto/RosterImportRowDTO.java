@@ -0,0 +1,20 @@
+package com.marcedev.attendance.dto;
+
+import com.marcedev.attendance.enums.ImportRowStatus;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RosterImportRowDTO {
+
+    /** Número de línea en el CSV (1 = encabezado) */
+    private long line;
+
+    private String email;
+    private ImportRowStatus status;
+
+    /** Motivo cuando es SKIPPED / FAILED */
+    private String message;
+}
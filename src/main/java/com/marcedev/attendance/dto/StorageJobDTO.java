@@ -0,0 +1,26 @@
+package com.marcedev.attendance.dto;
+
+import com.marcedev.attendance.enums.JobStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageJobDTO {
+
+    private String id;
+    private String type;                   // "partitioning" | "archive"
+    private String description;            // ej: "16 particiones", "año 2023 (todas las organizaciones)"
+
+    // 🔹 Progreso: lo escribe el hilo del job y lo leen los requests de consulta (volatile)
+    private volatile JobStatus status;
+    private volatile String step;          // sentencia u organización en curso
+    private volatile long processedRows;   // sentencias ejecutadas / asistencias movidas (un solo escritor)
+    private volatile String error;
+
+    private LocalDateTime createdAt;
+    private volatile LocalDateTime finishedAt;
+}
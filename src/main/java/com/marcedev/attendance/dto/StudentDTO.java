@@ -0,0 +1,17 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+/**
+ * Alumno para tomar asistencia (listado de un curso o de una clase).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StudentDTO {
+    private Long id;
+    private String fullName;
+    private String email;
+    private String role;
+}
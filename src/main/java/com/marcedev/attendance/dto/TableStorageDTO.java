@@ -0,0 +1,17 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableStorageDTO {
+    private String table;
+    private String partition;       // null si la tabla no está particionada
+    private String method;          // KEY, LIST, ... (null sin particiones)
+    private String expression;      // organization_id, academic_year, ...
+    private long estimatedRows;     // estimación de InnoDB (information_schema)
+    private long dataBytes;
+    private long indexBytes;
+}
@@ -0,0 +1,33 @@
+package com.marcedev.attendance.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.marcedev.attendance.enums.WebhookEventType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookSubscriptionDTO {
+    private Long id;
+    private Long organizationId;
+    private String url;
+
+    // 🔐 Solo de entrada: nunca se devuelve
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String secret;
+
+    private Set<WebhookEventType> events;
+    private Integer absenceThreshold;
+    private Boolean active;
+    private LocalDateTime createdAt;
+
+    // 🔹 Estado de entrega (solo lectura)
+    private String circuitState;
+    private Integer pendingEvents;
+    private String lastError;
+    private LocalDateTime lastDeliveryAt;
+}
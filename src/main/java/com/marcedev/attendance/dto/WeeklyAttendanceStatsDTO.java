@@ -0,0 +1,20 @@
+package com.marcedev.attendance.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WeeklyAttendanceStatsDTO {
+    private Long courseId;      // null en los totales de la organización
+    private String courseName;
+    private LocalDate weekStart;
+    private int sessionsHeld;
+    private int activeStudents;
+    private int present;
+    private int absent;
+    private Double attendanceRate; // 0-100, null si no hubo marcas
+}
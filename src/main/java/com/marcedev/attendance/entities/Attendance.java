@@ -7,7 +7,12 @@ import lombok.*;
 @Entity
 @Table(
         name = "attendances",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "class_id"})
+        uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "class_id"}),
+        indexes = {
+                // organization_id primero: clave de partición (ver AttendanceStorageService)
+                @Index(name = "idx_attendance_org_class", columnList = "organization_id, class_id"),
+                @Index(name = "idx_attendance_org_course", columnList = "organization_id, course_id")
+        }
 )
 @Data
 @NoArgsConstructor
@@ -0,0 +1,66 @@
+package com.marcedev.attendance.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 📉 Racha de ausencias de un alumno en un curso, mantenida en forma incremental.
+ * - currentAbsences: ausencias seguidas hasta la última clase marcada.
+ * - previousAbsences: la racha antes de aplicar la última clase; permite corregir
+ *   la marca de la última clase en O(1).
+ * - dirty: se corrigió una clase anterior a la última → la recalcula el job de reparación.
+ */
+@Entity
+@Table(
+        name = "attendance_streaks",
+        indexes = @Index(name = "idx_streak_course_absences", columnList = "course_id, current_absences")
+)
+@IdClass(AttendanceStreak.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceStreak {
+
+    @Id
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Id
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(name = "organization_id")
+    private Long organizationId;
+
+    @Column(name = "current_absences", nullable = false)
+    private int currentAbsences;
+
+    @Column(name = "previous_absences", nullable = false)
+    private int previousAbsences;
+
+    @Column(name = "last_class_id")
+    private Long lastClassId;
+
+    @Column(name = "last_class_date")
+    private LocalDate lastClassDate;
+
+    @Column(nullable = false)
+    private boolean dirty;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long studentId;
+        private Long courseId;
+    }
+}
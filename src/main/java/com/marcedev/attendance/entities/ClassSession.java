@@ -3,11 +3,18 @@ package com.marcedev.attendance.entities;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "classes")
+@Table(
+        name = "classes",
+        indexes = @Index(name = "idx_classes_org_course_date", columnList = "organization_id, course_id, date")
+)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
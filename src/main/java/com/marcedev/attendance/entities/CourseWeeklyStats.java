@@ -0,0 +1,60 @@
+package com.marcedev.attendance.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 📊 Agregado semanal de asistencia por curso (semana = lunes a domingo).
+ * Lo mantiene DashboardService: se recalcula al registrar asistencias y se concilia cada noche.
+ */
+@Entity
+@Table(
+        name = "course_weekly_stats",
+        indexes = @Index(name = "idx_course_weekly_org_week", columnList = "organization_id, week_start")
+)
+@IdClass(CourseWeeklyStats.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseWeeklyStats {
+
+    @Id
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Id
+    @Column(name = "week_start")
+    private LocalDate weekStart;
+
+    @Column(name = "organization_id")
+    private Long organizationId;
+
+    @Column(name = "sessions_held", nullable = false)
+    private int sessionsHeld;
+
+    @Column(name = "active_students", nullable = false)
+    private int activeStudents;
+
+    @Column(name = "present_count", nullable = false)
+    private int presentCount;
+
+    @Column(name = "absent_count", nullable = false)
+    private int absentCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long courseId;
+        private LocalDate weekStart;
+    }
+}
@@ -0,0 +1,54 @@
+package com.marcedev.attendance.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 📊 Agregado semanal de asistencia por organización.
+ * active_students cuenta alumnos distintos entre todos los cursos (no es la suma por curso).
+ */
+@Entity
+@Table(name = "organization_weekly_stats")
+@IdClass(OrganizationWeeklyStats.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrganizationWeeklyStats {
+
+    @Id
+    @Column(name = "organization_id")
+    private Long organizationId;
+
+    @Id
+    @Column(name = "week_start")
+    private LocalDate weekStart;
+
+    @Column(name = "sessions_held", nullable = false)
+    private int sessionsHeld;
+
+    @Column(name = "active_students", nullable = false)
+    private int activeStudents;
+
+    @Column(name = "present_count", nullable = false)
+    private int presentCount;
+
+    @Column(name = "absent_count", nullable = false)
+    private int absentCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long organizationId;
+        private LocalDate weekStart;
+    }
+}
@@ -0,0 +1,71 @@
+package com.marcedev.attendance.entities;
+
+import com.marcedev.attendance.enums.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 📤 Evento pendiente de entrega a sistemas externos (outbox transaccional).
+ * Se inserta en la misma transacción que el cambio de asistencia;
+ * el relay lo entrega y completa {@code publishedAt}. Si agota los reintentos queda
+ * en estado DEAD ({@code deadAt}): no se reintenta ni frena a los eventos siguientes de su clase.
+ */
+@Entity
+@Table(
+        name = "attendance_outbox",
+        indexes = {
+                @Index(name = "idx_outbox_pending", columnList = "published_at, dead_at, id"),
+                @Index(name = "idx_outbox_session", columnList = "class_session_id, id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private OutboxEventType eventType;
+
+    /** Clave de orden: los eventos de una misma clase se entregan en orden */
+    @Column(name = "class_session_id")
+    private Long classSessionId;
+
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(name = "organization_id")
+    private Long organizationId;
+
+    /** Cuerpo del evento en JSON */
+    @Lob
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    /** Reintentos fallidos y próximo intento (backoff exponencial) */
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /** DEAD: agotó outbox.relay.max-attempts (dead letter, se revisa a mano) */
+    @Column(name = "dead_at")
+    private LocalDateTime deadAt;
+}
@@ -0,0 +1,55 @@
+package com.marcedev.attendance.entities;
+
+import com.marcedev.attendance.enums.WebhookEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 🌐 Suscripción de una organización a eventos de asistencia (webhook).
+ */
+@Entity
+@Table(name = "webhook_subscriptions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "organization_id", nullable = false)
+    private Organization organization;
+
+    /** URL que recibe los POST */
+    @Column(nullable = false, length = 500)
+    private String url;
+
+    /** Clave para firmar el cuerpo (HMAC-SHA256), opcional */
+    @Column(length = 200)
+    private String secret;
+
+    /** Eventos a los que está suscripta */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @Enumerated(EnumType.STRING)
+    @CollectionTable(name = "webhook_subscription_events", joinColumns = @JoinColumn(name = "subscription_id"))
+    @Column(name = "event_type", length = 40)
+    @Builder.Default
+    private Set<WebhookEventType> events = new HashSet<>();
+
+    /** N de CONSECUTIVE_ABSENCES */
+    @Column(name = "absence_threshold")
+    private int absenceThreshold;
+
+    private boolean active;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,6 @@
+package com.marcedev.attendance.enums;
+
+public enum ExportFormat {
+    CSV,
+    XLSX
+}
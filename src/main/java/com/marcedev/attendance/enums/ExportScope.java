@@ -0,0 +1,6 @@
+package com.marcedev.attendance.enums;
+
+public enum ExportScope {
+    COURSE,
+    ORGANIZATION
+}
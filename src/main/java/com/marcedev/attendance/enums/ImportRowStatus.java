@@ -0,0 +1,7 @@
+package com.marcedev.attendance.enums;
+
+public enum ImportRowStatus {
+    CREATED,
+    SKIPPED,
+    FAILED
+}
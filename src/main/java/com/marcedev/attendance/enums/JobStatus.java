@@ -0,0 +1,8 @@
+package com.marcedev.attendance.enums;
+
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
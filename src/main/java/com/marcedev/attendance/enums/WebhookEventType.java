@@ -0,0 +1,6 @@
+package com.marcedev.attendance.enums;
+
+public enum WebhookEventType {
+    ROLL_CALL_SUBMITTED,     // se registró / modificó la asistencia de una clase
+    CONSECUTIVE_ABSENCES     // un alumno llegó a N ausencias seguidas en un curso
+}
@@ -0,0 +1,20 @@
+package com.marcedev.attendance.events;
+
+import com.marcedev.attendance.dto.AttendanceMarkDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 🔔 Cambio de marcas de asistencia en una clase.
+ * Se publica desde AttendanceServiceImpl dentro de la transacción;
+ * los listeners lo reciben recién después del commit.
+ */
+public record AttendanceChangedEvent(
+        Long classSessionId,
+        Long courseId,
+        Long organizationId,
+        List<AttendanceMarkDTO> marks,
+        LocalDateTime changedAt
+) {
+}
@@ -0,0 +1,16 @@
+package com.marcedev.attendance.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * 🔔 Baja de una asistencia. Se publica dentro de la transacción del borrado.
+ */
+public record AttendanceDeletedEvent(
+        Long attendanceId,
+        Long classSessionId,
+        Long courseId,
+        Long organizationId,
+        Long studentId,
+        LocalDateTime deletedAt
+) {
+}
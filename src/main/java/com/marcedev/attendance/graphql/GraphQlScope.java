@@ -0,0 +1,35 @@
+package com.marcedev.attendance.graphql;
+
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+
+/**
+ * 🔹 Quién consulta la API GraphQL: se resuelve una vez por request
+ * (GraphQlScopeInterceptor) y viaja en el GraphQLContext a todos los resolvers.
+ */
+public record GraphQlScope(Long userId, Rol role, Long organizationId) {
+
+    public static final String CONTEXT_KEY = "graphQlScope";
+
+    public static GraphQlScope of(User user) {
+        Long orgId = user.getOrganization() != null ? user.getOrganization().getId() : null;
+        return new GraphQlScope(user.getId(), user.getRole(), orgId);
+    }
+
+    // Las queries raíz lo exigen: de ellas cuelga todo lo demás
+    public void requireStaff() {
+        if (role == Rol.USER) {
+            throw new IllegalStateException("No tiene permisos para consultar la API GraphQL");
+        }
+        tenantId();
+    }
+
+    /** Organización por la que se filtra; null = sin filtro (SUPER_ADMIN) */
+    public Long tenantId() {
+        if (role == Rol.SUPER_ADMIN) return null;
+        if (organizationId == null) {
+            throw new IllegalStateException("El usuario no pertenece a ninguna organización");
+        }
+        return organizationId;
+    }
+}
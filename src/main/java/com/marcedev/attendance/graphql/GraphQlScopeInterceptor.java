@@ -0,0 +1,41 @@
+package com.marcedev.attendance.graphql;
+
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * 🔹 Resuelve el usuario autenticado una sola vez por request GraphQL
+ * y deja su GraphQlScope en el contexto (los resolvers no vuelven a buscarlo).
+ */
+@Component
+@RequiredArgsConstructor
+public class GraphQlScopeInterceptor implements WebGraphQlInterceptor {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new RuntimeException("Usuario no autenticado");
+        }
+
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+
+        GraphQlScope scope = GraphQlScope.of(user);
+        request.configureExecutionInput((input, builder) ->
+                builder.graphQLContext(Map.of(GraphQlScope.CONTEXT_KEY, scope)).build());
+        return chain.next(request);
+    }
+}
@@ -1,9 +1,12 @@
 package com.marcedev.attendance.mapper;
 
+import com.marcedev.attendance.dto.AttendanceColumnsDTO;
 import com.marcedev.attendance.dto.AttendanceDTO;
 import com.marcedev.attendance.entities.*;
 import org.mapstruct.*;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface AttendanceMapper {
 
@@ -59,4 +62,25 @@ public interface AttendanceMapper {
         org.setName(dto.getOrganizationName());
         return org;
     }
+
+    // 🔹 Lista → columnas (los nombres repetidos van una sola vez por ID)
+    default AttendanceColumnsDTO toColumns(List<AttendanceDTO> rows) {
+        AttendanceColumnsDTO columns = new AttendanceColumnsDTO();
+        columns.setSize(rows.size());
+        for (AttendanceDTO row : rows) {
+            columns.getId().add(row.getId());
+            columns.getClassId().add(row.getClassId());
+            columns.getStudentId().add(row.getStudentId());
+            columns.getAttended().add(row.isAttended());
+            columns.getCourseId().add(row.getCourseId());
+            columns.getOrganizationId().add(row.getOrganizationId());
+
+            if (row.getClassId() != null) columns.getClassNames().putIfAbsent(row.getClassId(), row.getClassName());
+            if (row.getStudentId() != null) columns.getStudentNames().putIfAbsent(row.getStudentId(), row.getStudentName());
+            if (row.getCourseId() != null) columns.getCourseNames().putIfAbsent(row.getCourseId(), row.getCourseName());
+            if (row.getOrganizationId() != null)
+                columns.getOrganizationNames().putIfAbsent(row.getOrganizationId(), row.getOrganizationName());
+        }
+        return columns;
+    }
 }
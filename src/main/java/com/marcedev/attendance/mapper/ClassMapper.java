@@ -1,10 +1,13 @@
 package com.marcedev.attendance.mapper;
 
 import com.marcedev.attendance.dto.ClassDTO;
+import com.marcedev.attendance.dto.ClassSummaryDTO;
 import com.marcedev.attendance.entities.ClassSession;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface ClassMapper {
 
@@ -15,4 +18,10 @@ public interface ClassMapper {
     @Mapping(source = "organization.id", target = "organizationId", defaultValue = "0L")
     @Mapping(source = "organization.name", target = "organizationName", defaultValue = "Sin organización")
     ClassDTO toDto(ClassSession classSession);
+
+    // course.id sale del proxy sin inicializarlo
+    @Mapping(source = "course.id", target = "courseId")
+    ClassSummaryDTO toSummary(ClassSession classSession);
+
+    List<ClassSummaryDTO> toSummaryList(List<ClassSession> classSessions);
 }
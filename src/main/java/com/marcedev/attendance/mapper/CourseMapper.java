@@ -1,6 +1,7 @@
 package com.marcedev.attendance.mapper;
 
 import com.marcedev.attendance.dto.CourseDTO;
+import com.marcedev.attendance.dto.CourseDetailDTO;
 import com.marcedev.attendance.entities.Course;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -8,7 +9,7 @@ import org.mapstruct.Mappings;
 
 import java.util.List;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = ClassMapper.class)
 public interface CourseMapper {
 
     @Mapping(target = "instructorId", expression = "java(course.getInstructor() != null ? course.getInstructor().getId() : null)")
@@ -18,6 +19,14 @@ public interface CourseMapper {
     CourseDTO toDTO(Course course);
 
     List<CourseDTO> toDTOList(List<Course> courses);
+
+    // Las clases tienen que venir inicializadas (CourseService.findById / update / altas)
+    @Mapping(target = "instructorId", expression = "java(course.getInstructor() != null ? course.getInstructor().getId() : null)")
+    @Mapping(target = "instructorName", expression = "java(course.getInstructor() != null ? course.getInstructor().getFullName() : \"Sin asignar\")")
+    @Mapping(target = "organizationId", expression = "java(course.getOrganization() != null ? course.getOrganization().getId() : null)")
+    @Mapping(target = "organizationName", expression = "java(course.getOrganization() != null ? course.getOrganization().getName() : \"Sin organización\")")
+    CourseDetailDTO toDetailDTO(Course course);
+
     @Mappings({
             @Mapping(target = "instructor.id", source = "instructorId"),
             @Mapping(target = "organization.id", source = "organizationId"),
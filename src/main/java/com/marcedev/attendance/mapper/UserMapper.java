@@ -1,5 +1,6 @@
 package com.marcedev.attendance.mapper;
 
+import com.marcedev.attendance.dto.StudentDTO;
 import com.marcedev.attendance.dto.UserDTO;
 import com.marcedev.attendance.entities.Course;
 import com.marcedev.attendance.entities.User;
@@ -22,6 +23,10 @@ public interface UserMapper {
 
     List<UserDTO> toDTOList(List<User> users);
 
+    StudentDTO toStudentDTO(User user);
+
+    List<StudentDTO> toStudentDTOList(List<User> users);
+
     // 🔥 Este método resuelve el error
     default List<String> mapCourses(Set<Course> courses) {
         if (courses == null) return List.of();
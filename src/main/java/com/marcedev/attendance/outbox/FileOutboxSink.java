@@ -0,0 +1,43 @@
+package com.marcedev.attendance.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcedev.attendance.dto.OutboxMessageDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 📄 Sink a archivo: agrega una línea JSON por evento (JSON Lines) en outbox.sink.file.path.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.file.path")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxSink(ObjectMapper objectMapper, @Value("${outbox.sink.file.path}") String path) throws IOException {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+        if (this.path.getParent() != null) {
+            Files.createDirectories(this.path.getParent());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void publish(OutboxMessageDTO message) throws IOException {
+        Files.writeString(path, objectMapper.writeValueAsString(message) + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,47 @@
+package com.marcedev.attendance.outbox;
+
+import com.marcedev.attendance.dto.OutboxMessageDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 🧪 Sink en memoria (tests / desarrollo): guarda los últimos N mensajes entregados.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.memory.enabled", havingValue = "true")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<OutboxMessageDTO> messages = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(@Value("${outbox.sink.memory.capacity:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public synchronized void publish(OutboxMessageDTO message) {
+        if (messages.size() >= capacity) {
+            messages.removeFirst();
+        }
+        messages.addLast(message);
+    }
+
+    public synchronized List<OutboxMessageDTO> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    public synchronized void clear() {
+        messages.clear();
+    }
+}
@@ -0,0 +1,173 @@
+package com.marcedev.attendance.outbox;
+
+import com.marcedev.attendance.dto.OutboxMessageDTO;
+import com.marcedev.attendance.entities.OutboxEvent;
+import com.marcedev.attendance.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 🔹 Relay del outbox: entrega los eventos pendientes a los sinks configurados.
+ * - Lee en lotes por id ascendente; los eventos de una misma clase se entregan en orden:
+ *   si uno falla, los siguientes de esa clase esperan a su reintento. La consulta ya descarta
+ *   las clases bloqueadas, así cada lote avanza aunque un evento falle siempre.
+ * - Reintentos con backoff exponencial (tope: outbox.relay.max-backoff-seconds); después de
+ *   outbox.relay.max-attempts el evento pasa a DEAD y la clase sigue con los siguientes.
+ * - Con varios nodos, un lock de MySQL (GET_LOCK) asegura un solo relay activo.
+ * - Limpieza diaria de los eventos ya entregados y, con una retención más larga para poder
+ *   revisarlos, de los DEAD.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private static final String LOCK_NAME = "attendance_outbox_relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    @Value("${outbox.relay.max-backoff-seconds:600}")
+    private long maxBackoffSeconds;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${outbox.dead-retention-days:30}")
+    private int deadRetentionDays;
+
+    @Value("${outbox.retention.chunk-size:5000}")
+    private int retentionChunkSize;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:2000}")
+    public void relay() {
+        if (!enabled || sinks.isEmpty()) return;
+
+        // 🔒 El lock vive en esta conexión; las lecturas/escrituras usan otras del pool
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!acquireLock(connection)) return null;
+            try {
+                for (int i = 0; i < maxBatchesPerRun; i++) {
+                    if (!relayBatch()) break;
+                }
+            } finally {
+                releaseLock(connection);
+            }
+            return null;
+        });
+    }
+
+    /** @return true si conviene seguir con otro lote (lote lleno y hubo entregas) */
+    boolean relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> pending = outboxEventRepository.findReady(now, PageRequest.of(0, batchSize));
+        if (pending.isEmpty()) return false;
+
+        Set<Long> blockedSessions = new HashSet<>();
+        List<Long> published = new ArrayList<>();
+
+        for (OutboxEvent event : pending) {
+            // sin clase asociada: el evento es su propio grupo de orden
+            Long orderKey = event.getClassSessionId() != null ? event.getClassSessionId() : -event.getId();
+            if (blockedSessions.contains(orderKey)) continue;
+
+            OutboxMessageDTO message = toMessage(event);
+            try {
+                for (OutboxSink sink : sinks) {
+                    sink.publish(message);
+                }
+                published.add(event.getId());
+            } catch (Exception e) {
+                blockedSessions.add(orderKey);
+                String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+                error = error.length() > 500 ? error.substring(0, 500) : error;
+
+                if (event.getAttempts() + 1 >= maxAttempts) {
+                    // 💀 Dead letter: deja de bloquear a los eventos siguientes de la clase
+                    outboxEventRepository.markDead(event.getId(), now, error);
+                    System.err.println("❌ Outbox: evento " + event.getId() + " DEAD tras "
+                            + (event.getAttempts() + 1) + " intentos (" + error + ")");
+                } else {
+                    long backoff = Math.min(maxBackoffSeconds, 1L << Math.min(event.getAttempts() + 1, 20));
+                    outboxEventRepository.markFailed(event.getId(), now.plusSeconds(backoff), error);
+                    System.err.println("⚠️ Outbox: falló la entrega del evento " + event.getId() + " (" + error + ")");
+                }
+            }
+        }
+
+        if (!published.isEmpty()) {
+            outboxEventRepository.markPublished(published, LocalDateTime.now());
+        }
+        return pending.size() == batchSize && !published.isEmpty();
+    }
+
+    // 🧹 Retención: borra en bloques los eventos entregados hace más de N días y los DEAD viejos
+    @Scheduled(cron = "${outbox.retention.cron:0 30 3 * * *}")
+    public void purgePublished() {
+        LocalDateTime now = LocalDateTime.now();
+        purge("DELETE FROM attendance_outbox WHERE published_at IS NOT NULL AND published_at < ? LIMIT ?",
+                now.minusDays(retentionDays));
+        // un DEAD nunca se publica: published_at IS NULL deja usar idx_outbox_pending (published_at, dead_at)
+        purge("DELETE FROM attendance_outbox WHERE published_at IS NULL AND dead_at < ? LIMIT ?",
+                now.minusDays(deadRetentionDays));
+    }
+
+    private void purge(String sql, LocalDateTime limit) {
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, limit, retentionChunkSize);
+        } while (deleted == retentionChunkSize);
+    }
+
+    private OutboxMessageDTO toMessage(OutboxEvent event) {
+        return OutboxMessageDTO.builder()
+                .id(event.getId())
+                .type(event.getEventType())
+                .classSessionId(event.getClassSessionId())
+                .courseId(event.getCourseId())
+                .organizationId(event.getOrganizationId())
+                .payload(event.getPayload())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+
+    private boolean acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void releaseLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.execute();
+        }
+    }
+}
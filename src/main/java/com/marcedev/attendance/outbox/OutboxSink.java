@@ -0,0 +1,16 @@
+package com.marcedev.attendance.outbox;
+
+import com.marcedev.attendance.dto.OutboxMessageDTO;
+
+/**
+ * 📤 Destino de los eventos del outbox (webhook, archivo, memoria...).
+ * La entrega es "al menos una vez": ante un error el relay reintenta y el
+ * mismo mensaje (mismo id) puede llegar de nuevo a los sinks que ya lo recibieron.
+ */
+public interface OutboxSink {
+
+    String getName();
+
+    // Debe lanzar excepción si no pudo entregar (el relay reintenta con backoff)
+    void publish(OutboxMessageDTO message) throws Exception;
+}
@@ -0,0 +1,58 @@
+package com.marcedev.attendance.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcedev.attendance.entities.OutboxEvent;
+import com.marcedev.attendance.enums.OutboxEventType;
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import com.marcedev.attendance.events.AttendanceDeletedEvent;
+import com.marcedev.attendance.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 🔹 Escribe los eventos de asistencia en la tabla attendance_outbox.
+ * Es un @EventListener síncrono: corre en el mismo hilo y la misma transacción
+ * que el cambio, así que el evento queda guardado si y solo si el cambio se confirma.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${outbox.enabled:false}")
+    private boolean enabled;
+
+    @EventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        if (!enabled) return;
+        write(OutboxEventType.ATTENDANCE_MARKED, event.classSessionId(), event.courseId(), event.organizationId(), event);
+    }
+
+    @EventListener
+    public void onAttendanceDeleted(AttendanceDeletedEvent event) {
+        if (!enabled) return;
+        write(OutboxEventType.ATTENDANCE_DELETED, event.classSessionId(), event.courseId(), event.organizationId(), event);
+    }
+
+    private void write(OutboxEventType type, Long classSessionId, Long courseId, Long organizationId, Object payload) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .eventType(type)
+                    .classSessionId(classSessionId)
+                    .courseId(courseId)
+                    .organizationId(organizationId)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + type, e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.marcedev.attendance.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcedev.attendance.dto.OutboxMessageDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * 🌐 Sink HTTP: POST del mensaje en JSON a outbox.sink.webhook.url.
+ * Cualquier respuesta que no sea 2xx cuenta como error (se reintenta).
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.webhook.url")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public WebhookOutboxSink(ObjectMapper objectMapper,
+                             @Value("${outbox.sink.webhook.url}") String url,
+                             @Value("${outbox.sink.webhook.timeout-ms:5000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String getName() {
+        return "webhook";
+    }
+
+    @Override
+    public void publish(OutboxMessageDTO message) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("X-Outbox-Event-Id", String.valueOf(message.getId()))
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(message)))
+                .build();
+
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("El webhook respondió " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.marcedev.attendance.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lectura de {@code attendances_archive} (años académicos cerrados, ver AttendanceStorageService).
+ * Las filas archivadas ya no están en attendances: los reportes las suman desde acá.
+ * La tabla se crea al arrancar o con el primer archivo; mientras no exista no hay nada que sumar.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttendanceArchiveRepository {
+
+    public static final String TABLE = "attendances_archive";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Solo se recuerda el true: la tabla no desaparece una vez creada
+    private volatile boolean exists;
+
+    public boolean exists() {
+        if (!exists) {
+            Integer count = jdbcTemplate.queryForObject("""
+                    SELECT COUNT(*) FROM information_schema.TABLES
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?
+                    """, Integer.class, TABLE);
+            exists = count != null && count > 0;
+        }
+        return exists;
+    }
+
+    /** 🔹 ¿La clase tiene marcas archivadas? (su año académico está cerrado) */
+    public boolean containsClass(Long organizationId, Long courseId, Long classId) {
+        if (!exists()) return false;
+
+        return !jdbcTemplate.queryForList("""
+                SELECT 1 FROM attendances_archive
+                WHERE organization_id = ? AND course_id = ? AND class_id = ?
+                LIMIT 1
+                """, Integer.class, organizationId, courseId, classId).isEmpty();
+    }
+
+    /** 🔹 Presentes archivados por alumno de un curso en [from, to) */
+    public Map<Long, Long> presentByStudent(Long organizationId, Long courseId, LocalDate from, LocalDate to) {
+        Map<Long, Long> present = new HashMap<>();
+        if (!exists()) return present;
+
+        jdbcTemplate.query("""
+                SELECT student_id, SUM(CASE WHEN attended THEN 1 ELSE 0 END)
+                FROM attendances_archive
+                WHERE organization_id = ? AND course_id = ? AND class_date >= ? AND class_date < ?
+                GROUP BY student_id
+                """, rs -> {
+            present.put(rs.getLong(1), rs.getLong(2));
+        }, organizationId, courseId, Date.valueOf(from), Date.valueOf(to));
+        return present;
+    }
+}
@@ -8,21 +8,25 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Repositorio de asistencias.
  * Contiene consultas personalizadas por clase, curso, alumno y organización.
+ * Las consultas llevan siempre organization_id (clave de partición de attendances
+ * y classes) y rangos de fecha en vez de MONTH()/YEAR(), para que MySQL pode particiones
+ * y use los índices (organization_id, ...).
  */
 @Repository
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
 
     /** 🔹 Buscar asistencias por ID de clase */
-    List<Attendance> findByClassSessionId(Long classId);
+    List<Attendance> findByClassSessionIdAndOrganizationId(Long classId, Long organizationId);
 
     /** 🔹 Buscar asistencias por ID de curso */
-    List<Attendance> findByCourseId(Long courseId);
+    List<Attendance> findByCourseIdAndOrganizationId(Long courseId, Long organizationId);
 
     /** 🔹 Buscar asistencias por ID de alumno */
     List<Attendance> findByStudentId(Long studentId);
@@ -45,15 +49,16 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
         (SUM(CASE WHEN a.attended = true THEN 1 ELSE 0 END) * 100.0 / COUNT(a))
     )
     FROM Attendance a
-    WHERE a.course.id = :courseId
-      AND MONTH(a.classSession.date) = :month
-      AND YEAR(a.classSession.date) = :year
+    WHERE a.organization.id = :organizationId
+      AND a.course.id = :courseId
+      AND a.classSession.date >= :from
+      AND a.classSession.date < :to
     GROUP BY a.student.id, a.student.fullName
     ORDER BY a.student.fullName ASC
 """)
-    List<StudentMonthlyStatDTO> getMonthlyStats(Long courseId, int month, int year);
+    List<StudentMonthlyStatDTO> getMonthlyStats(Long courseId, Long organizationId, LocalDate from, LocalDate to);
 
-   ///
+   // Las clases se cuentan por curso, sin organization_id: las clases viejas pueden no tenerlo
    @Query("""
     SELECT new com.marcedev.attendance.dto.CourseMonthlyAttendanceDTO(
         s.id,
@@ -62,56 +67,60 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
         (SELECT COUNT(DISTINCT cs.id)
          FROM ClassSession cs
          WHERE cs.course.id = :courseId
-         AND MONTH(cs.date) = :month
-         AND YEAR(cs.date) = :year),
+         AND cs.date >= :from
+         AND cs.date < :to),
         CASE 
             WHEN (SELECT COUNT(DISTINCT cs.id)
                   FROM ClassSession cs
                   WHERE cs.course.id = :courseId
-                  AND MONTH(cs.date) = :month
-                  AND YEAR(cs.date) = :year) = 0 
+                  AND cs.date >= :from
+                  AND cs.date < :to) = 0 
             THEN 0.0
             ELSE (COALESCE(SUM(CASE WHEN a.attended = true THEN 1 ELSE 0 END), 0) * 100.0 /
                   (SELECT COUNT(DISTINCT cs.id)
                    FROM ClassSession cs
                    WHERE cs.course.id = :courseId
-                   AND MONTH(cs.date) = :month
-                   AND YEAR(cs.date) = :year))
+                   AND cs.date >= :from
+                   AND cs.date < :to))
         END
     )
     FROM User s
     JOIN s.courses c
     LEFT JOIN Attendance a ON a.student.id = s.id
+        AND a.organization.id = :organizationId
         AND a.course.id = :courseId
-        AND MONTH(a.classSession.date) = :month
-        AND YEAR(a.classSession.date) = :year
+        AND a.classSession.date >= :from
+        AND a.classSession.date < :to
     WHERE c.id = :courseId
     GROUP BY s.id, s.fullName
     ORDER BY s.fullName
 """)
    List<CourseMonthlyAttendanceDTO> getMonthlyCourseStats(
            Long courseId,
-           int month,
-           int year
+           Long organizationId,
+           LocalDate from,
+           LocalDate to
    );
 
 
     ///
     @Query("SELECT COUNT(DISTINCT a.classSession.id) FROM Attendance a " +
-            "WHERE a.course.id = :courseId " +
-            "AND MONTH(a.classSession.date) = :month " +
-            "AND YEAR(a.classSession.date) = :year")
-    long countClassesInMonth(Long courseId, int month, int year);
+            "WHERE a.organization.id = :organizationId " +
+            "AND a.course.id = :courseId " +
+            "AND a.classSession.date >= :from " +
+            "AND a.classSession.date < :to")
+    long countClassesInMonth(Long courseId, Long organizationId, LocalDate from, LocalDate to);
 
     @Query("SELECT COUNT(a) FROM Attendance a " +
-            "WHERE a.student.id = :studentId " +
+            "WHERE a.organization.id = :organizationId " +
+            "AND a.student.id = :studentId " +
             "AND a.course.id = :courseId " +
             "AND a.attended = true " +
-            "AND MONTH(a.classSession.date) = :month " +
-            "AND YEAR(a.classSession.date) = :year")
-    long countAttendances(Long studentId, Long courseId, int month, int year);
+            "AND a.classSession.date >= :from " +
+            "AND a.classSession.date < :to")
+    long countAttendances(Long studentId, Long courseId, Long organizationId, LocalDate from, LocalDate to);
 
-    Optional<Attendance> findByStudentIdAndClassSessionId(Long studentId, Long classSessionId);
+    Optional<Attendance> findByStudentIdAndClassSessionIdAndOrganizationId(Long studentId, Long classSessionId, Long organizationId);
 
 
 }
@@ -1,11 +1,15 @@
 package com.marcedev.attendance.repository;
 
 import com.marcedev.attendance.entities.ClassSession;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,9 +29,27 @@ public interface ClassSessionRepository extends JpaRepository<ClassSession, Long
     """, nativeQuery = true)
     List<Object[]> findStudentsByClassId(@Param("classId") Long classId);
 
+    // 🔹 Cacheada (query cache): Hibernate la invalida sola al escribir en classes
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT c FROM ClassSession c WHERE c.course.id = :courseId AND c.date = :date")
     Optional<ClassSession> findByCourseIdAndDate(Long courseId, LocalDate date);
 
-    
-
+    // ✅ Clases de un día para varios cursos (bootstrap de la app)
+    @Query("SELECT c FROM ClassSession c WHERE c.course.id IN :courseIds AND c.date = :date ORDER BY c.id")
+    List<ClassSession> findByCourseIdsAndDate(@Param("courseIds") Collection<Long> courseIds,
+                                              @Param("date") LocalDate date);
+
+    // ✅ Clases sin ninguna asistencia tomada (pases de lista pendientes), más recientes primero.
+    // El filtro por organización usa idx_attendance_org_class
+    @Query("""
+        SELECT c FROM ClassSession c
+        WHERE c.course.id IN :courseIds AND c.date BETWEEN :from AND :to
+          AND NOT EXISTS (SELECT 1 FROM Attendance a
+                          WHERE a.organization = c.organization AND a.classSession = c)
+        ORDER BY c.date DESC, c.id
+    """)
+    List<ClassSession> findWithoutAttendance(@Param("courseIds") Collection<Long> courseIds,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to,
+                                             Pageable pageable);
 }
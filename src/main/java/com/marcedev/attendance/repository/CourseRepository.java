@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
@@ -22,6 +23,13 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
 
     List<Course> findByOrganizationId(Long organizationId);
 
+    @Query("SELECT c.id FROM Course c WHERE c.organization.id = :organizationId")
+    List<Long> findIdsByOrganizationId(Long organizationId);
+
+    // 🔹 Solo organization_id (chequeo de permisos sin cargar el curso ni sus clases)
+    @Query("SELECT o.id FROM Course c LEFT JOIN c.organization o WHERE c.id = :courseId")
+    Optional<Long> findOrganizationIdById(Long courseId);
+
     @Query("""
     SELECT u
     FROM Course c
@@ -0,0 +1,97 @@
+package com.marcedev.attendance.repository;
+
+import com.marcedev.attendance.config.SecondLevelCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Acceso directo a la tabla de inscripciones {@code user_courses}.
+ * Evita cargar {@code Course.students} / {@code User.courses} para altas masivas.
+ * Como escribe por fuera de Hibernate, invalida la colección cacheada {@code Course.students}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EnrollmentJdbcRepository {
+
+    /** Tamaño de cada lote JDBC y de cada lista IN (...) */
+    public static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final SecondLevelCache secondLevelCache;
+
+    /** 🔹 Alumnos (de la lista) que ya están inscriptos en el curso */
+    public Set<Long> findEnrolledUserIds(Long courseId, Collection<Long> userIds) {
+        Set<Long> enrolled = new HashSet<>();
+        for (List<Long> chunk : chunks(userIds)) {
+            enrolled.addAll(namedJdbcTemplate.queryForList(
+                    "SELECT user_id FROM user_courses WHERE course_id = :courseId AND user_id IN (:userIds)",
+                    new MapSqlParameterSource()
+                            .addValue("courseId", courseId)
+                            .addValue("userIds", chunk),
+                    Long.class));
+        }
+        return enrolled;
+    }
+
+    /**
+     * 🔹 Inserta pares (curso, alumno) en lotes.
+     * INSERT IGNORE descarta duplicados si otra request inscribió al mismo alumno en paralelo.
+     * @return cantidad de filas insertadas
+     */
+    public int insertIgnore(Long courseId, List<Long> userIds) {
+        int inserted = 0;
+        for (List<Long> chunk : chunks(userIds)) {
+            int[][] results = jdbcTemplate.batchUpdate(
+                    "INSERT IGNORE INTO user_courses (course_id, user_id) VALUES (?, ?)",
+                    chunk,
+                    chunk.size(),
+                    (ps, userId) -> {
+                        ps.setLong(1, courseId);
+                        ps.setLong(2, userId);
+                    });
+            for (int[] batch : results) {
+                for (int count : batch) {
+                    // con rewriteBatchedStatements el driver puede devolver SUCCESS_NO_INFO (-2)
+                    inserted += count > 0 ? count : (count == Statement.SUCCESS_NO_INFO ? 1 : 0);
+                }
+            }
+        }
+        secondLevelCache.evictCourseStudents(courseId);
+        return inserted;
+    }
+
+    /**
+     * 🔹 Inserta pares (alumno, curso) arbitrarios en lotes — usado por la importación de padrones.
+     * Cada elemento es {userId, courseId}.
+     */
+    public void insertIgnorePairs(List<long[]> userCoursePairs) {
+        for (List<long[]> chunk : chunks(userCoursePairs)) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT IGNORE INTO user_courses (user_id, course_id) VALUES (?, ?)",
+                    chunk,
+                    chunk.size(),
+                    (ps, pair) -> {
+                        ps.setLong(1, pair[0]);
+                        ps.setLong(2, pair[1]);
+                    });
+        }
+        secondLevelCache.evictCourseStudents();
+    }
+
+    /** Parte una colección en listas de a {@link #BATCH_SIZE} */
+    public static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> list = values instanceof List<T> l ? l : new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += BATCH_SIZE) {
+            chunks.add(list.subList(i, Math.min(i + BATCH_SIZE, list.size())));
+        }
+        return chunks;
+    }
+}
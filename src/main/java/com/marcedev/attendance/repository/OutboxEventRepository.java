@@ -0,0 +1,57 @@
+package com.marcedev.attendance.repository;
+
+import com.marcedev.attendance.entities.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * 🔹 Pendientes listos para entregar, en orden de inserción (usa idx_outbox_pending).
+     * Quedan afuera los que esperan su backoff y los posteriores de una clase con un evento
+     * anterior esperando (idx_outbox_session): así un evento que falla no llena el lote y
+     * las demás clases siguen avanzando. Los DEAD no bloquean a nadie.
+     */
+    @Query("""
+        SELECT e FROM OutboxEvent e
+        WHERE e.publishedAt IS NULL AND e.deadAt IS NULL
+          AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now)
+          AND (e.classSessionId IS NULL OR NOT EXISTS (
+                SELECT 1 FROM OutboxEvent p
+                WHERE p.classSessionId = e.classSessionId AND p.id < e.id
+                  AND p.publishedAt IS NULL AND p.deadAt IS NULL AND p.nextAttemptAt > :now))
+        ORDER BY e.id
+    """)
+    List<OutboxEvent> findReady(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :now WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE OutboxEvent e
+        SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error
+        WHERE e.id = :id
+    """)
+    int markFailed(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE OutboxEvent e
+        SET e.attempts = e.attempts + 1, e.deadAt = :now, e.nextAttemptAt = NULL, e.lastError = :error
+        WHERE e.id = :id
+    """)
+    int markDead(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("error") String error);
+}
@@ -6,10 +6,13 @@ import com.marcedev.attendance.enums.Rol;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.domain.Page;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,4 +39,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findDistinctByCoursesIdIn(@Param("courseIds") List<Long> courseIds);
 
     List<User> findByRoleAndOrganizationId(Rol role, Long organizationId);
+
+    // 🔹 Valida pertenencia a la organización en una sola consulta (solo IDs, sin cargar entidades)
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.organization.id = :orgId")
+    List<Long> findIdsByIdInAndOrganizationId(@Param("ids") Collection<Long> ids, @Param("orgId") Long orgId);
+
+    // 🔹 IDs (de la lista) que existen — valida alumnos del pase de lista sin cargar entidades
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // 🔹 Emails (de la lista) que ya existen — deduplicación por lote en importaciones
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // 🔹 Actualiza solo el hash (re-hash al iniciar sesión), sin cargar la entidad.
+    //    Solo si el hash sigue siendo el verificado: un cambio de contraseña en el medio no se pisa.
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id AND u.password = :oldHash")
+    int updatePassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("password") String password);
 }
@@ -0,0 +1,13 @@
+package com.marcedev.attendance.repository;
+
+import com.marcedev.attendance.entities.WebhookSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface WebhookSubscriptionRepository extends JpaRepository<WebhookSubscription, Long> {
+
+    List<WebhookSubscription> findByActiveTrue();
+
+    List<WebhookSubscription> findByOrganizationId(Long organizationId);
+}
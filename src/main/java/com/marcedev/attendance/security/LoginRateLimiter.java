@@ -0,0 +1,240 @@
+package com.marcedev.attendance.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ⏳ Limitador de intentos fallidos de login por ventana deslizante (por email y por IP).
+ * - Sin locks: cada clave tiene un anillo de buckets de tiempo; cada bucket es un
+ *   long con (época del bucket << 20 | contador) actualizado por CAS.
+ * - Solo cuentan los intentos fallidos: los logins correctos no consumen el cupo de la IP,
+ *   así toda una academia detrás del mismo NAT puede entrar sin recibir 429.
+ * - Acotado en memoria: máximo {@code maxKeys} claves por dimensión. Con el mapa lleno las
+ *   claves nuevas no se registran (no hay una ventana compartida que bloquee a todos) y las
+ *   existentes siguen limitadas. Las claves inactivas se eliminan periódicamente.
+ * - Se consulta antes de tocar la base o BCrypt, así un ataque no consume CPU.
+ * - El login reserva el intento con {@link #tryAcquire} antes de verificar la contraseña
+ *   (chequeo y suma en el mismo CAS), así una ráfaga en paralelo no supera el máximo
+ *   mientras BCrypt corre; si las credenciales son correctas el intento se devuelve con {@link #release}.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final boolean enabled;
+    private final int buckets;
+    private final long bucketMillis;
+    private final int maxPerEmail;
+    private final int maxPerIp;
+    private final int maxKeys;
+
+    private final Map<String, Window> byEmail = new ConcurrentHashMap<>();
+    private final Map<String, Window> byIp = new ConcurrentHashMap<>();
+
+    private final Counter rejectedByEmail;
+    private final Counter rejectedByIp;
+    private final Counter untracked;
+
+    public LoginRateLimiter(@Value("${security.login-rate-limit.enabled:true}") boolean enabled,
+                            @Value("${security.login-rate-limit.window-seconds:300}") int windowSeconds,
+                            @Value("${security.login-rate-limit.buckets:10}") int buckets,
+                            @Value("${security.login-rate-limit.max-per-email:10}") int maxPerEmail,
+                            @Value("${security.login-rate-limit.max-per-ip:50}") int maxPerIp,
+                            @Value("${security.login-rate-limit.max-keys:100000}") int maxKeys,
+                            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, windowSeconds * 1000L / buckets);
+        this.maxPerEmail = maxPerEmail;
+        this.maxPerIp = maxPerIp;
+        this.maxKeys = maxKeys;
+
+        this.rejectedByEmail = Counter.builder("auth.login.rejected").tag("reason", "email").register(registry);
+        this.rejectedByIp = Counter.builder("auth.login.rejected").tag("reason", "ip").register(registry);
+        this.untracked = Counter.builder("auth.login.limiter.untracked").register(registry);
+        Gauge.builder("auth.login.limiter.keys", byEmail, Map::size).tag("dimension", "email").register(registry);
+        Gauge.builder("auth.login.limiter.keys", byIp, Map::size).tag("dimension", "ip").register(registry);
+    }
+
+    /**
+     * 🔹 false si el email o la IP ya acumulan el máximo de intentos fallidos en la ventana.
+     * Solo lee: no crea claves (el bloqueo termina cuando la ventana avanza).
+     */
+    public boolean isAllowed(String email, String ip) {
+        if (!enabled) return true;
+
+        long epoch = System.currentTimeMillis() / bucketMillis;
+
+        Window ipWindow = ip != null ? byIp.get(ip) : null;
+        if (ipWindow != null && ipWindow.sum(epoch) >= maxPerIp) {
+            rejectedByIp.increment();
+            return false;
+        }
+
+        Window emailWindow = email != null ? byEmail.get(email.toLowerCase()) : null;
+        if (emailWindow != null && emailWindow.sum(epoch) >= maxPerEmail) {
+            rejectedByEmail.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 🔒 Reserva un intento en la IP y en el email si ninguno llegó al máximo; null si no hay cupo.
+     * El intento reservado queda contado como fallido hasta que se llame a {@link #release}.
+     */
+    public Attempt tryAcquire(String email, String ip) {
+        if (!enabled) return Attempt.NONE;
+
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        String emailKey = email != null ? email.toLowerCase() : null;
+
+        Window ipWindow = ip != null ? window(byIp, ip) : null;
+        if (ipWindow != null && !ipWindow.tryIncrement(epoch, maxPerIp)) {
+            rejectedByIp.increment();
+            return null;
+        }
+
+        Window emailWindow = emailKey != null ? window(byEmail, emailKey) : null;
+        if (emailWindow != null && !emailWindow.tryIncrement(epoch, maxPerEmail)) {
+            if (ipWindow != null) ipWindow.decrement(epoch);
+            rejectedByEmail.increment();
+            return null;
+        }
+        return new Attempt(epoch, ipWindow, emailWindow);
+    }
+
+    /** ✅ Devuelve el intento reservado (login correcto o error que no es de credenciales) */
+    public void release(Attempt attempt) {
+        if (attempt.ipWindow != null) attempt.ipWindow.decrement(attempt.epoch);
+        if (attempt.emailWindow != null) attempt.emailWindow.decrement(attempt.epoch);
+    }
+
+    /** ❌ Credenciales inválidas: suma un intento al email y a la IP */
+    public void recordFailure(String email, String ip) {
+        if (!enabled) return;
+
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        if (ip != null) increment(byIp, ip, epoch);
+        if (email != null) increment(byEmail, email.toLowerCase(), epoch);
+    }
+
+    /** ✅ Login correcto: se olvidan los intentos fallidos de ese email (los de la IP expiran solos) */
+    public void reset(String email) {
+        if (email != null) byEmail.remove(email.toLowerCase());
+    }
+
+    /** Segundos sugeridos para el header Retry-After */
+    public long retryAfterSeconds() {
+        return Math.max(1, bucketMillis / 1000);
+    }
+
+    // 🧹 Eliminar claves sin intentos dentro de la ventana
+    @Scheduled(fixedDelayString = "${security.login-rate-limit.sweep-ms:60000}")
+    public void evictIdle() {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        byEmail.values().removeIf(w -> w.isIdle(epoch));
+        byIp.values().removeIf(w -> w.isIdle(epoch));
+    }
+
+    // Mapa lleno → la clave nueva no se registra; las existentes siguen contando
+    private void increment(Map<String, Window> map, String key, long epoch) {
+        Window window = window(map, key);
+        if (window != null) window.increment(epoch);
+    }
+
+    // null si la clave no existe y el mapa está lleno
+    private Window window(Map<String, Window> map, String key) {
+        Window window = map.get(key);
+        if (window == null) {
+            if (map.size() >= maxKeys) {
+                untracked.increment();
+                return null;
+            }
+            window = map.computeIfAbsent(key, k -> new Window(buckets));
+        }
+        return window;
+    }
+
+    /** Intento reservado: se devuelve en el bucket donde se sumó */
+    public static final class Attempt {
+        private static final Attempt NONE = new Attempt(0, null, null);
+
+        private final long epoch;
+        private final Window ipWindow;
+        private final Window emailWindow;
+
+        private Attempt(long epoch, Window ipWindow, Window emailWindow) {
+            this.epoch = epoch;
+            this.ipWindow = ipWindow;
+            this.emailWindow = emailWindow;
+        }
+    }
+
+    /** Anillo de buckets: cada posición guarda (época << 20 | contador) */
+    private static final class Window {
+        private final AtomicLongArray slots;
+
+        Window(int size) {
+            this.slots = new AtomicLongArray(size);
+        }
+
+        void increment(long epoch) {
+            int idx = (int) (epoch % slots.length());
+            while (true) {
+                long current = slots.get(idx);
+                long next = (current >>> COUNT_BITS) == epoch
+                        ? (current & COUNT_MASK) == COUNT_MASK ? current : current + 1
+                        : (epoch << COUNT_BITS) | 1;
+                if (next == current || slots.compareAndSet(idx, current, next)) return;
+            }
+        }
+
+        // Suma solo si la ventana tiene cupo. Otra suma concurrente cambia el bucket actual,
+        // el CAS falla y se vuelve a sumar la ventana: nunca se pasa de max.
+        boolean tryIncrement(long epoch, int max) {
+            int idx = (int) (epoch % slots.length());
+            while (true) {
+                long current = slots.get(idx);
+                if (sum(epoch) >= max) return false;
+                long next = (current >>> COUNT_BITS) == epoch ? current + 1 : (epoch << COUNT_BITS) | 1;
+                if (slots.compareAndSet(idx, current, next)) return true;
+            }
+        }
+
+        // Si el bucket ya es de otra época el intento expiró solo
+        void decrement(long epoch) {
+            int idx = (int) (epoch % slots.length());
+            while (true) {
+                long current = slots.get(idx);
+                if ((current >>> COUNT_BITS) != epoch || (current & COUNT_MASK) == 0) return;
+                if (slots.compareAndSet(idx, current, current - 1)) return;
+            }
+        }
+
+        int sum(long epoch) {
+            int total = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                long value = slots.get(i);
+                if (epoch - (value >>> COUNT_BITS) < slots.length()) {
+                    total += (int) (value & COUNT_MASK);
+                }
+            }
+            return total;
+        }
+
+        boolean isIdle(long epoch) {
+            return sum(epoch) == 0;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.marcedev.attendance.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 🔐 Hash y verificación de contraseñas (BCrypt) fuera de los hilos de Tomcat.
+ * - Login / registro usan un pool acotado: si está saturado responde 429
+ *   en vez de dejar a las requests livianas esperando un hilo.
+ * - Importaciones masivas usan otro pool con back-pressure (CallerRunsPolicy).
+ * - Métricas: password.hash.duration (op=encode|matches), password.hash.queue.depth,
+ *   password.hash.rejected.
+ * - El timeout acota la espera del request, no la ocupación del pool: BCrypt no atiende
+ *   interrupciones, así que un hash que ya empezó termina igual (a lo sumo un costo de BCrypt).
+ *   Lo que sí se libera al vencer el timeout es el lugar en la cola de las tareas que no empezaron.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final ThreadPoolTaskExecutor bulkExecutor;
+    private final long timeoutMs;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    /** Hash ficticio para igualar tiempos cuando el email no existe */
+    private volatile String dummyHash;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+                                  @Qualifier("bulkPasswordHashExecutor") ThreadPoolTaskExecutor bulkExecutor,
+                                  @Value("${password-hash.timeout-ms:5000}") long timeoutMs,
+                                  MeterRegistry registry) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.bulkExecutor = bulkExecutor;
+        this.timeoutMs = timeoutMs;
+
+        this.encodeTimer = Timer.builder("password.hash.duration").tag("op", "encode").register(registry);
+        this.matchesTimer = Timer.builder("password.hash.duration").tag("op", "matches").register(registry);
+        this.rejected = Counter.builder("password.hash.rejected").register(registry);
+
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("pool", "interactive")
+                .register(registry);
+        Gauge.builder("password.hash.queue.depth", bulkExecutor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("pool", "bulk")
+                .register(registry);
+    }
+
+    // ================== LOGIN / REGISTRO ==================
+
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword))));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword))));
+    }
+
+    /**
+     * Verifica contra un hash ficticio (mismo costo que una verificación real)
+     * para que un email inexistente no responda más rápido.
+     */
+    public void matchesDummy(CharSequence rawPassword) {
+        if (dummyHash == null) {
+            dummyHash = encode("dummy-password");
+        }
+        matches(rawPassword, dummyHash);
+    }
+
+    /** true si el hash fue generado con un costo menor al configurado */
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Re-hash en segundo plano (fire-and-forget). Si el pool está lleno
+     * simplemente se omite: se reintentará en el próximo login.
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // ================== IMPORTACIONES ==================
+
+    /** Hashea una lista en paralelo sobre el pool de importaciones (mismo orden de entrada) */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> futures = rawPasswords.stream()
+                .map(raw -> CompletableFuture.supplyAsync(
+                        () -> encodeTimer.record(() -> passwordEncoder.encode(raw)), bulkExecutor))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    // ================== INTERNOS ==================
+
+    // ExecutorService.submit: el Future cancelado se puede sacar de la cola con purge()
+    private <T> Future<T> submit(Supplier<T> task) {
+        try {
+            return executor.getThreadPoolExecutor().submit(task::get);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Demasiados inicios de sesión simultáneos, intente nuevamente en unos segundos");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Si todavía estaba en cola no llega a correr y libera su lugar; si ya corría, termina su hash
+            future.cancel(true);
+            executor.getThreadPoolExecutor().purge();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Tiempo de espera agotado al verificar la contraseña");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el hash de la contraseña", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
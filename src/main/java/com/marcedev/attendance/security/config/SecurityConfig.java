@@ -2,7 +2,9 @@ package com.marcedev.attendance.security.config;
 
 import com.marcedev.attendance.security.CustomAuthenticationEntryPoint;
 import com.marcedev.attendance.security.jwt.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -74,6 +76,9 @@ public class SecurityConfig {
                         // Preflight OPTIONS debe estar siempre permitido
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
+                        // Dispatch asíncrono (SSE) y de error: la request original ya fue autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                         // Todos los demás requieren autenticación
                         .anyRequest().authenticated()
                 )
@@ -87,9 +92,10 @@ public class SecurityConfig {
     // ======================================================
     // 🔐 PASSWORD ENCODER
     // ======================================================
+    // Costo configurable: los hashes con costo menor se re-hashean en el próximo login.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     // ======================================================
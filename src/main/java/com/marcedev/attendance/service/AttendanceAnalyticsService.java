@@ -0,0 +1,26 @@
+package com.marcedev.attendance.service;
+
+import com.marcedev.attendance.dto.AtRiskStudentDTO;
+import com.marcedev.attendance.dto.CohortStudentDTO;
+import com.marcedev.attendance.dto.CourseAttendanceRateDTO;
+import com.marcedev.attendance.dto.CourseMonthlyAttendanceDTO;
+import com.marcedev.attendance.entities.User;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 🔹 Reportes de asistencia servidos desde las matrices en memoria (sin SQL por consulta).
+ * Los rangos son inclusivos; ADMIN / INSTRUCTOR solo ven cursos de su organización.
+ */
+public interface AttendanceAnalyticsService {
+
+    List<CourseMonthlyAttendanceDTO> getCourseStats(User requester, Long courseId, LocalDate from, LocalDate to);
+
+    CourseAttendanceRateDTO getCourseRate(User requester, Long courseId, LocalDate from, LocalDate to);
+
+    List<AtRiskStudentDTO> getAbsenceStreaks(User requester, Long courseId, int min);
+
+    // Alumnos con al menos un presente en ambos cursos dentro del rango
+    List<CohortStudentDTO> getCohort(User requester, Long courseA, Long courseB, LocalDate from, LocalDate to);
+}
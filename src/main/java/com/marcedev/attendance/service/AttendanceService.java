@@ -38,4 +38,7 @@ public interface AttendanceService {
 
     List<CourseMonthlyAttendanceDTO> getCourseMonthlyStats(Long courseId, int month, int year);
 
+    // Año calendario completo (incluye los meses del archivo en frío)
+    List<CourseMonthlyAttendanceDTO> getCourseYearlyStats(Long courseId, int year);
+
 }
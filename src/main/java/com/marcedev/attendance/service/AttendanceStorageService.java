@@ -0,0 +1,29 @@
+package com.marcedev.attendance.service;
+
+import com.marcedev.attendance.dto.StorageJobDTO;
+import com.marcedev.attendance.dto.TableStorageDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 🔹 Almacenamiento de asistencias: tamaño por partición, particionado por organización
+ * y archivo de años académicos cerrados.
+ */
+public interface AttendanceStorageService {
+
+    // Datos e índices por tabla / partición (attendances, classes, attendances_archive)
+    List<TableStorageDTO> getStorageReport();
+
+    // Sentencias que faltan para particionar attendances y classes (no ejecuta nada)
+    List<String> planPartitioning(int partitions);
+
+    // Aplica el plan en segundo plano; devuelve el job para consultar el progreso
+    StorageJobDTO partitionAsync(int partitions);
+
+    // Mueve un año académico cerrado a attendances_archive (organizationId null = todas)
+    StorageJobDTO archiveAcademicYearAsync(int year, Long organizationId);
+
+    // Progreso de un job de particionado o archivo
+    Optional<StorageJobDTO> findJob(String jobId);
+}
@@ -0,0 +1,20 @@
+package com.marcedev.attendance.service;
+
+import com.marcedev.attendance.dto.AtRiskStudentDTO;
+
+import java.util.List;
+
+/**
+ * 🔹 Rachas de ausencias por (alumno, curso), actualizadas en cada marca.
+ */
+public interface AttendanceStreakService {
+
+    // Alumnos con al menos minAbsences ausencias seguidas (una lectura por índice)
+    List<AtRiskStudentDTO> findAtRisk(Long courseId, int minAbsences);
+
+    // Recalcula desde el historial las rachas de un curso; devuelve cuántas se escribieron
+    int rebuildCourse(Long courseId);
+
+    // Recalcula todas las rachas en segundo plano (lanza TaskRejectedException si el pool está lleno)
+    void rebuildAllAsync();
+}
@@ -0,0 +1,13 @@
+package com.marcedev.attendance.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 🔹 Envío en tiempo real (SSE) de los cambios de asistencia de una clase.
+ * Cada tablet abre una conexión por clase y recibe solo las marcas que cambian.
+ */
+public interface AttendanceStreamService {
+
+    // Suscribe al stream de la clase (lanza IllegalStateException si se alcanzó el máximo de conexiones)
+    SseEmitter subscribe(Long classSessionId);
+}
@@ -0,0 +1,14 @@
+package com.marcedev.attendance.service;
+
+import com.marcedev.attendance.dto.BootstrapDTO;
+import com.marcedev.attendance.entities.User;
+
+/**
+ * 🔹 Arranque de la SPA: cursos, organización, clases de hoy y pases de lista
+ * pendientes en una sola respuesta (consultas en paralelo, cada una read-only).
+ */
+public interface BootstrapService {
+
+    // Pool lleno → 429; alguna parte tarda más que bootstrap.timeout-ms → 503
+    BootstrapDTO getBootstrap(User user);
+}
@@ -3,6 +3,7 @@ package com.marcedev.attendance.service;
 import com.marcedev.attendance.dto.ClassDetailsDTO;
 import com.marcedev.attendance.entities.ClassSession;
 import com.marcedev.attendance.entities.Course;
+import com.marcedev.attendance.entities.User;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -26,5 +27,8 @@ public interface ClassService {
 
     ClassSession getOrCreateTodaySession(Long courseId);
 
+    // Alumnos del curso de la clase (para tomar asistencia)
+    List<User> findStudentsByClassId(Long classId);
+
 
 }
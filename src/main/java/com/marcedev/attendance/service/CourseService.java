@@ -1 +1 @@
-package com.marcedev.attendance.service;import com.marcedev.attendance.entities.Course;import java.util.List;import java.util.Optional;public interface CourseService {    List<Course> findAll();    Optional<Course> findById(Long id);    // 🔹 Crea un curso asignando automáticamente el instructor autenticado    Course saveCourseWithAuthenticatedInstructor(Course course);    Course save(Course course);    Course update(Long id, Course course);    void deleteById(Long id);    // 🔹 Inscribir o remover alumnos    Course addStudentToCourse(Long courseId, Long userId);    Course removeStudentFromCourse(Long courseId, Long userId);    // ✅ Nuevo método para obtener los cursos del usuario autenticado    List<Course> findMyCourses();    void assignInstructor(Long courseId, Long instructorId);}
\ No newline at end of file
+package com.marcedev.attendance.service;import com.marcedev.attendance.dto.BulkEnrollmentResultDTO;import com.marcedev.attendance.dto.CourseDTO;import com.marcedev.attendance.entities.Course;import com.marcedev.attendance.entities.User;import java.util.List;import java.util.Optional;public interface CourseService {    List<Course> findAll();    Optional<Course> findById(Long id);    // 🔹 Listados como DTO (cacheados)    List<CourseDTO> findAllDTOs();    List<CourseDTO> findDTOsByOrganizationId(Long organizationId);    List<CourseDTO> findDTOsByInstructorId(Long instructorId);    // 🔹 Crea un curso asignando automáticamente el instructor autenticado    Course saveCourseWithAuthenticatedInstructor(Course course);    Course save(Course course);    Course update(Long id, Course course);    void deleteById(Long id);    // 🔹 Inscribir o remover alumnos    Course addStudentToCourse(Long courseId, Long userId);    Course removeStudentFromCourse(Long courseId, Long userId);    // 🔹 Alumnos inscriptos (se cargan dentro de la transacción)    List<User> findStudents(Long courseId);    // 🔹 Inscripción masiva (sin cargar la colección de alumnos)    BulkEnrollmentResultDTO addStudentsToCourse(Long courseId, List<Long> userIds);    // ✅ Nuevo método para obtener los cursos del usuario autenticado    List<Course> findMyCourses();    void assignInstructor(Long courseId, Long instructorId);}
\ No newline at end of file
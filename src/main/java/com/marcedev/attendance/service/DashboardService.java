@@ -0,0 +1,16 @@
+package com.marcedev.attendance.service;
+
+import com.marcedev.attendance.dto.OrganizationDashboardDTO;
+import com.marcedev.attendance.entities.User;
+
+/**
+ * 🔹 Dashboard de asistencia por organización, servido desde agregados semanales.
+ */
+public interface DashboardService {
+
+    // ADMIN ve su organización; SUPER_ADMIN debe indicar organizationId
+    OrganizationDashboardDTO getDashboard(User requester, Long organizationId, int weeks);
+
+    // Recalcula los agregados de todas las organizaciones en segundo plano
+    void reconcileAllAsync();
+}
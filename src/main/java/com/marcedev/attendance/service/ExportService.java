@@ -0,0 +1,25 @@
+package com.marcedev.attendance.service;
+
+import com.marcedev.attendance.dto.ExportJobDTO;
+import com.marcedev.attendance.dto.ExportRequestDTO;
+import com.marcedev.attendance.entities.User;
+import org.springframework.core.io.Resource;
+
+import java.util.Optional;
+
+/**
+ * 🔹 Exportación asíncrona del historial de asistencias (CSV / XLSX).
+ * El job corre en un executor acotado y escribe a un archivo temporal;
+ * el cliente consulta el estado y luego descarga el archivo.
+ */
+public interface ExportService {
+
+    // Encola un nuevo job (lanza TaskRejectedException si el pool está lleno)
+    ExportJobDTO submit(ExportRequestDTO request, User requester);
+
+    // Estado del job (solo visible para quien lo creó o un SUPER_ADMIN)
+    Optional<ExportJobDTO> findJob(String jobId, User requester);
+
+    // Archivo generado (solo cuando el job está COMPLETED)
+    Optional<Resource> getFile(String jobId, User requester);
+}
@@ -0,0 +1,33 @@
+package com.marcedev.attendance.service;
+
+import com.marcedev.attendance.dto.*;
+import com.marcedev.attendance.graphql.GraphQlScope;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🔹 Lecturas de la API GraphQL.
+ * Los métodos por IDs resuelven un lote entero (una consulta IN) y siempre filtran
+ * por la organización del scope: lo que queda fuera no aparece en el mapa.
+ */
+public interface GraphQlReadService {
+
+    // 🔹 Raíces
+    List<OrganizationDTO> findOrganizations(GraphQlScope scope);
+    List<CourseDTO> findCourses(GraphQlScope scope);
+
+    // 🔹 Por ID (ID → fila)
+    Map<Long, OrganizationDTO> findOrganizationsById(GraphQlScope scope, Collection<Long> ids);
+    Map<Long, CourseDTO> findCoursesById(GraphQlScope scope, Collection<Long> ids);
+    Map<Long, ClassSummaryDTO> findClassesById(GraphQlScope scope, Collection<Long> ids);
+    Map<Long, UserDTO> findUsersById(GraphQlScope scope, Collection<Long> ids);
+
+    // 🔹 Asociaciones (ID del padre → hijos)
+    Map<Long, List<CourseDTO>> findCoursesByOrganization(GraphQlScope scope, Collection<Long> organizationIds);
+    Map<Long, List<ClassSummaryDTO>> findClassesByCourse(GraphQlScope scope, Collection<Long> courseIds);
+    Map<Long, List<UserDTO>> findStudentsByCourse(GraphQlScope scope, Collection<Long> courseIds);
+    Map<Long, List<AttendanceDTO>> findAttendancesByClass(GraphQlScope scope, Collection<Long> classIds);
+    Map<Long, List<CourseDTO>> findCoursesByUser(GraphQlScope scope, Collection<Long> userIds);
+}
@@ -1,57 +1,214 @@
 package com.marcedev.attendance.service;
 
-import com.marcedev.attendance.entities.Course;
+import com.marcedev.attendance.archive.ColdArchiveStore;
+import com.marcedev.attendance.config.CacheConfig;
+import com.marcedev.attendance.config.SecondLevelCache;
+import com.marcedev.attendance.dto.OrganizationDTO;
+import com.marcedev.attendance.dto.OrganizationDeletionJobDTO;
 import com.marcedev.attendance.entities.Organization;
 import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.JobStatus;
 import com.marcedev.attendance.enums.Rol;
-import com.marcedev.attendance.repository.CourseRepository;
 import com.marcedev.attendance.repository.OrganizationRepository;
 import com.marcedev.attendance.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrganizationService {
 
+    /**
+     * Pasos de la baja de una organización, en orden de dependencias (FK).
+     * Cada sentencia se ejecuta en bloques de {@code chunkSize} filas, cada bloque
+     * en su propia transacción corta, para no bloquear las tablas ni cargar nada en memoria.
+     */
+    private static final String[][] DELETION_STEPS = {
+            {"webhooks", "DELETE FROM webhook_subscription_events WHERE subscription_id IN (SELECT id FROM webhook_subscriptions WHERE organization_id = ?) LIMIT ?"},
+            {"webhooks", "DELETE FROM webhook_subscriptions WHERE organization_id = ? LIMIT ?"},
+            {"dashboard", "DELETE FROM course_weekly_stats WHERE organization_id = ? LIMIT ?"},
+            {"dashboard", "DELETE FROM organization_weekly_stats WHERE organization_id = ? LIMIT ?"},
+            {"streaks", "DELETE FROM attendance_streaks WHERE course_id IN (SELECT id FROM courses WHERE organization_id = ?) LIMIT ?"},
+            {"archive", "DELETE FROM attendances_archive WHERE organization_id = ? LIMIT ?"},
+            {"attendances", "DELETE FROM attendances WHERE organization_id = ? LIMIT ?"},
+            {"attendances", "DELETE FROM attendances WHERE course_id IN (SELECT id FROM courses WHERE organization_id = ?) LIMIT ?"},
+            {"classes", "DELETE FROM classes WHERE organization_id = ? LIMIT ?"},
+            {"classes", "DELETE FROM classes WHERE course_id IN (SELECT id FROM courses WHERE organization_id = ?) LIMIT ?"},
+            {"enrollments", "DELETE FROM user_courses WHERE course_id IN (SELECT id FROM courses WHERE organization_id = ?) LIMIT ?"},
+            {"courses", "DELETE FROM courses WHERE organization_id = ? LIMIT ?"},
+            {"users", "UPDATE users SET organization_id = NULL WHERE organization_id = ? LIMIT ?"}
+    };
+
     private final OrganizationRepository organizationRepository;
     private final UserRepository userRepository;
-    private final CourseRepository courseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final SecondLevelCache secondLevelCache;
+    private final ColdArchiveStore coldArchiveStore;
+
+    @Qualifier("maintenanceExecutor")
+    private final ThreadPoolTaskExecutor maintenanceExecutor;
+
+    @Value("${organization.deletion.chunk-size:2000}")
+    private int chunkSize;
+
+    private final Map<String, OrganizationDeletionJobDTO> deletionJobs = new ConcurrentHashMap<>();
 
     /**
-     * 🔹 Elimina una organización y limpia todas sus relaciones.
+     * 🔹 Listado de organizaciones como DTO (cacheado).
+     * El admin es LAZY: se resuelve dentro de la transacción. Sin readOnly: el valor queda
+     * en cache compartido y no puede salir de la réplica (posible lag tras un alta).
      */
     @Transactional
-    public void deleteById(Long id) {
-        Organization org = organizationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Organización no encontrada"));
-
-        // 🧩 1️⃣ Desvincular cursos
-        List<Course> courses = courseRepository.findByOrganizationId(id);
-        for (Course c : courses) {
-            c.setInstructor(null);
-            c.setOrganization(null);
+    @Cacheable(cacheNames = CacheConfig.ORGANIZATIONS, key = "'all'")
+    public List<OrganizationDTO> findAllDTOs() {
+        return organizationRepository.findAll().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toCollection(ArrayList::new)); // lista mutable: se serializa a JSON en Redis
+    }
+
+    // 🔹 Una organización como DTO (admin resuelto dentro de la transacción)
+    @Transactional(readOnly = true)
+    public Optional<OrganizationDTO> findDTOById(Long id) {
+        return organizationRepository.findById(id).map(this::toDTO);
+    }
+
+    // 🔹 Crear organización
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ORGANIZATIONS, allEntries = true)
+    public OrganizationDTO create(Organization organization) {
+        return toDTO(organizationRepository.save(organization));
+    }
+
+    /**
+     * 🔹 Encola la baja de una organización como job en segundo plano.
+     * Si ya hay una baja en curso para la misma organización, devuelve ese job.
+     */
+    public OrganizationDeletionJobDTO startDeletion(Long id) {
+        if (!organizationRepository.existsById(id)) {
+            throw new RuntimeException("Organización no encontrada");
         }
-        courseRepository.saveAll(courses);
 
-        // 🧩 2️⃣ Desvincular usuarios
-        List<User> users = userRepository.findByOrganizationId(id);
-        for (User u : users) {
-            u.setOrganization(null);
+        synchronized (deletionJobs) {
+            // 🧹 olvidar jobs terminados hace más de un día
+            LocalDateTime limit = LocalDateTime.now().minusDays(1);
+            deletionJobs.values().removeIf(j -> j.getFinishedAt() != null && j.getFinishedAt().isBefore(limit));
+
+            Optional<OrganizationDeletionJobDTO> running = deletionJobs.values().stream()
+                    .filter(j -> j.getOrganizationId().equals(id))
+                    .filter(j -> j.getStatus() == JobStatus.PENDING || j.getStatus() == JobStatus.RUNNING)
+                    .findFirst();
+            if (running.isPresent()) {
+                return running.get();
+            }
+
+            OrganizationDeletionJobDTO job = OrganizationDeletionJobDTO.builder()
+                    .id(UUID.randomUUID().toString())
+                    .organizationId(id)
+                    .status(JobStatus.PENDING)
+                    .createdAt(LocalDateTime.now())
+                    .build();
+            deletionJobs.put(job.getId(), job);
+
+            try {
+                maintenanceExecutor.execute(() -> {
+                    try {
+                        runDeletion(job);
+                    } catch (RuntimeException ignored) {
+                        // el error ya quedó registrado en el job
+                    }
+                });
+            } catch (RuntimeException e) {
+                deletionJobs.remove(job.getId());
+                throw e;
+            }
+            return job;
         }
-        userRepository.saveAll(users);
+    }
 
-        // 🧩 3️⃣ Finalmente eliminar la organización
-        organizationRepository.delete(org);
+    public Optional<OrganizationDeletionJobDTO> findDeletionJob(String jobId) {
+        return Optional.ofNullable(deletionJobs.get(jobId));
+    }
+
+    /**
+     * 🔹 Elimina una organización y limpia todas sus relaciones
+     * con sentencias set-based (UPDATE / DELETE ... WHERE organization_id = ?) en bloques.
+     * Los cursos no pueden quedar sin organización (columna NOT NULL), así que se eliminan
+     * junto con sus clases, asistencias e inscripciones; los usuarios solo se desvinculan.
+     */
+    public void deleteById(Long id) {
+        runDeletion(OrganizationDeletionJobDTO.builder()
+                .id(UUID.randomUUID().toString())
+                .organizationId(id)
+                .status(JobStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private void runDeletion(OrganizationDeletionJobDTO job) {
+        Long id = job.getOrganizationId();
+        job.setStatus(JobStatus.RUNNING);
+
+        try {
+            for (String[] step : DELETION_STEPS) {
+                job.setStep(step[0]);
+                int affected;
+                do {
+                    affected = transactionTemplate.execute(tx -> jdbcTemplate.update(step[1], id, chunkSize));
+                    job.setProcessedRows(job.getProcessedRows() + affected);
+                } while (affected == chunkSize);
+            }
+
+            job.setStep("cold-archive");
+            coldArchiveStore.deleteOrganization(id);
+
+            // 🧩 Finalmente eliminar la organización
+            job.setStep("organization");
+            transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.update("UPDATE organizations SET admin_id = NULL WHERE id = ?", id);
+                jdbcTemplate.update("DELETE FROM organizations WHERE id = ?", id);
+            });
+
+            job.setStatus(JobStatus.COMPLETED);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error eliminando organización " + id + " (paso " + job.getStep() + "): " + e.getMessage());
+            job.setError(e.getMessage());
+            job.setStatus(JobStatus.FAILED);
+            throw e;
+        } finally {
+            // 🧹 Corre fuera del proxy (job en segundo plano): se limpian los caches a mano
+            evict(CacheConfig.ORGANIZATIONS);
+            evict(CacheConfig.COURSE_LISTS);
+            secondLevelCache.evictAll();
+            job.setFinishedAt(LocalDateTime.now());
+        }
     }
 
     /**
      * 🔹 Asigna un administrador (rol ADMIN) a una organización
      */
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ORGANIZATIONS, allEntries = true)
     public void assignAdmin(Long organizationId, Long userId) {
         Organization org = organizationRepository.findById(organizationId)
                 .orElseThrow(() -> new RuntimeException("Organización no encontrada."));
@@ -70,4 +227,20 @@ public class OrganizationService {
         userRepository.saveAndFlush(admin);         // fuerza UPDATE users (organization_id)
     }
 
+    private OrganizationDTO toDTO(Organization org) {
+        return OrganizationDTO.builder()
+                .id(org.getId())
+                .name(org.getName())
+                .type(org.getType())
+                .phone(org.getPhone())
+                .address(org.getAddress())
+                .logoUrl(org.getLogoUrl())
+                .adminFullName(org.getAdmin() != null ? org.getAdmin().getFullName() : null)
+                .build();
+    }
+
+    private void evict(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) cache.clear();
+    }
 }
@@ -0,0 +1,16 @@
+package com.marcedev.attendance.service;
+
+import com.marcedev.attendance.dto.RosterImportReportDTO;
+import com.marcedev.attendance.enums.Rol;
+
+import java.io.InputStream;
+
+/**
+ * 🔹 Importación masiva de padrones (usuarios + inscripciones) desde CSV.
+ * Columnas (encabezado obligatorio): fullName, email, password, role, courseIds
+ * (courseIds separados por ';').
+ */
+public interface RosterImportService {
+
+    RosterImportReportDTO importCsv(InputStream csv, Long organizationId, Rol creatorRole);
+}
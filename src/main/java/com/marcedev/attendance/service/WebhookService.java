@@ -0,0 +1,20 @@
+package com.marcedev.attendance.service;
+
+import com.marcedev.attendance.dto.WebhookSubscriptionDTO;
+import com.marcedev.attendance.entities.User;
+
+import java.util.List;
+
+/**
+ * 🔹 Alta / baja de suscripciones a webhooks por organización.
+ * Errores: IllegalArgumentException (datos inválidos), IllegalStateException (sin permiso).
+ */
+public interface WebhookService {
+
+    // ADMIN: las de su organización; SUPER_ADMIN: las de la organización indicada
+    List<WebhookSubscriptionDTO> findAll(User requester, Long organizationId);
+
+    WebhookSubscriptionDTO create(WebhookSubscriptionDTO dto, User requester);
+
+    void delete(Long id, User requester);
+}
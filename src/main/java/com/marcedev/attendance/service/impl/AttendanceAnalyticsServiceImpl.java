@@ -0,0 +1,81 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.analytics.AttendanceMatrixEngine;
+import com.marcedev.attendance.analytics.CourseMatrix;
+import com.marcedev.attendance.dto.AtRiskStudentDTO;
+import com.marcedev.attendance.dto.CohortStudentDTO;
+import com.marcedev.attendance.dto.CourseAttendanceRateDTO;
+import com.marcedev.attendance.dto.CourseMonthlyAttendanceDTO;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.service.AttendanceAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class AttendanceAnalyticsServiceImpl implements AttendanceAnalyticsService {
+
+    private final AttendanceMatrixEngine engine;
+
+    @Override
+    public List<CourseMonthlyAttendanceDTO> getCourseStats(User requester, Long courseId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return accessibleMatrix(requester, courseId).stats(from, to.plusDays(1));
+    }
+
+    @Override
+    public CourseAttendanceRateDTO getCourseRate(User requester, Long courseId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return accessibleMatrix(requester, courseId).rate(from, to.plusDays(1));
+    }
+
+    @Override
+    public List<AtRiskStudentDTO> getAbsenceStreaks(User requester, Long courseId, int min) {
+        return accessibleMatrix(requester, courseId).absenceStreaks(Math.max(1, min));
+    }
+
+    @Override
+    public List<CohortStudentDTO> getCohort(User requester, Long courseA, Long courseB, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        CourseMatrix a = accessibleMatrix(requester, courseA);
+        CourseMatrix b = accessibleMatrix(requester, courseB);
+
+        RoaringBitmap both = RoaringBitmap.and(a.attendees(from, to.plusDays(1)), b.attendees(from, to.plusDays(1)));
+
+        List<CohortStudentDTO> result = new ArrayList<>(both.getCardinality());
+        both.forEach((int studentId) -> {
+            String name = a.nameOf(studentId);
+            result.add(new CohortStudentDTO((long) studentId, name != null ? name : b.nameOf(studentId)));
+        });
+        result.sort(Comparator.comparing(CohortStudentDTO::getFullName, Comparator.nullsLast(String::compareTo)));
+        return result;
+    }
+
+    // 🚫 ADMIN / INSTRUCTOR solo sobre cursos de su organización
+    private CourseMatrix accessibleMatrix(User requester, Long courseId) {
+        if (requester.getRole() == Rol.USER) {
+            throw new IllegalStateException("No tiene permisos para ver reportes");
+        }
+
+        CourseMatrix matrix = engine.matrix(courseId);
+        if (requester.getRole() != Rol.SUPER_ADMIN
+                && (requester.getOrganization() == null
+                || !requester.getOrganization().getId().equals(matrix.getOrganizationId()))) {
+            throw new IllegalStateException("El curso no pertenece a su organización");
+        }
+        return matrix;
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' no puede ser anterior a 'from'");
+        }
+    }
+}
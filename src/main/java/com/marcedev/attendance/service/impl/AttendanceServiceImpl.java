@@ -1,24 +1,35 @@
 package com.marcedev.attendance.service.impl;
 
+import com.marcedev.attendance.archive.ColdArchiveStore;
 import com.marcedev.attendance.dto.AttendanceDTO;
 import com.marcedev.attendance.dto.AttendanceMarkDTO;
 import com.marcedev.attendance.dto.CourseMonthlyAttendanceDTO;
 import com.marcedev.attendance.dto.StudentMonthlyStatDTO;
 import com.marcedev.attendance.entities.*;
 import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import com.marcedev.attendance.events.AttendanceDeletedEvent;
 import com.marcedev.attendance.mapper.AttendanceMapper;
+import com.marcedev.attendance.repository.AttendanceArchiveRepository;
 import com.marcedev.attendance.repository.AttendanceRepository;
 import com.marcedev.attendance.repository.ClassSessionRepository;
 import com.marcedev.attendance.repository.CourseRepository;
 import com.marcedev.attendance.repository.UserRepository;
 import com.marcedev.attendance.service.AttendanceService;
-import jakarta.transaction.Transactional;
+import com.marcedev.attendance.util.LongObjectMap;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,11 +39,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AttendanceServiceImpl implements AttendanceService {
 
+    // Tamaño de cada lista IN (...) al validar alumnos
+    private static final int STUDENT_LOOKUP_CHUNK = 1000;
+
     private final AttendanceRepository attendanceRepository;
     private final ClassSessionRepository classSessionRepository;
     private final UserRepository userRepository;
     private final AttendanceMapper attendanceMapper;
     private final CourseRepository courseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ColdArchiveStore coldArchiveStore;
+    private final AttendanceArchiveRepository attendanceArchiveRepository;
 
     // ================== CRUD ==================
 
@@ -44,10 +61,16 @@ public class AttendanceServiceImpl implements AttendanceService {
             throw new RuntimeException("classSessionId y studentId son obligatorios");
         }
 
+        // La sesión aporta la organización: clave de partición de attendances
+        var session = classSessionRepository.findById(dto.getClassSessionId())
+                .orElseThrow(() -> new RuntimeException("Sesión no encontrada"));
+        ensureNotArchived(session, organizationIdOf(session));
+
         // Buscar si ya existe asistencia registrada para esta clase y alumno
-        var existingOpt = attendanceRepository.findByStudentIdAndClassSessionId(
+        var existingOpt = attendanceRepository.findByStudentIdAndClassSessionIdAndOrganizationId(
                 dto.getStudentId(),
-                dto.getClassSessionId()
+                dto.getClassSessionId(),
+                organizationIdOf(session)
         );
 
         Attendance entity;
@@ -60,24 +83,27 @@ public class AttendanceServiceImpl implements AttendanceService {
             // ✅ No existe → crear nueva
             entity = attendanceMapper.toEntity(dto);
 
-            // Aseguramos referencias clave
-            var session = classSessionRepository.findById(dto.getClassSessionId())
-                    .orElseThrow(() -> new RuntimeException("Sesión no encontrada"));
-
             var student = userRepository.findById(dto.getStudentId())
                     .orElseThrow(() -> new RuntimeException("Alumno no encontrado"));
 
             entity.setClassSession(session);
             entity.setStudent(student);
             entity.setCourse(session.getCourse());
-            entity.setOrganization(session.getOrganization());
+            entity.setOrganization(session.getOrganization() != null
+                    ? session.getOrganization()
+                    : session.getCourse().getOrganization());
         }
 
         var saved = attendanceRepository.save(entity);
+
+        publishChange(saved.getClassSession(), saved.getCourse(), saved.getOrganization(),
+                List.of(new AttendanceMarkDTO(saved.getStudent().getId(), saved.isAttended())));
+
         return attendanceMapper.toDTO(saved);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AttendanceDTO> findAll() {
         User currentUser = getAuthenticatedUser();
 
@@ -97,18 +123,25 @@ public class AttendanceServiceImpl implements AttendanceService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AttendanceDTO> findByClassId(Long classId) {
-        return attendanceRepository.findByClassSessionId(classId)
+        return classSessionRepository.findById(classId)
+                .map(session -> attendanceRepository.findByClassSessionIdAndOrganizationId(classId, organizationIdOf(session)))
+                .orElse(List.of())
                 .stream().map(attendanceMapper::toDTO).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AttendanceDTO> findByCourseId(Long courseId) {
-        return attendanceRepository.findByCourseId(courseId)
+        return courseRepository.findById(courseId)
+                .map(course -> attendanceRepository.findByCourseIdAndOrganizationId(courseId, course.getOrganization().getId()))
+                .orElse(List.of())
                 .stream().map(attendanceMapper::toDTO).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AttendanceDTO findById(Long id) {
         return attendanceRepository.findById(id)
                 .map(attendanceMapper::toDTO)
@@ -116,12 +149,25 @@ public class AttendanceServiceImpl implements AttendanceService {
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
         User currentUser = getAuthenticatedUser();
         if (currentUser.getRole() == Rol.USER) {
             throw new RuntimeException("No autorizado");
         }
-        attendanceRepository.deleteById(id);
+
+        attendanceRepository.findById(id).ifPresent(attendance -> {
+            // 🔔 Mismo commit que el borrado (outbox)
+            eventPublisher.publishEvent(new AttendanceDeletedEvent(
+                    attendance.getId(),
+                    attendance.getClassSession() != null ? attendance.getClassSession().getId() : null,
+                    attendance.getCourse() != null ? attendance.getCourse().getId() : null,
+                    attendance.getOrganization() != null ? attendance.getOrganization().getId() : null,
+                    attendance.getStudent() != null ? attendance.getStudent().getId() : null,
+                    LocalDateTime.now()
+            ));
+            attendanceRepository.delete(attendance);
+        });
     }
 
     // ================== AUTH ==================
@@ -144,6 +190,7 @@ public class AttendanceServiceImpl implements AttendanceService {
 
     /** COMPATIBILIDAD vieja API */
     @Override
+    @Transactional
     public void registerAttendanceByCourse(Long courseId, Map<Long, Boolean> attendanceMap) {
 
         var course = courseRepository.findById(courseId)
@@ -172,20 +219,11 @@ public class AttendanceServiceImpl implements AttendanceService {
                 ? session.getOrganization()
                 : course.getOrganization();
 
-        // ✅ Registrar asistencias
-        attendanceMap.forEach((studentId, present) -> {
-            User student = userRepository.findById(studentId)
-                    .orElseThrow(() -> new RuntimeException("Alumno no encontrado"));
-
-            Attendance att = new Attendance();
-            att.setClassSession(session);   // ✅ AHORA sí existe
-            att.setStudent(student);
-            att.setAttended(present);
-            att.setCourse(course);          // ✅ Correcto
-            att.setOrganization(org);       // ✅ Correcto
+        // ✅ Registrar asistencias (los ids llegan boxeados del JSON: se pasan a claves long una sola vez)
+        LongObjectMap<Boolean> marks = new LongObjectMap<>(attendanceMap.size());
+        attendanceMap.forEach((studentId, present) -> marks.put(studentId, present));
 
-            attendanceRepository.save(att);
-        });
+        applyMarks(session, course, org, marks);
     }
 
     /** ✅ API NUEVA (la que usa tu frontend) */
@@ -200,40 +238,109 @@ public class AttendanceServiceImpl implements AttendanceService {
         Course course = session.getCourse();
         Organization org = session.getOrganization() != null ? session.getOrganization() : course.getOrganization();
 
-        // ✅ Traemos asistencias ya creadas (si existen)
-        List<Attendance> existing = attendanceRepository.findByClassSessionId(sessionId);
+        // ✅ Una marca por alumno (si se repite, gana la última)
+        LongObjectMap<Boolean> marks = new LongObjectMap<>(attendances.size());
+        for (AttendanceMarkDTO mark : attendances) {
+            marks.put(mark.getUserId(), mark.isPresent());
+        }
 
-        if (!existing.isEmpty()) {
-            // ✅ EDITAR (UPDATE)
-            for (AttendanceMarkDTO mark : attendances) {
-                existing.stream()
-                        .filter(a -> a.getStudent().getId().equals(mark.getUserId()))
-                        .findFirst()
-                        .ifPresent(a -> a.setAttended(mark.isPresent())); // solo actualiza presente/ausente
-            }
+        applyMarks(session, course, org, marks);
+    }
 
-            attendanceRepository.saveAll(existing);
-            return;
+    /**
+     * 🧩 Pase de lista: actualiza las filas existentes de la sesión y crea las que faltan.
+     * - Filas existentes indexadas por alumno en un mapa de long (O(1) por marca, sin Long.equals).
+     * - Los alumnos nuevos se validan con una consulta de ids por lote y se asignan como
+     *   referencias (getReferenceById), sin cargar cada User con sus cursos.
+     * - Solo se notifican las marcas nuevas o que cambiaron.
+     */
+    private void applyMarks(ClassSession session, Course course, Organization org, LongObjectMap<Boolean> marks) {
+        if (marks.isEmpty()) return;
+        ensureNotArchived(session, org.getId());
+
+        List<Attendance> rows = attendanceRepository.findByClassSessionIdAndOrganizationId(session.getId(), org.getId());
+        LongObjectMap<Attendance> existing = new LongObjectMap<>(rows.size());
+        for (Attendance row : rows) {
+            existing.put(row.getStudent().getId(), row);
         }
 
-        // ✅ CREAR si no existían
-        for (AttendanceMarkDTO mark : attendances) {
-            User student = userRepository.findById(mark.getUserId())
-                    .orElseThrow(() -> new RuntimeException("Alumno no encontrado"));
+        List<Long> missing = new ArrayList<>();
+        marks.forEach((studentId, present) -> {
+            if (!existing.containsKey(studentId)) missing.add(studentId);
+        });
+        for (int start = 0; start < missing.size(); start += STUDENT_LOOKUP_CHUNK) {
+            List<Long> chunk = missing.subList(start, Math.min(start + STUDENT_LOOKUP_CHUNK, missing.size()));
+            if (userRepository.findExistingIds(chunk).size() != chunk.size()) {
+                throw new RuntimeException("Alumno no encontrado");
+            }
+        }
+
+        List<Attendance> created = new ArrayList<>(missing.size());
+        List<AttendanceMarkDTO> changed = new ArrayList<>();
+        marks.forEach((studentId, present) -> {
+            Attendance row = existing.get(studentId);
+            if (row == null) {
+                Attendance a = new Attendance();
+                a.setClassSession(session);
+                a.setStudent(userRepository.getReferenceById(studentId));
+                a.setAttended(present);
+                a.setCourse(course);
+                a.setOrganization(org);
+                created.add(a);
+            } else if (row.isAttended() != present) {
+                row.setAttended(present); // entidad gestionada: se actualiza al hacer flush
+            } else {
+                return;
+            }
+            changed.add(new AttendanceMarkDTO(studentId, present));
+        });
+
+        attendanceRepository.saveAll(created);
+        publishChange(session, course, org, changed);
+    }
 
-            Attendance a = new Attendance();
-            a.setClassSession(session);
-            a.setStudent(student);
-            a.setAttended(mark.isPresent());
-            a.setCourse(course);
-            a.setOrganization(org);
-            attendanceRepository.save(a);
+    /**
+     * 🧊 Las marcas de un mes en frío o de un año académico cerrado ya no están en attendances:
+     * una marca nueva sería una segunda fila para el mismo alumno y clase, y los reportes la
+     * contarían dos veces. Esas sesiones son de solo lectura.
+     */
+    private void ensureNotArchived(ClassSession session, Long orgId) {
+        if (session.getDate() != null
+                && coldArchiveStore.exists(orgId, session.getCourse().getId(), YearMonth.from(session.getDate()))) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "El mes de la clase está archivado: no se pueden modificar sus asistencias");
         }
+        if (attendanceArchiveRepository.containsClass(orgId, session.getCourse().getId(), session.getId())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "La clase pertenece a un año académico archivado: no se pueden modificar sus asistencias");
+        }
+    }
+
+    // 🧩 Organización de la sesión (las sesiones viejas pueden no tenerla: se usa la del curso)
+    private Long organizationIdOf(ClassSession session) {
+        Organization org = session.getOrganization() != null
+                ? session.getOrganization()
+                : session.getCourse().getOrganization();
+        return org.getId();
+    }
+
+    // 🔔 Avisar a los listeners: outbox (misma transacción) y SSE (después del commit)
+    private void publishChange(ClassSession session, Course course, Organization org, List<AttendanceMarkDTO> marks) {
+        if (session == null || marks.isEmpty()) return;
+
+        eventPublisher.publishEvent(new AttendanceChangedEvent(
+                session.getId(),
+                course != null ? course.getId() : null,
+                org != null ? org.getId() : null,
+                List.copyOf(marks),
+                LocalDateTime.now()
+        ));
     }
 
     // ================== SESIÓN DEL DÍA ==================
 
     @Override
+    @Transactional
     public ClassSession getOrCreateTodaySession(Long courseId) {
         var today = LocalDate.now();
 
@@ -260,9 +367,63 @@ public class AttendanceServiceImpl implements AttendanceService {
 
 
     @Override
+    @Transactional(readOnly = true)
     public List<CourseMonthlyAttendanceDTO> getCourseMonthlyStats(Long courseId, int month, int year) {
-        Long totalClasses = attendanceRepository.countClassesInMonth(courseId, month, year);
-        return attendanceRepository.getMonthlyCourseStats(courseId, month, year);
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Mes inválido: " + month);
+        }
+
+        // Rango [from, to) en vez de MONTH()/YEAR(): permite usar el índice de fecha
+        LocalDate from = LocalDate.of(year, month, 1);
+        LocalDate to = from.plusMonths(1);
+
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return courseStats(courseId, from, to, List.of(yearMonth));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseMonthlyAttendanceDTO> getCourseYearlyStats(Long courseId, int year) {
+        LocalDate from = LocalDate.of(year, 1, 1);
+        List<YearMonth> months = new ArrayList<>();
+        for (int m = 1; m <= 12; m++) months.add(YearMonth.of(year, m));
+
+        return courseStats(courseId, from, from.plusYears(1), months);
+    }
+
+    // Consulta en vivo + presentes de attendances_archive y de los meses archivados en frío
+    private List<CourseMonthlyAttendanceDTO> courseStats(Long courseId, LocalDate from, LocalDate to, List<YearMonth> months) {
+        return courseRepository.findById(courseId)
+                .map(course -> {
+                    Long orgId = course.getOrganization().getId();
+                    return mergeArchived(
+                            attendanceRepository.getMonthlyCourseStats(courseId, orgId, from, to),
+                            orgId, courseId, from, to, months);
+                })
+                .orElse(List.of());
+    }
+
+    // 🧊 Las clases archivadas siguen en classes (el total no cambia): solo se suman los presentes.
+    //    Cada marca vive en un solo lugar (attendances, attendances_archive o un snapshot en frío):
+    //    las sesiones archivadas no aceptan marcas nuevas (ensureNotArchived).
+    private List<CourseMonthlyAttendanceDTO> mergeArchived(List<CourseMonthlyAttendanceDTO> live, Long orgId,
+                                                           Long courseId, LocalDate from, LocalDate to,
+                                                           List<YearMonth> months) {
+        Map<Long, Long> archived = attendanceArchiveRepository.presentByStudent(orgId, courseId, from, to);
+        for (YearMonth month : months) {
+            coldArchiveStore.read(orgId, courseId, month).ifPresent(snapshot ->
+                    snapshot.presentByStudent().forEach((studentId, present) -> archived.merge(studentId, present, Long::sum)));
+        }
+        if (archived.isEmpty()) return live;
+
+        return live.stream()
+                .map(row -> {
+                    long present = row.getPresent() + archived.getOrDefault(row.getStudentId(), 0L);
+                    long total = row.getTotalClasses();
+                    return new CourseMonthlyAttendanceDTO(row.getStudentId(), row.getStudentName(),
+                            present, total, total == 0 ? 0.0 : present * 100.0 / total);
+                })
+                .collect(Collectors.toList());
     }
 
 }
@@ -0,0 +1,368 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.StorageJobDTO;
+import com.marcedev.attendance.dto.TableStorageDTO;
+import com.marcedev.attendance.enums.JobStatus;
+import com.marcedev.attendance.service.AttendanceStorageService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 🗄️ Almacenamiento de asistencias.
+ * - Particionado: attendances y classes se particionan por KEY(organization_id), así las
+ *   consultas de AttendanceRepository (que siempre llevan organization_id) leen una sola partición.
+ *   MySQL no admite claves foráneas en tablas particionadas y exige que toda clave única incluya
+ *   la columna de partición: el plan elimina esas FKs y agrega organization_id a la PK y a las únicas.
+ *   El plan se calcula desde information_schema, así que ejecutarlo dos veces no repite pasos.
+ * - Archivo: un año académico cerrado se mueve a attendances_archive (particionada por LIST de año,
+ *   ROW_FORMAT=COMPRESSED) en bloques cortos. Las rachas ya no ven esas filas; el dashboard
+ *   sí las agrega al recalcular.
+ *   Las estadísticas por curso, la analítica y las exportaciones sí las suman (AttendanceArchiveRepository).
+ *   Los meses viejos que ya movió el archivo en frío (ColdArchiveJob) no están en attendances y
+ *   quedan en sus archivos: cada marca vive en un único lugar, nunca en los dos archivos.
+ *   Una clase con marcas archivadas no acepta marcas nuevas (AttendanceService): volver a correr
+ *   el archivo de un año nunca agrega una segunda fila para el mismo alumno y clase.
+ * - Particionado y archivo corren como jobs en segundo plano: progreso y error se consultan
+ *   por id (GET /api/storage/jobs/{id}), igual que la baja de organizaciones.
+ */
+@Service
+public class AttendanceStorageServiceImpl implements AttendanceStorageService {
+
+    private static final List<String> PARTITIONED_TABLES = List.of("classes", "attendances");
+    private static final String PARTITION_COLUMN = "organization_id";
+    private static final int MAX_PARTITIONS = 1024;
+
+    private static final String ARCHIVE_TABLE = """
+            CREATE TABLE IF NOT EXISTS attendances_archive (
+                id BIGINT NOT NULL,
+                academic_year INT NOT NULL,
+                organization_id BIGINT NOT NULL,
+                course_id BIGINT NOT NULL,
+                class_id BIGINT NOT NULL,
+                student_id BIGINT NOT NULL,
+                class_date DATE NOT NULL,
+                attended BOOLEAN NOT NULL,
+                archived_at DATETIME(6) NOT NULL,
+                PRIMARY KEY (id, academic_year),
+                KEY idx_archive_org_course (organization_id, course_id, academic_year),
+                KEY idx_archive_student (student_id, academic_year)
+            ) ROW_FORMAT=COMPRESSED
+            PARTITION BY LIST (academic_year) (PARTITION p0 VALUES IN (0))
+            """;
+
+    private static final String ARCHIVE_INSERT = """
+            INSERT IGNORE INTO attendances_archive
+                (id, academic_year, organization_id, course_id, class_id, student_id,
+                 class_date, attended, archived_at)
+            SELECT a.id, :year, a.organization_id, a.course_id, a.class_id, a.student_id,
+                   c.date, a.attended, NOW(6)
+            FROM attendances a
+            JOIN classes c ON c.id = a.class_id
+            WHERE a.organization_id = :orgId AND a.id IN (:ids)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor maintenanceExecutor;
+    private final MonthDay academicYearStart;
+    private final int chunkSize;
+
+    private final Map<String, StorageJobDTO> jobs = new ConcurrentHashMap<>();
+
+    public AttendanceStorageServiceImpl(JdbcTemplate jdbcTemplate,
+                                        NamedParameterJdbcTemplate namedJdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        @Qualifier("maintenanceExecutor") ThreadPoolTaskExecutor maintenanceExecutor,
+                                        @Value("${attendance.archive.academic-year-start:03-01}") String academicYearStart,
+                                        @Value("${attendance.archive.chunk-size:2000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.academicYearStart = MonthDay.parse("--" + academicYearStart);
+        this.chunkSize = chunkSize;
+    }
+
+    // ================== REPORTE ==================
+
+    @Override
+    public List<TableStorageDTO> getStorageReport() {
+        // Sin caché de estadísticas (MySQL 8 las guarda 24 h por defecto): el reporte sirve para medir
+        return jdbcTemplate.execute((ConnectionCallback<List<TableStorageDTO>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SESSION information_schema_stats_expiry = 0");
+                try (ResultSet rs = statement.executeQuery("""
+                        SELECT TABLE_NAME, PARTITION_NAME, PARTITION_METHOD, PARTITION_EXPRESSION,
+                               TABLE_ROWS, DATA_LENGTH, INDEX_LENGTH
+                        FROM information_schema.PARTITIONS
+                        WHERE TABLE_SCHEMA = DATABASE()
+                          AND TABLE_NAME IN ('attendances', 'classes', 'attendances_archive')
+                        ORDER BY TABLE_NAME, PARTITION_ORDINAL_POSITION
+                        """)) {
+                    List<TableStorageDTO> report = new ArrayList<>();
+                    while (rs.next()) {
+                        report.add(TableStorageDTO.builder()
+                                .table(rs.getString(1))
+                                .partition(rs.getString(2))
+                                .method(rs.getString(3))
+                                .expression(rs.getString(4))
+                                .estimatedRows(rs.getLong(5))
+                                .dataBytes(rs.getLong(6))
+                                .indexBytes(rs.getLong(7))
+                                .build());
+                    }
+                    return report;
+                } finally {
+                    statement.execute("SET SESSION information_schema_stats_expiry = DEFAULT");
+                }
+            }
+        });
+    }
+
+    // ================== PARTICIONADO ==================
+
+    @Override
+    public List<String> planPartitioning(int partitions) {
+        if (partitions < 2 || partitions > MAX_PARTITIONS) {
+            throw new IllegalArgumentException("La cantidad de particiones debe estar entre 2 y " + MAX_PARTITIONS);
+        }
+
+        List<String> plan = new ArrayList<>();
+
+        // 1️⃣ Las clases viejas pueden no tener organización: se toma la del curso
+        if (isNullable("classes", PARTITION_COLUMN)) {
+            plan.add("UPDATE classes c JOIN courses co ON co.id = c.course_id"
+                    + " SET c.organization_id = co.organization_id WHERE c.organization_id IS NULL");
+            plan.add("ALTER TABLE classes MODIFY organization_id BIGINT NOT NULL");
+        }
+
+        // 2️⃣ Claves foráneas desde y hacia las tablas a particionar
+        jdbcTemplate.query("""
+                SELECT TABLE_NAME, CONSTRAINT_NAME
+                FROM information_schema.REFERENTIAL_CONSTRAINTS
+                WHERE CONSTRAINT_SCHEMA = DATABASE()
+                  AND (TABLE_NAME IN ('attendances', 'classes') OR REFERENCED_TABLE_NAME IN ('attendances', 'classes'))
+                ORDER BY TABLE_NAME, CONSTRAINT_NAME
+                """, rs -> {
+            plan.add("ALTER TABLE `" + rs.getString(1) + "` DROP FOREIGN KEY `" + rs.getString(2) + "`");
+        });
+
+        for (String table : PARTITIONED_TABLES) {
+            if (isPartitioned(table)) continue;
+
+            // 3️⃣ PK y claves únicas deben incluir la columna de partición
+            uniqueIndexes(table).forEach((name, columns) -> {
+                if (columns.contains(PARTITION_COLUMN)) return;
+                List<String> withPartitionColumn = new ArrayList<>(columns);
+                withPartitionColumn.add(PARTITION_COLUMN);
+                String cols = "`" + String.join("`, `", withPartitionColumn) + "`";
+                plan.add("PRIMARY".equals(name)
+                        ? "ALTER TABLE " + table + " DROP PRIMARY KEY, ADD PRIMARY KEY (" + cols + ")"
+                        : "ALTER TABLE " + table + " DROP INDEX `" + name + "`, ADD UNIQUE INDEX `" + name + "` (" + cols + ")");
+            });
+
+            // 4️⃣ Particionar
+            plan.add("ALTER TABLE " + table + " PARTITION BY KEY(" + PARTITION_COLUMN + ") PARTITIONS " + partitions);
+        }
+
+        return plan;
+    }
+
+    @Override
+    public StorageJobDTO partitionAsync(int partitions) {
+        List<String> plan = planPartitioning(partitions);
+
+        return startJob("partitioning", partitions + " particiones", job -> {
+            for (String sql : plan) {
+                job.setStep(sql);
+                System.out.println("🗄️ " + sql);
+                jdbcTemplate.execute(sql);
+                job.setProcessedRows(job.getProcessedRows() + 1);
+            }
+            System.out.println("✅ attendances y classes particionadas por organización (" + partitions + " particiones)");
+        });
+    }
+
+    // ================== ARCHIVO ==================
+
+    @Override
+    public StorageJobDTO archiveAcademicYearAsync(int year, Long organizationId) {
+        LocalDate from = academicYearStart.atYear(year);
+        LocalDate to = academicYearStart.atYear(year + 1);
+        if (to.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("El año académico " + year + " todavía no terminó (cierra el " + to + ")");
+        }
+
+        String scope = organizationId != null ? "organización " + organizationId : "todas las organizaciones";
+        return startJob("archive", "año " + year + " (" + scope + ")", job -> {
+            job.setStep("tabla de archivo");
+            ensureArchiveTable();
+            ensureArchivePartition(year);
+
+            List<Long> orgIds = organizationId != null
+                    ? List.of(organizationId)
+                    : jdbcTemplate.queryForList("SELECT id FROM organizations", Long.class);
+
+            for (Long orgId : orgIds) {
+                job.setStep("organización " + orgId);
+                archiveOrganization(job, orgId, year, from, to);
+            }
+            System.out.println("✅ Año académico " + year + " archivado: " + job.getProcessedRows() + " asistencias");
+        });
+    }
+
+    @Override
+    public Optional<StorageJobDTO> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    // ================== JOBS ==================
+
+    /**
+     * Registra el job y lo encola. Si ya hay uno del mismo tipo en curso, devuelve ese:
+     * dos particionados o dos archivos a la vez solo competirían por los mismos locks.
+     */
+    private StorageJobDTO startJob(String type, String description, Consumer<StorageJobDTO> work) {
+        synchronized (jobs) {
+            // 🧹 olvidar jobs terminados hace más de un día
+            LocalDateTime limit = LocalDateTime.now().minusDays(1);
+            jobs.values().removeIf(j -> j.getFinishedAt() != null && j.getFinishedAt().isBefore(limit));
+
+            Optional<StorageJobDTO> running = jobs.values().stream()
+                    .filter(j -> j.getType().equals(type))
+                    .filter(j -> j.getStatus() == JobStatus.PENDING || j.getStatus() == JobStatus.RUNNING)
+                    .findFirst();
+            if (running.isPresent()) {
+                return running.get();
+            }
+
+            StorageJobDTO job = StorageJobDTO.builder()
+                    .id(UUID.randomUUID().toString())
+                    .type(type)
+                    .description(description)
+                    .status(JobStatus.PENDING)
+                    .createdAt(LocalDateTime.now())
+                    .build();
+            jobs.put(job.getId(), job);
+
+            try {
+                maintenanceExecutor.execute(() -> runJob(job, work));
+            } catch (RuntimeException e) {
+                jobs.remove(job.getId());
+                throw e;
+            }
+            return job;
+        }
+    }
+
+    private void runJob(StorageJobDTO job, Consumer<StorageJobDTO> work) {
+        job.setStatus(JobStatus.RUNNING);
+        try {
+            work.accept(job);
+            job.setStatus(JobStatus.COMPLETED);
+        } catch (RuntimeException e) {
+            // Particionado y archivo son idempotentes: se pueden volver a lanzar después de corregir el problema
+            System.err.println("⚠️ Job " + job.getType() + " detenido en: " + job.getStep() + " → " + e.getMessage());
+            job.setError(e.getMessage());
+            job.setStatus(JobStatus.FAILED);
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+    }
+
+    // Bloques cortos: copiar y borrar en la misma transacción
+    private void archiveOrganization(StorageJobDTO job, Long orgId, int year, LocalDate from, LocalDate to) {
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList("""
+                            SELECT a.id
+                            FROM attendances a
+                            JOIN classes c ON c.id = a.class_id
+                            WHERE a.organization_id = ? AND c.date >= ? AND c.date < ?
+                            ORDER BY a.id
+                            LIMIT ?
+                            """,
+                    Long.class, orgId, Date.valueOf(from), Date.valueOf(to), chunkSize);
+            if (ids.isEmpty()) return;
+
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                    .addValue("orgId", orgId)
+                    .addValue("year", year);
+            transactionTemplate.executeWithoutResult(tx -> {
+                namedJdbcTemplate.update(ARCHIVE_INSERT, params);
+                namedJdbcTemplate.update("DELETE FROM attendances WHERE organization_id = :orgId AND id IN (:ids)", params);
+            });
+            job.setProcessedRows(job.getProcessedRows() + ids.size());
+        }
+    }
+
+    // 🔄 La tabla de archivo existe siempre (la baja de organizaciones también la limpia)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureArchiveTable() {
+        try {
+            jdbcTemplate.execute(ARCHIVE_TABLE);
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ No se pudo crear attendances_archive: " + e.getMessage());
+        }
+    }
+
+    private void ensureArchivePartition(int year) {
+        Integer exists = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.PARTITIONS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'attendances_archive' AND PARTITION_NAME = ?
+                """, Integer.class, "p" + year);
+        if (exists == null || exists == 0) {
+            jdbcTemplate.execute("ALTER TABLE attendances_archive ADD PARTITION (PARTITION p" + year + " VALUES IN (" + year + "))");
+        }
+    }
+
+    // ================== INFORMATION_SCHEMA ==================
+
+    private boolean isPartitioned(String table) {
+        Integer count = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.PARTITIONS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL
+                """, Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    private boolean isNullable(String table, String column) {
+        List<String> nullable = jdbcTemplate.queryForList("""
+                SELECT IS_NULLABLE FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?
+                """, String.class, table, column);
+        return !nullable.isEmpty() && "YES".equals(nullable.get(0));
+    }
+
+    // Nombre de índice → columnas en orden (incluye PRIMARY)
+    private Map<String, List<String>> uniqueIndexes(String table) {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                SELECT INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND NON_UNIQUE = 0
+                ORDER BY INDEX_NAME = 'PRIMARY' DESC, INDEX_NAME, SEQ_IN_INDEX
+                """, rs -> {
+            indexes.computeIfAbsent(rs.getString(1), k -> new ArrayList<>()).add(rs.getString(2));
+        }, table);
+        return indexes;
+    }
+}
@@ -0,0 +1,378 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.AtRiskStudentDTO;
+import com.marcedev.attendance.dto.AttendanceMarkDTO;
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import com.marcedev.attendance.events.AttendanceDeletedEvent;
+import com.marcedev.attendance.service.AttendanceStreakService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 🔹 Motor de rachas de ausencias.
+ * - Cada marca actualiza su fila (alumno, curso) en O(1) y en la misma transacción
+ *   (@EventListener síncrono sobre AttendanceChangedEvent).
+ * - Marcas sobre una clase anterior a la última, o bajas, dejan la fila "dirty":
+ *   el job de reparación la recalcula desde el historial.
+ * - Rebuild completo (backfill) leyendo attendances en streaming. No pisa las filas que una
+ *   actualización incremental tocó mientras tanto: esas quedan dirty para el job de reparación.
+ */
+@Service
+@RequiredArgsConstructor
+public class AttendanceStreakServiceImpl implements AttendanceStreakService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String UPSERT = """
+            INSERT INTO attendance_streaks
+                (student_id, course_id, organization_id, current_absences, previous_absences,
+                 last_class_id, last_class_date, dirty, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                organization_id = VALUES(organization_id),
+                current_absences = VALUES(current_absences),
+                previous_absences = VALUES(previous_absences),
+                last_class_id = VALUES(last_class_id),
+                last_class_date = VALUES(last_class_date),
+                dirty = VALUES(dirty),
+                updated_at = VALUES(updated_at)
+            """;
+
+    /**
+     * Upsert del rebuild / reparación. Una fila con updated_at posterior a (inicio del recálculo
+     * - margen) la escribió una marca incremental que la lectura en streaming pudo no ver: no se
+     * pisa, se marca dirty y la reparación la vuelve a calcular. MySQL evalúa las asignaciones
+     * en orden: primero dirty, y el resto de las columnas se copia solo si quedó en FALSE.
+     */
+    private static final String REBUILD_UPSERT = """
+            INSERT INTO attendance_streaks
+                (student_id, course_id, organization_id, current_absences, previous_absences,
+                 last_class_id, last_class_date, dirty, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                dirty = (updated_at >= ?),
+                organization_id = IF(dirty, organization_id, VALUES(organization_id)),
+                current_absences = IF(dirty, current_absences, VALUES(current_absences)),
+                previous_absences = IF(dirty, previous_absences, VALUES(previous_absences)),
+                last_class_id = IF(dirty, last_class_id, VALUES(last_class_id)),
+                last_class_date = IF(dirty, last_class_date, VALUES(last_class_date)),
+                updated_at = IF(dirty, updated_at, VALUES(updated_at))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DataSource dataSource;
+
+    @Qualifier("maintenanceExecutor")
+    private final ThreadPoolTaskExecutor maintenanceExecutor;
+
+    /** Margen para transacciones incrementales que empezaron antes del recálculo y confirmaron después */
+    @Value("${streaks.rebuild-guard-seconds:60}")
+    private long rebuildGuardSeconds;
+
+    // ================== CONSULTA ==================
+
+    @Override
+    public List<AtRiskStudentDTO> findAtRisk(Long courseId, int minAbsences) {
+        return jdbcTemplate.query("""
+                        SELECT s.student_id, u.full_name, u.email, s.current_absences, s.last_class_date
+                        FROM attendance_streaks s
+                        JOIN users u ON u.id = s.student_id
+                        WHERE s.course_id = ? AND s.current_absences >= ?
+                        ORDER BY s.current_absences DESC, u.full_name
+                        """,
+                (rs, i) -> {
+                    Date last = rs.getDate(5);
+                    return AtRiskStudentDTO.builder()
+                            .studentId(rs.getLong(1))
+                            .fullName(rs.getString(2))
+                            .email(rs.getString(3))
+                            .consecutiveAbsences(rs.getInt(4))
+                            .lastClassDate(last != null ? last.toLocalDate() : null)
+                            .build();
+                },
+                courseId, Math.max(1, minAbsences));
+    }
+
+    // ================== ACTUALIZACIÓN INCREMENTAL ==================
+
+    @EventListener
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        if (event.courseId() == null || event.marks().isEmpty()) return;
+
+        List<LocalDate> dates = jdbcTemplate.queryForList(
+                "SELECT date FROM classes WHERE id = ?", LocalDate.class, event.classSessionId());
+        if (dates.isEmpty() || dates.get(0) == null) return;
+        LocalDate classDate = dates.get(0);
+
+        Map<Long, Streak> streaks = new HashMap<>();
+        namedJdbcTemplate.query("""
+                        SELECT student_id, current_absences, previous_absences, last_class_id, last_class_date, dirty
+                        FROM attendance_streaks
+                        WHERE course_id = :courseId AND student_id IN (:studentIds)
+                        FOR UPDATE
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("courseId", event.courseId())
+                        .addValue("studentIds", event.marks().stream().map(AttendanceMarkDTO::getUserId).toList()),
+                rs -> {
+                    Date last = rs.getDate(5);
+                    long lastClassId = rs.getLong(4);
+                    streaks.put(rs.getLong(1), new Streak(
+                            rs.getInt(2), rs.getInt(3),
+                            rs.wasNull() ? null : lastClassId,
+                            last != null ? last.toLocalDate() : null,
+                            rs.getBoolean(6)));
+                });
+
+        List<Object[]> rows = new ArrayList<>(event.marks().size());
+        LocalDateTime now = LocalDateTime.now();
+        for (AttendanceMarkDTO mark : event.marks()) {
+            Streak streak = streaks.getOrDefault(mark.getUserId(), new Streak(0, 0, null, null, false));
+            streak.apply(event.classSessionId(), classDate, mark.isPresent());
+            rows.add(streak.toRow(mark.getUserId(), event.courseId(), event.organizationId(), now));
+        }
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+    }
+
+    @EventListener
+    public void onAttendanceDeleted(AttendanceDeletedEvent event) {
+        if (event.studentId() == null || event.courseId() == null) return;
+        jdbcTemplate.update("UPDATE attendance_streaks SET dirty = TRUE WHERE student_id = ? AND course_id = ?",
+                event.studentId(), event.courseId());
+    }
+
+    // ================== REPARACIÓN / REBUILD ==================
+
+    // 🧹 Recalcula las filas marcadas como dirty
+    @Scheduled(fixedDelayString = "${streaks.repair-interval-ms:60000}")
+    public void repairDirty() {
+        Map<Long, List<Long>> studentsByCourse = new HashMap<>();
+        jdbcTemplate.query("SELECT course_id, student_id FROM attendance_streaks WHERE dirty = TRUE LIMIT ?",
+                rs -> {
+                    studentsByCourse.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2));
+                }, BATCH_SIZE);
+
+        studentsByCourse.forEach(this::recompute);
+    }
+
+    @Override
+    public int rebuildCourse(Long courseId) {
+        return recompute(courseId, null);
+    }
+
+    @Override
+    public void rebuildAllAsync() {
+        maintenanceExecutor.execute(() -> {
+            try {
+                int written = recompute(null, null);
+                System.out.println("✅ Rachas de ausencias recalculadas: " + written);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Error recalculando rachas de ausencias: " + e.getMessage());
+            }
+        });
+    }
+
+    // 🔄 Backfill inicial: si la tabla está vacía pero hay asistencias
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            boolean empty = jdbcTemplate.queryForList("SELECT 1 FROM attendance_streaks LIMIT 1").isEmpty();
+            boolean hasAttendances = !jdbcTemplate.queryForList("SELECT 1 FROM attendances LIMIT 1").isEmpty();
+            if (empty && hasAttendances) {
+                rebuildAllAsync();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ No se pudo verificar el backfill de rachas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula desde attendances (streaming, de la clase más nueva a la más vieja por alumno/curso).
+     * Al terminar borra las filas del mismo alcance que no se reescribieron (ya sin asistencias).
+     */
+    private int recompute(Long courseId, List<Long> studentIds) {
+        LocalDateTime start = LocalDateTime.now();
+        Timestamp guard = Timestamp.valueOf(start.minusSeconds(rebuildGuardSeconds));
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT a.student_id, a.course_id, a.organization_id, a.class_id, c.date, a.attended
+                FROM attendances a
+                JOIN classes c ON c.id = a.class_id
+                """);
+        StringBuilder scope = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        if (courseId != null) {
+            sql.append(" WHERE a.course_id = ?");
+            scope.append(" AND course_id = ?");
+            args.add(courseId);
+            if (studentIds != null && !studentIds.isEmpty()) {
+                String placeholders = String.join(",", Collections.nCopies(studentIds.size(), "?"));
+                sql.append(" AND a.student_id IN (").append(placeholders).append(")");
+                scope.append(" AND student_id IN (").append(placeholders).append(")");
+                args.addAll(studentIds);
+            }
+        }
+        sql.append(" ORDER BY a.course_id, a.student_id, c.date DESC, a.class_id DESC");
+
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(Integer.MIN_VALUE);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int[] written = {0};
+        Rebuilder[] current = {null};
+
+        streaming.query(sql.toString(), rs -> {
+            long student = rs.getLong(1);
+            long course = rs.getLong(2);
+            Rebuilder r = current[0];
+            if (r == null || r.studentId != student || r.courseId != course) {
+                if (r != null) {
+                    batch.add(r.toRow());
+                    if (batch.size() == BATCH_SIZE) {
+                        written[0] += flush(batch, guard);
+                    }
+                }
+                long org = rs.getLong(3);
+                r = new Rebuilder(student, course, rs.wasNull() ? null : org);
+                current[0] = r;
+            }
+            Date date = rs.getDate(5);
+            r.add(rs.getLong(4), date != null ? date.toLocalDate() : null, rs.getBoolean(6));
+        }, args.toArray());
+
+        if (current[0] != null) {
+            batch.add(current[0].toRow());
+        }
+        written[0] += flush(batch, guard);
+
+        // 🧹 Filas del alcance que ya no tienen asistencias (las tocadas dentro del margen
+        //    pueden tener una marca que el streaming no vio: quedan dirty en vez de borrarse)
+        List<Object> deleteArgs = new ArrayList<>(args);
+        deleteArgs.add(guard);
+        jdbcTemplate.update("DELETE FROM attendance_streaks WHERE 1 = 1" + scope + " AND updated_at < ?",
+                deleteArgs.toArray());
+        deleteArgs.add(Timestamp.valueOf(start));
+        jdbcTemplate.update("UPDATE attendance_streaks SET dirty = TRUE WHERE 1 = 1" + scope
+                + " AND updated_at >= ? AND updated_at < ?", deleteArgs.toArray());
+
+        return written[0];
+    }
+
+    private int flush(List<Object[]> batch, Timestamp guard) {
+        if (batch.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate(REBUILD_UPSERT, batch.stream().map(row -> {
+            Object[] args = Arrays.copyOf(row, row.length + 1);
+            args[row.length] = guard;
+            return args;
+        }).toList());
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    // ================== ESTADO ==================
+
+    /** Estado en memoria de una fila, con la regla de actualización O(1) */
+    private static final class Streak {
+        private int current;
+        private int previous;
+        private Long lastClassId;
+        private LocalDate lastClassDate;
+        private boolean dirty;
+
+        Streak(int current, int previous, Long lastClassId, LocalDate lastClassDate, boolean dirty) {
+            this.current = current;
+            this.previous = previous;
+            this.lastClassId = lastClassId;
+            this.lastClassDate = lastClassDate;
+            this.dirty = dirty;
+        }
+
+        void apply(Long classId, LocalDate date, boolean present) {
+            int order = compare(classId, date);
+            if (order > 0) {
+                // ✅ Clase nueva: la racha avanza
+                previous = current;
+                current = present ? 0 : current + 1;
+                lastClassId = classId;
+                lastClassDate = date;
+            } else if (order == 0) {
+                // ✏️ Corrección de la última clase
+                current = present ? 0 : previous + 1;
+            } else {
+                // ⚠️ Corrección de una clase vieja: la recalcula el job de reparación
+                dirty = true;
+            }
+        }
+
+        private int compare(Long classId, LocalDate date) {
+            if (lastClassDate == null) return 1;
+            int byDate = date.compareTo(lastClassDate);
+            return byDate != 0 ? byDate : Long.compare(classId, lastClassId != null ? lastClassId : Long.MIN_VALUE);
+        }
+
+        Object[] toRow(Long studentId, Long courseId, Long organizationId, LocalDateTime now) {
+            return new Object[]{studentId, courseId, organizationId, current, previous, lastClassId,
+                    lastClassDate != null ? Date.valueOf(lastClassDate) : null, dirty, Timestamp.valueOf(now)};
+        }
+    }
+
+    /** Recorre el historial de un (alumno, curso) de la clase más nueva a la más vieja */
+    private static final class Rebuilder {
+        private final long studentId;
+        private final long courseId;
+        private final Long organizationId;
+        private Long lastClassId;
+        private LocalDate lastClassDate;
+        private int rows;
+        private int current;
+        private int previous;
+        private boolean currentDone;
+        private boolean previousDone;
+
+        Rebuilder(long studentId, long courseId, Long organizationId) {
+            this.studentId = studentId;
+            this.courseId = courseId;
+            this.organizationId = organizationId;
+        }
+
+        void add(long classId, LocalDate date, boolean attended) {
+            if (rows++ == 0) {
+                lastClassId = classId;
+                lastClassDate = date;
+            } else if (!previousDone) {
+                // la racha previa se cuenta desde la anteúltima clase
+                if (attended) previousDone = true;
+                else previous++;
+            }
+            if (!currentDone) {
+                if (attended) currentDone = true;
+                else current++;
+            }
+        }
+
+        Object[] toRow() {
+            // updated_at ≥ inicio del rebuild: la fila no se borra al final
+            return new Object[]{studentId, courseId, organizationId, current, previous, lastClassId,
+                    lastClassDate != null ? Date.valueOf(lastClassDate) : null, false,
+                    Timestamp.valueOf(LocalDateTime.now())};
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import com.marcedev.attendance.service.AttendanceStreamService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🔹 Fan-out en memoria de {@link AttendanceChangedEvent} hacia los suscriptores SSE.
+ * - El listener corre después del commit y solo encola: nunca escribe en un socket.
+ * - Cada suscriptor tiene un buffer acotado; si se llena (cliente lento) se descarta
+ *   lo pendiente y se le manda un evento "resync" para que vuelva a pedir la lista.
+ * - El envío lo hace el pool "sseExecutor", un drenado a la vez por suscriptor.
+ * - Heartbeat periódico para mantener viva la conexión y detectar clientes caídos.
+ */
+@Service
+public class AttendanceStreamServiceImpl implements AttendanceStreamService {
+
+    private final ThreadPoolTaskExecutor sseExecutor;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+
+    private final Map<Long, Set<Subscriber>> subscribersByClass = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+
+    public AttendanceStreamServiceImpl(@Qualifier("sseExecutor") ThreadPoolTaskExecutor sseExecutor,
+                                       @Value("${attendance.stream.buffer-size:100}") int bufferSize,
+                                       @Value("${attendance.stream.timeout-ms:1800000}") long timeoutMs,
+                                       @Value("${attendance.stream.max-subscribers:500}") int maxSubscribers) {
+        this.sseExecutor = sseExecutor;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    @Override
+    public SseEmitter subscribe(Long classSessionId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Se alcanzó el máximo de conexiones en tiempo real");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(classSessionId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribersByClass.compute(classSessionId, (id, set) -> {
+            Set<Subscriber> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            subscribers.add(subscriber);
+            return subscribers;
+        });
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        // ✅ Primer evento: confirma la suscripción y envía los headers al cliente
+        enqueue(subscriber, new Outgoing("connected", classSessionId));
+        return emitter;
+    }
+
+    // 🔔 Después del commit (o sin transacción, p. ej. registro por curso)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        Set<Subscriber> subscribers = subscribersByClass.get(event.classSessionId());
+        if (subscribers == null) return;
+
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, new Outgoing("marks", event));
+        }
+    }
+
+    // 💓 Heartbeat (comentario SSE): mantiene proxies abiertos y detecta desconexiones
+    @Scheduled(fixedDelayString = "${attendance.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribersByClass.values().forEach(set -> set.forEach(s -> enqueue(s, Outgoing.HEARTBEAT)));
+    }
+
+    private void enqueue(Subscriber subscriber, Outgoing outgoing) {
+        if (subscriber.closed.get()) return;
+
+        if (!subscriber.queue.offer(outgoing)) {
+            // ⚠️ Cliente lento: se descarta lo pendiente y se pide una recarga completa
+            subscriber.queue.clear();
+            subscriber.queue.offer(new Outgoing("resync", subscriber.classSessionId));
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) return;
+        try {
+            sseExecutor.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // el próximo evento o heartbeat lo vuelve a intentar
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Outgoing outgoing;
+            while (!subscriber.closed.get() && (outgoing = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(outgoing.toEvent(eventIds));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // cliente desconectado
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.draining.set(false);
+            if (!subscriber.closed.get() && !subscriber.queue.isEmpty()) {
+                scheduleDrain(subscriber);
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) return;
+        subscriber.queue.clear();
+        subscriberCount.decrementAndGet();
+        subscribersByClass.computeIfPresent(subscriber.classSessionId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static final class Subscriber {
+        private final Long classSessionId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Outgoing> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(Long classSessionId, SseEmitter emitter, ArrayBlockingQueue<Outgoing> queue) {
+            this.classSessionId = classSessionId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+
+    /** Evento pendiente de envío (el builder de SSE no es reutilizable entre suscriptores) */
+    private record Outgoing(String name, Object data) {
+        static final Outgoing HEARTBEAT = new Outgoing(null, null);
+
+        SseEmitter.SseEventBuilder toEvent(AtomicLong ids) {
+            if (name == null) return SseEmitter.event().comment("heartbeat");
+            return SseEmitter.event()
+                    .id(String.valueOf(ids.incrementAndGet()))
+                    .name(name)
+                    .data(data);
+        }
+    }
+}
@@ -5,17 +5,16 @@ import com.marcedev.attendance.entities.Organization;
 import com.marcedev.attendance.entities.User;
 import com.marcedev.attendance.enums.Rol;
 import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.security.PasswordHashingService;
 import com.marcedev.attendance.security.jwt.JwtService;
 import com.marcedev.attendance.security.model.AuthRequest;
 import com.marcedev.attendance.security.model.AuthResponse;
 import com.marcedev.attendance.security.model.RegisterRequest;
 import com.marcedev.attendance.service.AuthService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,9 +24,8 @@ import java.util.List;
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
 
     // ======================================================
     // 🔹 REGISTRO
@@ -49,7 +47,7 @@ public class AuthServiceImpl implements AuthService {
         User user = User.builder()
                 .fullName(request.getFullName())
                 .email(request.getEmail().toLowerCase())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .role(role)
                 .build();
 
@@ -96,15 +94,27 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public AuthResponse login(AuthRequest request) {
 
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail().toLowerCase(),
-                        request.getPassword()
-                )
-        );
+        // 🔹 Una sola consulta: el mismo usuario sirve para verificar y armar la respuesta
+        User user = userRepository.findByEmail(request.getEmail().toLowerCase()).orElse(null);
 
-        User user = userRepository.findByEmail(request.getEmail().toLowerCase())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        // 🔐 BCrypt corre en el pool acotado (429 si está saturado).
+        // Si el email no existe se verifica igual contra un hash ficticio: mismo tiempo de respuesta.
+        if (user == null) {
+            passwordHashingService.matchesDummy(request.getPassword());
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
+
+        // ⏳ Hash con costo viejo → re-hash en segundo plano, sin demorar la respuesta.
+        //    Se escribe solo si el hash no cambió mientras tanto (cambio o reseteo de contraseña).
+        if (passwordHashingService.needsUpgrade(user.getPassword())) {
+            Long userId = user.getId();
+            String oldHash = user.getPassword();
+            passwordHashingService.encodeAsync(request.getPassword())
+                    .thenAccept(hash -> userRepository.updatePassword(userId, oldHash, hash));
+        }
 
         // ✅ Generar token de forma correcta
         String token = jwtService.generateToken(
@@ -0,0 +1,158 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.BootstrapDTO;
+import com.marcedev.attendance.dto.ClassSummaryDTO;
+import com.marcedev.attendance.dto.CourseDTO;
+import com.marcedev.attendance.dto.OrganizationDTO;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.mapper.ClassMapper;
+import com.marcedev.attendance.mapper.CourseMapper;
+import com.marcedev.attendance.mapper.UserMapper;
+import com.marcedev.attendance.repository.ClassSessionRepository;
+import com.marcedev.attendance.service.BootstrapService;
+import com.marcedev.attendance.service.CourseService;
+import com.marcedev.attendance.service.OrganizationService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 🔹 Bootstrap de la SPA.
+ * - Cursos y organización salen en paralelo; las clases de hoy y los pases de lista
+ *   pendientes arrancan apenas están los IDs de los cursos.
+ * - Cada parte corre en su propia transacción read-only (va a la réplica si hay)
+ *   con el SecurityContext del request, así se respeta read-your-writes.
+ * - Los listados de cursos son cacheados: se llaman fuera de la transacción read-only
+ *   para que el cache compartido se llene siempre desde el primario.
+ * - El usuario ya viene resuelto del controller: no se vuelve a buscar por email.
+ */
+@Service
+public class BootstrapServiceImpl implements BootstrapService {
+
+    private final CourseService courseService;
+    private final OrganizationService organizationService;
+    private final ClassSessionRepository classSessionRepository;
+    private final CourseMapper courseMapper;
+    private final ClassMapper classMapper;
+    private final UserMapper userMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final Executor executor;
+    private final long timeoutMs;
+    private final int pendingDays;
+    private final int maxPending;
+
+    public BootstrapServiceImpl(CourseService courseService,
+                                OrganizationService organizationService,
+                                ClassSessionRepository classSessionRepository,
+                                CourseMapper courseMapper,
+                                ClassMapper classMapper,
+                                UserMapper userMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("bootstrapExecutor") ThreadPoolTaskExecutor bootstrapExecutor,
+                                @Value("${bootstrap.timeout-ms:5000}") long timeoutMs,
+                                @Value("${bootstrap.pending-days:7}") int pendingDays,
+                                @Value("${bootstrap.max-pending:50}") int maxPending) {
+        this.courseService = courseService;
+        this.organizationService = organizationService;
+        this.classSessionRepository = classSessionRepository;
+        this.courseMapper = courseMapper;
+        this.classMapper = classMapper;
+        this.userMapper = userMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.executor = new DelegatingSecurityContextExecutor(bootstrapExecutor);
+        this.timeoutMs = timeoutMs;
+        this.pendingDays = pendingDays;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public BootstrapDTO getBootstrap(User user) {
+        LocalDate today = LocalDate.now();
+        Long orgId = user.getOrganization() != null ? user.getOrganization().getId() : null;
+
+        try {
+            CompletableFuture<List<CourseDTO>> courses = CompletableFuture.supplyAsync(() -> coursesFor(user, orgId), executor);
+            CompletableFuture<OrganizationDTO> organization = orgId == null
+                    ? CompletableFuture.completedFuture(null)
+                    : async(() -> organizationService.findDTOById(orgId).orElse(null));
+
+            CompletableFuture<List<ClassSummaryDTO>> todaySessions = courses.thenCompose(list -> async(() -> {
+                List<Long> ids = courseIds(list);
+                return ids.isEmpty() ? List.<ClassSummaryDTO>of()
+                        : classMapper.toSummaryList(classSessionRepository.findByCourseIdsAndDate(ids, today));
+            }));
+
+            CompletableFuture<List<ClassSummaryDTO>> pendingRollCalls = user.getRole() == Rol.USER
+                    ? CompletableFuture.completedFuture(List.of())
+                    : courses.thenCompose(list -> async(() -> {
+                        List<Long> ids = courseIds(list);
+                        return ids.isEmpty() ? List.<ClassSummaryDTO>of()
+                                : classMapper.toSummaryList(classSessionRepository.findWithoutAttendance(
+                                        ids, today.minusDays(pendingDays), today, PageRequest.of(0, maxPending)));
+                    }));
+
+            CompletableFuture.allOf(courses, organization, todaySessions, pendingRollCalls)
+                    .get(timeoutMs, TimeUnit.MILLISECONDS);
+
+            return BootstrapDTO.builder()
+                    .user(userMapper.toDTO(user))
+                    .organization(organization.join())
+                    .courses(courses.join())
+                    .todaySessions(todaySessions.join())
+                    .pendingRollCalls(pendingRollCalls.join())
+                    .build();
+        } catch (RejectedExecutionException e) {
+            throw tooManyRequests();
+        } catch (TimeoutException e) {
+            System.err.println("⚠️ Bootstrap sin terminar en " + timeoutMs + " ms para el usuario " + user.getId());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Tiempo de espera agotado al cargar el inicio");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido cargando el inicio", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ce && ce.getCause() != null
+                    ? ce.getCause() : e.getCause();
+            if (cause instanceof RejectedExecutionException) throw tooManyRequests();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // 🔹 Mismo criterio que GET /api/courses (listados cacheados); USER ve sus cursos inscriptos
+    private List<CourseDTO> coursesFor(User user, Long orgId) {
+        return switch (user.getRole()) {
+            case SUPER_ADMIN -> courseService.findAllDTOs();
+            case ADMIN -> orgId != null ? courseService.findDTOsByOrganizationId(orgId) : List.of();
+            case INSTRUCTOR -> courseService.findDTOsByInstructorId(user.getId());
+            // cursos EAGER: ya vienen cargados con el usuario
+            case USER -> courseMapper.toDTOList(new ArrayList<>(user.getCourses()));
+        };
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> query.get()), executor);
+    }
+
+    private static List<Long> courseIds(List<CourseDTO> courses) {
+        return courses.stream().map(CourseDTO::getId).toList();
+    }
+
+    private static ResponseStatusException tooManyRequests() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Demasiadas cargas de inicio en curso, intente más tarde");
+    }
+}
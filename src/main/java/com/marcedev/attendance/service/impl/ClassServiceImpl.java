@@ -13,8 +13,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +29,7 @@ public class ClassServiceImpl implements ClassService {
     private final UserRepository userRepository;
 
     @Override
+    @Transactional
     public ClassSession create(ClassSession session) {
         if (session.getCourse() == null || session.getCourse().getId() == null) {
             throw new RuntimeException("El curso es requerido");
@@ -47,21 +50,25 @@ public class ClassServiceImpl implements ClassService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ClassSession findById(Long id) {
         return classSessionRepository.findById(id).orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ClassSession> findByCourseId(Long courseId) {
         return classSessionRepository.findByCourseId(courseId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<ClassSession> findByCourseIdAndDate(Long courseId, LocalDate date) {
         return classSessionRepository.findByCourseIdAndDate(courseId, date);
     }
 
     @Override
+    @Transactional
     public ClassSession getOrCreateTodaySession(Long courseId) {
 
         LocalDate today = LocalDate.now();
@@ -96,6 +103,7 @@ public class ClassServiceImpl implements ClassService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ClassDetailsDTO getClassDetails(Long classId) {
 
         ClassSession classSession = classSessionRepository.findById(classId)
@@ -116,18 +124,31 @@ public class ClassServiceImpl implements ClassService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Course getCourseById(Long courseId) {
         return courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Curso no encontrado con id: " + courseId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ClassSession> findByOrganization(Long organizationId) {
         return classSessionRepository.findAll().stream()
                 .filter(c -> c.getOrganization() != null
                         && c.getOrganization().getId().equals(organizationId))
                 .toList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findStudentsByClassId(Long classId) {
+        ClassSession classSession = classSessionRepository.findById(classId)
+                .orElseThrow(() -> new IllegalArgumentException("Clase no encontrada"));
+
+        Course course = classSession.getCourse();
+        if (course == null || course.getStudents() == null) return List.of();
+        return new ArrayList<>(course.getStudents());
+    }
     // ================== AUTH ==================
     private User getAuthenticatedUser() {
         var auth = SecurityContextHolder.getContext().getAuthentication();
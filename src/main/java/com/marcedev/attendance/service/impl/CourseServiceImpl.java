@@ -1,19 +1,27 @@
 package com.marcedev.attendance.service.impl;
 
+import com.marcedev.attendance.config.CacheConfig;
+import com.marcedev.attendance.dto.BulkEnrollmentResultDTO;
+import com.marcedev.attendance.dto.CourseDTO;
 import com.marcedev.attendance.entities.Course;
 import com.marcedev.attendance.entities.Organization;
 import com.marcedev.attendance.entities.User;
 import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.mapper.CourseMapper;
 import com.marcedev.attendance.repository.CourseRepository;
+import com.marcedev.attendance.repository.EnrollmentJdbcRepository;
 import com.marcedev.attendance.repository.UserRepository;
 import com.marcedev.attendance.service.CourseService;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
@@ -21,18 +29,43 @@ public class CourseServiceImpl implements CourseService {
 
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final CourseMapper courseMapper;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Course> findAll() {
         return courseRepository.findAll();
     }
 
+    // 🔹 El JSON del curso incluye sus clases (LAZY): se cargan acá, no al serializar
     @Override
+    @Transactional(readOnly = true)
     public Optional<Course> findById(Long id) {
-        return courseRepository.findById(id);
+        return courseRepository.findById(id).map(this::withClasses);
     }
 
+    // 🔹 Listados cacheados (instructor y organización son EAGER: el DTO se arma completo acá)
     @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_LISTS, key = "'all'")
+    public List<CourseDTO> findAllDTOs() {
+        return courseMapper.toDTOList(courseRepository.findAll());
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_LISTS, key = "'org:' + #organizationId")
+    public List<CourseDTO> findDTOsByOrganizationId(Long organizationId) {
+        return courseMapper.toDTOList(courseRepository.findByOrganizationId(organizationId));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_LISTS, key = "'instructor:' + #instructorId")
+    public List<CourseDTO> findDTOsByInstructorId(Long instructorId) {
+        return courseMapper.toDTOList(courseRepository.findByInstructorId(instructorId));
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.COURSE_LISTS, allEntries = true)
     public Course saveCourseWithAuthenticatedInstructor(Course course) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
@@ -51,23 +84,27 @@ public class CourseServiceImpl implements CourseService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.COURSE_LISTS, allEntries = true)
     public Course save(Course course) {
         return courseRepository.save(course);
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.COURSE_LISTS, allEntries = true)
     public Course update(Long id, Course updatedCourse) {
         return courseRepository.findById(id)
                 .map(existing -> {
                     existing.setName(updatedCourse.getName());
                     existing.setDescription(updatedCourse.getDescription());
                     existing.setUniversityProgram(updatedCourse.getUniversityProgram());
-                    return courseRepository.save(existing);
+                    return withClasses(courseRepository.save(existing));
                 })
                 .orElseThrow(() -> new IllegalArgumentException("Curso no encontrado"));
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.COURSE_LISTS, allEntries = true)
     public void deleteById(Long id) {
         courseRepository.deleteById(id);
     }
@@ -76,6 +113,7 @@ public class CourseServiceImpl implements CourseService {
      * 🔹 Inscribir un alumno al curso
      */
     @Override
+    @Transactional
     public Course addStudentToCourse(Long courseId, Long userId) {
         // 🧠 Obtener curso
         Course course = courseRepository.findById(courseId)
@@ -98,7 +136,7 @@ public class CourseServiceImpl implements CourseService {
         if (course.getStudents() != null && course.getStudents().stream()
                 .anyMatch(u -> u.getId().equals(student.getId()))) {
             System.out.println("⚠️ El alumno ya estaba inscripto en el curso.");
-            return course;
+            return withClasses(course);
         }
 
         // 🧩 Agregar alumno al curso
@@ -108,13 +146,14 @@ public class CourseServiceImpl implements CourseService {
         Course saved = courseRepository.save(course);
         System.out.println("✅ Alumno agregado correctamente: " + student.getEmail());
 
-        return saved;
+        return withClasses(saved);
     }
 
     /**
      * 🔹 Remover un alumno del curso
      */
     @Override
+    @Transactional
     public Course removeStudentFromCourse(Long courseId, Long userId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Curso no encontrado"));
@@ -129,10 +168,67 @@ public class CourseServiceImpl implements CourseService {
             courseRepository.save(course);
         }
 
-        return course;
+        return withClasses(course);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findStudents(Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("❌ Curso no encontrado"));
+        return course.getStudents() != null ? new ArrayList<>(course.getStudents()) : List.of();
+    }
+
+    /**
+     * 🔹 Inscripción masiva de alumnos
+     * Valida la organización con una consulta por lote de IDs e inserta en
+     * user_courses con INSERT IGNORE en batch, sin cargar Course.students.
+     */
+    @Override
+    @Transactional
+    public BulkEnrollmentResultDTO addStudentsToCourse(Long courseId, List<Long> userIds) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("❌ Curso no encontrado con ID: " + courseId));
+
+        if (course.getOrganization() == null) {
+            throw new IllegalStateException("🚫 Curso sin organización asociada.");
+        }
+        Long orgId = course.getOrganization().getId();
+
+        // 🔁 IDs distintos, respetando el orden recibido
+        Set<Long> requested = new LinkedHashSet<>();
+        if (userIds != null) {
+            userIds.stream().filter(Objects::nonNull).forEach(requested::add);
+        }
+
+        // 🧱 Validar organización (solo IDs)
+        Set<Long> valid = new HashSet<>();
+        for (List<Long> chunk : EnrollmentJdbcRepository.chunks(requested)) {
+            valid.addAll(userRepository.findIdsByIdInAndOrganizationId(chunk, orgId));
+        }
+
+        List<Long> rejected = requested.stream().filter(id -> !valid.contains(id)).toList();
+
+        // 🔁 Evitar duplicados
+        Set<Long> already = enrollmentJdbcRepository.findEnrolledUserIds(courseId, valid);
+        List<Long> toInsert = requested.stream()
+                .filter(valid::contains)
+                .filter(id -> !already.contains(id))
+                .toList();
+
+        int inserted = toInsert.isEmpty() ? 0 : enrollmentJdbcRepository.insertIgnore(courseId, toInsert);
+
+        return BulkEnrollmentResultDTO.builder()
+                .courseId(courseId)
+                .requested(requested.size())
+                .enrolled(inserted)
+                .alreadyEnrolled(already.size() + (toInsert.size() - inserted))
+                .rejected(rejected)
+                .build();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Course> findMyCourses() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
@@ -169,6 +265,9 @@ public class CourseServiceImpl implements CourseService {
         return List.of();
     }
 
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.COURSE_LISTS, allEntries = true)
     public void assignInstructor(Long courseId, Long instructorId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Curso no encontrado"));
@@ -180,4 +279,9 @@ public class CourseServiceImpl implements CourseService {
         courseRepository.save(course);
     }
 
+    private Course withClasses(Course course) {
+        Hibernate.initialize(course.getClasses());
+        return course;
+    }
+
 }
@@ -0,0 +1,382 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.OrganizationDashboardDTO;
+import com.marcedev.attendance.dto.WeeklyAttendanceStatsDTO;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import com.marcedev.attendance.events.AttendanceDeletedEvent;
+import com.marcedev.attendance.repository.AttendanceArchiveRepository;
+import com.marcedev.attendance.service.DashboardService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📊 Dashboard por organización servido desde course_weekly_stats y organization_weekly_stats.
+ * - Al confirmarse una asistencia se anota la clase como pendiente; un job cada pocos
+ *   segundos recalcula solo las semanas (curso y organización) afectadas.
+ * - Un job nocturno concilia las últimas semanas de todas las organizaciones.
+ * - Los agregados cuentan también attendances_archive; las semanas con meses en frío
+ *   no se recalculan (mantienen lo que se agregó cuando estaban en vivo).
+ * - La lectura son dos consultas por índice, sin importar el tamaño de la organización.
+ */
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final int MAX_WEEKS = 104;
+
+    // Lunes de la semana (WEEKDAY: lunes = 0), igual que weekStart() en Java
+    private static final String WEEK_START = "DATE_SUB(m.class_date, INTERVAL WEEKDAY(m.class_date) DAY)";
+
+    // Marcas en vivo (%s: alcance por curso u organización)
+    private static final String LIVE_MARKS = """
+            SELECT a.course_id, a.class_id, a.student_id, a.attended, c.date AS class_date
+            FROM attendances a
+            JOIN classes c ON c.id = a.class_id
+            JOIN courses co ON co.id = a.course_id
+            WHERE %s AND c.date >= ? AND c.date < ?
+            """;
+
+    // Años académicos cerrados: el año (de inicio) acota las particiones; una fecha cae en su año o en el anterior
+    private static final String ARCHIVED_MARKS = """
+            UNION ALL
+            SELECT x.course_id, x.class_id, x.student_id, x.attended, x.class_date
+            FROM attendances_archive x
+            WHERE %s AND x.academic_year BETWEEN ? AND ? AND x.class_date >= ? AND x.class_date < ?
+            """;
+
+    private static final String COURSE_AGGREGATE = """
+            INSERT INTO course_weekly_stats
+                (course_id, week_start, organization_id, sessions_held, active_students,
+                 present_count, absent_count, updated_at)
+            SELECT m.course_id, %s AS week_start, MAX(co.organization_id),
+                   COUNT(DISTINCT m.class_id), COUNT(DISTINCT m.student_id),
+                   SUM(CASE WHEN m.attended THEN 1 ELSE 0 END),
+                   SUM(CASE WHEN m.attended THEN 0 ELSE 1 END),
+                   NOW(6)
+            FROM (%s) m
+            JOIN courses co ON co.id = m.course_id
+            GROUP BY m.course_id, week_start
+            ON DUPLICATE KEY UPDATE
+                organization_id = VALUES(organization_id),
+                sessions_held = VALUES(sessions_held),
+                active_students = VALUES(active_students),
+                present_count = VALUES(present_count),
+                absent_count = VALUES(absent_count),
+                updated_at = VALUES(updated_at)
+            """;
+
+    private static final String ORGANIZATION_AGGREGATE = """
+            INSERT INTO organization_weekly_stats
+                (organization_id, week_start, sessions_held, active_students,
+                 present_count, absent_count, updated_at)
+            SELECT co.organization_id, %s AS week_start,
+                   COUNT(DISTINCT m.class_id), COUNT(DISTINCT m.student_id),
+                   SUM(CASE WHEN m.attended THEN 1 ELSE 0 END),
+                   SUM(CASE WHEN m.attended THEN 0 ELSE 1 END),
+                   NOW(6)
+            FROM (%s) m
+            JOIN courses co ON co.id = m.course_id
+            GROUP BY co.organization_id, week_start
+            ON DUPLICATE KEY UPDATE
+                sessions_held = VALUES(sessions_held),
+                active_students = VALUES(active_students),
+                present_count = VALUES(present_count),
+                absent_count = VALUES(absent_count),
+                updated_at = VALUES(updated_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor maintenanceExecutor;
+    private final AttendanceArchiveRepository archiveRepository;
+    private final int reconcileWeeks;
+    private final boolean coldArchiveEnabled;
+    private final int coldRetentionMonths;
+
+    // Clases con asistencias modificadas pendientes de agregar
+    private final Set<Long> pendingSessions = ConcurrentHashMap.newKeySet();
+
+    public DashboardServiceImpl(JdbcTemplate jdbcTemplate,
+                                NamedParameterJdbcTemplate namedJdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                @Qualifier("maintenanceExecutor") ThreadPoolTaskExecutor maintenanceExecutor,
+                                AttendanceArchiveRepository archiveRepository,
+                                @Value("${dashboard.reconcile-weeks:8}") int reconcileWeeks,
+                                @Value("${archive.cold.enabled:false}") boolean coldArchiveEnabled,
+                                @Value("${archive.cold.retention-months:24}") int coldRetentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maintenanceExecutor = maintenanceExecutor;
+        this.archiveRepository = archiveRepository;
+        this.reconcileWeeks = reconcileWeeks;
+        this.coldArchiveEnabled = coldArchiveEnabled;
+        this.coldRetentionMonths = coldRetentionMonths;
+    }
+
+    // ================== LECTURA ==================
+
+    @Override
+    public OrganizationDashboardDTO getDashboard(User requester, Long organizationId, int weeks) {
+        Long orgId = resolveOrganization(requester, organizationId);
+        int span = Math.min(Math.max(weeks, 1), MAX_WEEKS);
+
+        LocalDate to = weekStart(LocalDate.now()).plusWeeks(1);
+        LocalDate from = to.minusWeeks(span);
+
+        List<WeeklyAttendanceStatsDTO> totals = jdbcTemplate.query("""
+                        SELECT NULL, NULL, week_start, sessions_held, active_students, present_count, absent_count
+                        FROM organization_weekly_stats
+                        WHERE organization_id = ? AND week_start >= ? AND week_start < ?
+                        ORDER BY week_start
+                        """,
+                this::mapStats, orgId, Date.valueOf(from), Date.valueOf(to));
+
+        List<WeeklyAttendanceStatsDTO> courses = jdbcTemplate.query("""
+                        SELECT s.course_id, co.name, s.week_start, s.sessions_held, s.active_students,
+                               s.present_count, s.absent_count
+                        FROM course_weekly_stats s
+                        JOIN courses co ON co.id = s.course_id
+                        WHERE s.organization_id = ? AND s.week_start >= ? AND s.week_start < ?
+                        ORDER BY co.name, s.course_id, s.week_start
+                        """,
+                this::mapStats, orgId, Date.valueOf(from), Date.valueOf(to));
+
+        return OrganizationDashboardDTO.builder()
+                .organizationId(orgId)
+                .from(from)
+                .to(to.minusDays(1))
+                .weeks(totals)
+                .courses(courses)
+                .build();
+    }
+
+    // ================== ACTUALIZACIÓN ==================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        if (event.classSessionId() != null) pendingSessions.add(event.classSessionId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttendanceDeleted(AttendanceDeletedEvent event) {
+        if (event.classSessionId() != null) pendingSessions.add(event.classSessionId());
+    }
+
+    // ⏳ Recalcular las semanas afectadas por las últimas marcas
+    @Scheduled(fixedDelayString = "${dashboard.flush-interval-ms:5000}")
+    public void flushPending() {
+        if (pendingSessions.isEmpty()) return;
+
+        List<Long> sessionIds = new ArrayList<>(pendingSessions);
+        sessionIds.forEach(pendingSessions::remove);
+
+        LocalDate liveFrom = liveFrom();
+        Set<List<Object>> courseWeeks = new LinkedHashSet<>();
+        Set<List<Object>> organizationWeeks = new LinkedHashSet<>();
+        namedJdbcTemplate.query("""
+                        SELECT c.course_id, co.organization_id, c.date
+                        FROM classes c
+                        JOIN courses co ON co.id = c.course_id
+                        WHERE c.id IN (:ids) AND c.date IS NOT NULL
+                        """,
+                new MapSqlParameterSource("ids", sessionIds),
+                rs -> {
+                    LocalDate week = weekStart(rs.getDate(3).toLocalDate());
+                    if (week.isBefore(liveFrom)) return;
+                    long orgId = rs.getLong(2);
+                    boolean hasOrg = !rs.wasNull();
+                    courseWeeks.add(Arrays.asList(rs.getLong(1), hasOrg ? orgId : null, week));
+                    if (hasOrg) organizationWeeks.add(List.of(orgId, week));
+                });
+
+        try {
+            for (List<Object> key : courseWeeks) {
+                LocalDate week = (LocalDate) key.get(2);
+                recomputeCourse((Long) key.get(0), (Long) key.get(1), week, week.plusWeeks(1));
+            }
+            for (List<Object> key : organizationWeeks) {
+                LocalDate week = (LocalDate) key.get(1);
+                recomputeOrganization((Long) key.get(0), week, week.plusWeeks(1));
+            }
+        } catch (RuntimeException e) {
+            // Se reintenta en el próximo ciclo; la conciliación nocturna cubre el resto
+            pendingSessions.addAll(sessionIds);
+            System.err.println("⚠️ Error actualizando agregados del dashboard: " + e.getMessage());
+        }
+    }
+
+    // ================== CONCILIACIÓN ==================
+
+    // 🧹 Nocturno: recalcula las últimas semanas de todas las organizaciones
+    @Scheduled(cron = "${dashboard.reconcile-cron:0 30 3 * * *}")
+    public void reconcileRecent() {
+        LocalDate to = weekStart(LocalDate.now()).plusWeeks(1);
+        reconcile(to.minusWeeks(Math.max(1, reconcileWeeks)), to);
+    }
+
+    @Override
+    public void reconcileAllAsync() {
+        maintenanceExecutor.execute(() -> {
+            reconcile(LocalDate.of(1970, 1, 5), LocalDate.of(9999, 1, 1));
+            System.out.println("✅ Agregados del dashboard recalculados");
+        });
+    }
+
+    // 🔄 Backfill inicial: agregados vacíos pero con asistencias cargadas
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            boolean empty = jdbcTemplate.queryForList("SELECT 1 FROM organization_weekly_stats LIMIT 1").isEmpty();
+            boolean hasAttendances = !jdbcTemplate.queryForList("SELECT 1 FROM attendances LIMIT 1").isEmpty();
+            if (empty && hasAttendances) {
+                reconcileAllAsync();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ No se pudo verificar el backfill del dashboard: " + e.getMessage());
+        }
+    }
+
+    // Una transacción corta por organización; los meses en frío no se tocan (ver liveFrom)
+    private void reconcile(LocalDate from, LocalDate to) {
+        LocalDate liveFrom = liveFrom();
+        if (from.isBefore(liveFrom)) from = liveFrom;
+        if (!from.isBefore(to)) return;
+
+        for (Long orgId : jdbcTemplate.queryForList("SELECT id FROM organizations", Long.class)) {
+            try {
+                recomputeOrganizationCourses(orgId, from, to);
+                recomputeOrganization(orgId, from, to);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Error conciliando el dashboard de la organización " + orgId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Borra y vuelve a calcular el rango: las semanas que quedaron sin asistencias desaparecen.
+    // Las marcas de attendances_archive entran en la cuenta, así archivar un año no borra su historia.
+    private void recomputeCourse(Long courseId, Long orgId, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        String marks = marks("a.course_id = ?", List.of(courseId),
+                "x.organization_id = ? AND x.course_id = ?", Arrays.asList(orgId, courseId), from, to, args);
+        recompute("DELETE FROM course_weekly_stats WHERE course_id = ? AND week_start >= ? AND week_start < ?",
+                courseId, COURSE_AGGREGATE.formatted(WEEK_START, marks), args, from, to);
+    }
+
+    private void recomputeOrganizationCourses(Long orgId, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        String marks = marks("co.organization_id = ?", List.of(orgId),
+                "x.organization_id = ?", List.of(orgId), from, to, args);
+        recompute("DELETE FROM course_weekly_stats WHERE organization_id = ? AND week_start >= ? AND week_start < ?",
+                orgId, COURSE_AGGREGATE.formatted(WEEK_START, marks), args, from, to);
+    }
+
+    private void recomputeOrganization(Long orgId, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        String marks = marks("co.organization_id = ?", List.of(orgId),
+                "x.organization_id = ?", List.of(orgId), from, to, args);
+        recompute("DELETE FROM organization_weekly_stats WHERE organization_id = ? AND week_start >= ? AND week_start < ?",
+                orgId, ORGANIZATION_AGGREGATE.formatted(WEEK_START, marks), args, from, to);
+    }
+
+    private void recompute(String delete, Long id, String aggregate, List<Object> args, LocalDate from, LocalDate to) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update(delete, id, Date.valueOf(from), Date.valueOf(to));
+            jdbcTemplate.update(aggregate, args.toArray());
+        });
+    }
+
+    // Fuente de las marcas del rango: attendances y, si ya existe, attendances_archive (los parámetros van a args)
+    private String marks(String liveScope, List<Object> liveArgs, String archiveScope, List<Object> archiveArgs,
+                         LocalDate from, LocalDate to, List<Object> args) {
+        args.addAll(liveArgs);
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        if (!archiveRepository.exists()) return LIVE_MARKS.formatted(liveScope);
+
+        args.addAll(archiveArgs);
+        args.add(from.getYear() - 1);
+        args.add(to.getYear());
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        return LIVE_MARKS.formatted(liveScope) + ARCHIVED_MARKS.formatted(archiveScope);
+    }
+
+    /**
+     * 🧊 Primer lunes que no puede tener marcas en frío: lo anterior está en archivos y no se
+     * puede volver a agregar desde SQL, así que esas semanas conservan lo ya calculado.
+     * Sin archivo en frío no hay límite.
+     */
+    private LocalDate liveFrom() {
+        if (!coldArchiveEnabled) return LocalDate.of(1970, 1, 5);
+        return YearMonth.now().minusMonths(coldRetentionMonths).atDay(1)
+                .with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+    }
+
+    // ================== INTERNOS ==================
+
+    private WeeklyAttendanceStatsDTO mapStats(ResultSet rs, int rowNum) throws SQLException {
+        long courseId = rs.getLong(1);
+        boolean isCourse = !rs.wasNull();
+        int present = rs.getInt(6);
+        int absent = rs.getInt(7);
+        return WeeklyAttendanceStatsDTO.builder()
+                .courseId(isCourse ? courseId : null)
+                .courseName(rs.getString(2))
+                .weekStart(rs.getDate(3).toLocalDate())
+                .sessionsHeld(rs.getInt(4))
+                .activeStudents(rs.getInt(5))
+                .present(present)
+                .absent(absent)
+                .attendanceRate(present + absent > 0
+                        ? Math.round(present * 10000.0 / (present + absent)) / 100.0
+                        : null)
+                .build();
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    // 🧱 ADMIN solo ve su organización; SUPER_ADMIN cualquiera
+    private Long resolveOrganization(User requester, Long organizationId) {
+        if (requester.getRole() == Rol.SUPER_ADMIN) {
+            if (organizationId == null) {
+                throw new IllegalArgumentException("organizationId es obligatorio");
+            }
+            return organizationId;
+        }
+
+        if (requester.getRole() != Rol.ADMIN || requester.getOrganization() == null) {
+            throw new IllegalStateException("No tiene permisos para ver el dashboard");
+        }
+        Long own = requester.getOrganization().getId();
+        if (organizationId != null && !organizationId.equals(own)) {
+            throw new IllegalStateException("No puede ver el dashboard de otra organización");
+        }
+        return own;
+    }
+}
@@ -0,0 +1,403 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.config.ReplicaRouting;
+import com.marcedev.attendance.dto.ExportJobDTO;
+import com.marcedev.attendance.dto.ExportRequestDTO;
+import com.marcedev.attendance.entities.Course;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.ExportFormat;
+import com.marcedev.attendance.enums.ExportScope;
+import com.marcedev.attendance.enums.JobStatus;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.repository.AttendanceArchiveRepository;
+import com.marcedev.attendance.repository.CourseRepository;
+import com.marcedev.attendance.repository.OrganizationRepository;
+import com.marcedev.attendance.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    /**
+     * Una fila por asistencia. Se lee con un cursor forward-only
+     * (fetchSize = Integer.MIN_VALUE → streaming de MySQL Connector/J),
+     * así el heap no crece con la cantidad de filas.
+     */
+    private static final String EXPORT_SQL = """
+        SELECT cs.date, cs.name, c.id, c.name, u.id, u.full_name, u.email, a.attended, a.class_id
+        FROM attendances a
+        JOIN classes cs ON cs.id = a.class_id
+        JOIN courses c ON c.id = a.course_id
+        JOIN users u ON u.id = a.student_id
+        """;
+
+    // Años académicos cerrados (attendances_archive): mismas columnas, se agregan con UNION ALL
+    private static final String ARCHIVE_EXPORT_SQL = """
+        SELECT a.class_date, cs.name, c.id, c.name, u.id, u.full_name, u.email, a.attended, a.class_id
+        FROM attendances_archive a
+        JOIN classes cs ON cs.id = a.class_id
+        JOIN courses c ON c.id = a.course_id
+        JOIN users u ON u.id = a.student_id
+        """;
+
+    private static final String[] HEADER = {
+            "fecha", "clase", "curso_id", "curso", "alumno_id", "alumno", "email", "asistio"
+    };
+
+    private final DataSource dataSource;
+    private final ReplicaRouting replicaRouting;
+    private final AttendanceArchiveRepository attendanceArchiveRepository;
+    private final CourseRepository courseRepository;
+    private final OrganizationRepository organizationRepository;
+
+    @Qualifier("exportExecutor")
+    private final ThreadPoolTaskExecutor exportExecutor;
+
+    @Value("${export.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    // ================== API ==================
+
+    @Override
+    public ExportJobDTO submit(ExportRequestDTO request, User requester) {
+        if (request.getScope() == null || request.getTargetId() == null) {
+            throw new IllegalArgumentException("scope y targetId son obligatorios");
+        }
+        if (request.getFormat() == null) {
+            request.setFormat(ExportFormat.CSV);
+        }
+        if (request.getFrom() != null && request.getTo() != null && request.getFrom().isAfter(request.getTo())) {
+            throw new IllegalArgumentException("El rango de fechas es inválido");
+        }
+
+        validateAccess(request, requester);
+
+        Job job = new Job(UUID.randomUUID().toString(), request, requester.getEmail());
+        jobs.put(job.id, job);
+
+        try {
+            exportExecutor.execute(() -> run(job));
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    @Override
+    public Optional<ExportJobDTO> findJob(String jobId, User requester) {
+        return visibleJob(jobId, requester).map(Job::toDTO);
+    }
+
+    @Override
+    public Optional<Resource> getFile(String jobId, User requester) {
+        return visibleJob(jobId, requester)
+                .filter(job -> job.status == JobStatus.COMPLETED && job.file != null && Files.exists(job.file))
+                .map(job -> new FileSystemResource(job.file));
+    }
+
+    // ================== LIMPIEZA ==================
+
+    /** 🧹 Borra jobs terminados (y sus archivos) pasada la retención */
+    @Scheduled(fixedDelayString = "${export.cleanup-interval-ms:900000}")
+    public void purgeExpiredJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(limit)) return false;
+            deleteQuietly(job.file);
+            return true;
+        });
+    }
+
+    // ================== EJECUCIÓN ==================
+
+    private void run(Job job) {
+        job.status = JobStatus.RUNNING;
+        ExportRequestDTO request = job.request;
+        Path file = null;
+
+        try {
+            file = Files.createTempFile("attendance-export-", "." + request.getFormat().name().toLowerCase());
+
+            List<Object> args = new ArrayList<>();
+            StringBuilder sql = new StringBuilder(EXPORT_SQL);
+            appendFilters(sql, args, request, "cs.date");
+            if (attendanceArchiveRepository.exists()) {
+                sql.append(" UNION ALL ").append(ARCHIVE_EXPORT_SQL);
+                appendFilters(sql, args, request, "a.class_date");
+            }
+            sql.append(" ORDER BY 1, 9, 6"); // fecha, clase, alumno
+
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.setFetchSize(Integer.MIN_VALUE);
+
+            try (RowWriter writer = openWriter(request.getFormat(), file)) {
+                writer.write(HEADER);
+                Object[] row = new Object[HEADER.length];
+
+                // 🔀 Lectura pesada: a la réplica si está disponible
+                replicaRouting.onReplica(() -> jdbc.query(sql.toString(), rs -> {
+                    Date date = rs.getDate(1);
+                    row[0] = date != null ? date.toLocalDate().toString() : "";
+                    row[1] = rs.getString(2);
+                    row[2] = rs.getLong(3);
+                    row[3] = rs.getString(4);
+                    row[4] = rs.getLong(5);
+                    row[5] = rs.getString(6);
+                    row[6] = rs.getString(7);
+                    row[7] = rs.getBoolean(8);
+                    try {
+                        writer.write(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    job.rowsWritten++;
+                }, args.toArray()));
+            }
+
+            job.file = file;
+            job.status = JobStatus.COMPLETED;
+        } catch (Exception e) {
+            System.err.println("❌ Error en exportación " + job.id + ": " + e.getMessage());
+            deleteQuietly(file);
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    // WHERE del alcance (curso u organización) y del rango de fechas, sobre el alias a.
+    private static void appendFilters(StringBuilder sql, List<Object> args, ExportRequestDTO request, String dateColumn) {
+        sql.append(request.getScope() == ExportScope.COURSE
+                ? " WHERE a.course_id = ?"
+                : " WHERE a.organization_id = ?");
+        args.add(request.getTargetId());
+        if (request.getFrom() != null) {
+            sql.append(" AND ").append(dateColumn).append(" >= ?");
+            args.add(Date.valueOf(request.getFrom()));
+        }
+        if (request.getTo() != null) {
+            sql.append(" AND ").append(dateColumn).append(" <= ?");
+            args.add(Date.valueOf(request.getTo()));
+        }
+    }
+
+    private RowWriter openWriter(ExportFormat format, Path file) throws IOException {
+        return format == ExportFormat.XLSX ? new XlsxRowWriter(file) : new CsvRowWriter(file);
+    }
+
+    // ================== PERMISOS ==================
+
+    private void validateAccess(ExportRequestDTO request, User requester) {
+        if (requester.getRole() == Rol.SUPER_ADMIN) {
+            if (request.getScope() == ExportScope.ORGANIZATION
+                    && !organizationRepository.existsById(request.getTargetId())) {
+                throw new IllegalArgumentException("Organización no encontrada");
+            }
+            if (request.getScope() == ExportScope.COURSE && !courseRepository.existsById(request.getTargetId())) {
+                throw new IllegalArgumentException("Curso no encontrado");
+            }
+            return;
+        }
+
+        if (requester.getOrganization() == null) {
+            throw new IllegalStateException("El usuario no pertenece a ninguna organización");
+        }
+        Long orgId = requester.getOrganization().getId();
+
+        if (request.getScope() == ExportScope.ORGANIZATION) {
+            if (requester.getRole() != Rol.ADMIN || !orgId.equals(request.getTargetId())) {
+                throw new IllegalStateException("Solo el ADMIN de la organización puede exportarla completa");
+            }
+            return;
+        }
+
+        Course course = courseRepository.findById(request.getTargetId())
+                .orElseThrow(() -> new IllegalArgumentException("Curso no encontrado"));
+        if (course.getOrganization() == null || !orgId.equals(course.getOrganization().getId())) {
+            throw new IllegalStateException("El curso pertenece a otra organización");
+        }
+    }
+
+    private Optional<Job> visibleJob(String jobId, User requester) {
+        Job job = jobs.get(jobId);
+        if (job == null) return Optional.empty();
+        if (requester.getRole() != Rol.SUPER_ADMIN && !job.ownerEmail.equals(requester.getEmail())) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo borrar " + file + ": " + e.getMessage());
+        }
+    }
+
+    // ================== JOB ==================
+
+    private static final class Job {
+        final String id;
+        final ExportRequestDTO request;
+        final String ownerEmail;
+        final LocalDateTime createdAt = LocalDateTime.now();
+
+        volatile JobStatus status = JobStatus.PENDING;
+        volatile long rowsWritten;
+        volatile String error;
+        volatile Path file;
+        volatile LocalDateTime finishedAt;
+
+        Job(String id, ExportRequestDTO request, String ownerEmail) {
+            this.id = id;
+            this.request = request;
+            this.ownerEmail = ownerEmail;
+        }
+
+        ExportJobDTO toDTO() {
+            return ExportJobDTO.builder()
+                    .id(id)
+                    .scope(request.getScope())
+                    .targetId(request.getTargetId())
+                    .format(request.getFormat())
+                    .status(status)
+                    .rowsWritten(rowsWritten)
+                    .error(error)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .fileName(status == JobStatus.COMPLETED
+                            ? "asistencias-" + request.getScope().name().toLowerCase() + "-" + request.getTargetId()
+                              + "." + request.getFormat().name().toLowerCase()
+                            : null)
+                    .build();
+        }
+    }
+
+    // ================== WRITERS ==================
+
+    private interface RowWriter extends Closeable {
+        void write(Object[] values) throws IOException;
+    }
+
+    /** CSV UTF-8 (con BOM para que Excel respete los acentos) */
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer out;
+
+        CsvRowWriter(Path file) throws IOException {
+            this.out = new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), 64 * 1024);
+            out.write('\uFEFF');
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                String value = values[i] == null ? "" : values[i].toString();
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                        || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    out.write('"');
+                    out.write(value.replace("\"", "\"\""));
+                    out.write('"');
+                } else {
+                    out.write(value);
+                }
+            }
+            out.write("\r\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * XLSX con SXSSF: solo mantiene una ventana de filas en memoria
+     * y vuelca el resto a archivos temporales comprimidos.
+     * Si se supera el máximo de filas de Excel, continúa en otra hoja.
+     */
+    private static final class XlsxRowWriter implements RowWriter {
+        private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+        private final Path file;
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(200);
+        private Object[] header;
+        private SXSSFSheet sheet;
+        private int rowIndex;
+
+        XlsxRowWriter(Path file) {
+            this.file = file;
+            workbook.setCompressTempFiles(true);
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            if (sheet == null || rowIndex >= MAX_ROWS) {
+                sheet = workbook.createSheet("Asistencias " + (workbook.getNumberOfSheets() + 1));
+                rowIndex = 0;
+                if (header != null) writeRow(header);
+            }
+            if (header == null) {
+                header = values.clone();
+            }
+            writeRow(values);
+        }
+
+        private void writeRow(Object[] values) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value instanceof Number n) {
+                    row.createCell(i).setCellValue(n.doubleValue());
+                } else if (value instanceof Boolean b) {
+                    row.createCell(i).setCellValue(b);
+                } else {
+                    row.createCell(i).setCellValue(value == null ? "" : value.toString());
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                workbook.write(out);
+            } finally {
+                workbook.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.*;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.graphql.GraphQlScope;
+import com.marcedev.attendance.service.GraphQlReadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 🔹 Consultas de la API GraphQL en SQL directo, solo las columnas del schema.
+ * - Sin entidades: nada LAZY que se dispare fila por fila.
+ * - Un lote de IDs = una consulta IN (en bloques de ID_CHUNK).
+ * - El filtro de organización va en el WHERE de cada consulta, no después.
+ * - INSTRUCTOR: además de la organización, cada consulta (raíces, por ID y asociaciones)
+ *   lleva el predicado de propiedad: sus cursos, sus clases y asistencias, él mismo y sus alumnos.
+ * - Read-only: va a la réplica si hay.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class GraphQlReadServiceImpl implements GraphQlReadService {
+
+    private static final int ID_CHUNK = 1000;
+
+    private static final String ORGANIZATIONS =
+            "SELECT o.id, o.name, o.type, o.address, o.phone, o.logo_url FROM organizations o";
+    private static final String COURSES =
+            "SELECT c.id, c.name, c.description, c.university_program, c.instructor_id, c.organization_id FROM courses c";
+    // organización por el curso: las clases viejas pueden no tener organization_id
+    private static final String CLASSES =
+            "SELECT s.id, s.name, s.date, s.course_id FROM classes s JOIN courses c ON c.id = s.course_id";
+    private static final String USERS =
+            "SELECT u.id, u.full_name, u.email, u.role, u.organization_id FROM users u";
+    private static final String ATTENDANCES =
+            "SELECT a.class_id, a.id, a.student_id, a.attended, a.course_id, a.organization_id FROM attendances a"
+                    + " JOIN classes s ON s.id = a.class_id JOIN courses c ON c.id = s.course_id";
+
+    // Predicados de propiedad del INSTRUCTOR (:userId)
+    private static final String OWN_COURSE = "c.instructor_id = :userId";
+    private static final String OWN_USER = "(u.id = :userId OR EXISTS (SELECT 1 FROM user_courses ouc"
+            + " JOIN courses oc ON oc.id = ouc.course_id WHERE ouc.user_id = u.id AND oc.instructor_id = :userId))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // ================== RAÍCES ==================
+
+    @Override
+    public List<OrganizationDTO> findOrganizations(GraphQlScope scope) {
+        Long tenantId = scope.tenantId();
+        if (tenantId == null) {
+            return jdbcTemplate.query(ORGANIZATIONS + " ORDER BY o.name", (rs, i) -> organization(rs, 1));
+        }
+        return new ArrayList<>(findOrganizationsById(scope, List.of(tenantId)).values());
+    }
+
+    @Override
+    public List<CourseDTO> findCourses(GraphQlScope scope) {
+        Long tenantId = scope.tenantId();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = "";
+
+        if (tenantId != null) {
+            where = " WHERE c.organization_id = :orgId";
+            params.addValue("orgId", tenantId);
+            if (isInstructor(scope)) {
+                where += " AND " + OWN_COURSE;
+                params.addValue("userId", scope.userId());
+            }
+        }
+        return jdbcTemplate.query(COURSES + where + " ORDER BY c.name", params, (rs, i) -> course(rs, 1));
+    }
+
+    // ================== POR ID ==================
+
+    @Override
+    public Map<Long, OrganizationDTO> findOrganizationsById(GraphQlScope scope, Collection<Long> ids) {
+        return byId(select(ORGANIZATIONS, "o.id", "o.id", null, "", scope, ids, (rs, i) -> organization(rs, 1)),
+                OrganizationDTO::getId);
+    }
+
+    @Override
+    public Map<Long, CourseDTO> findCoursesById(GraphQlScope scope, Collection<Long> ids) {
+        return byId(select(COURSES, "c.id", "c.organization_id", OWN_COURSE, "", scope, ids, (rs, i) -> course(rs, 1)),
+                CourseDTO::getId);
+    }
+
+    @Override
+    public Map<Long, ClassSummaryDTO> findClassesById(GraphQlScope scope, Collection<Long> ids) {
+        return byId(select(CLASSES, "s.id", "c.organization_id", OWN_COURSE, "", scope, ids, (rs, i) -> classSummary(rs, 1)),
+                ClassSummaryDTO::getId);
+    }
+
+    @Override
+    public Map<Long, UserDTO> findUsersById(GraphQlScope scope, Collection<Long> ids) {
+        return byId(select(USERS, "u.id", "u.organization_id", OWN_USER, "", scope, ids, (rs, i) -> user(rs, 1)),
+                UserDTO::getId);
+    }
+
+    // ================== ASOCIACIONES ==================
+
+    @Override
+    public Map<Long, List<CourseDTO>> findCoursesByOrganization(GraphQlScope scope, Collection<Long> organizationIds) {
+        return grouped(select(COURSES, "c.organization_id", "c.organization_id", OWN_COURSE, " ORDER BY c.name", scope,
+                organizationIds, (rs, i) -> Map.entry(rs.getLong(6), course(rs, 1))));
+    }
+
+    @Override
+    public Map<Long, List<ClassSummaryDTO>> findClassesByCourse(GraphQlScope scope, Collection<Long> courseIds) {
+        return grouped(select(CLASSES, "s.course_id", "c.organization_id", OWN_COURSE, " ORDER BY s.date, s.id", scope,
+                courseIds, (rs, i) -> Map.entry(rs.getLong(4), classSummary(rs, 1))));
+    }
+
+    @Override
+    public Map<Long, List<UserDTO>> findStudentsByCourse(GraphQlScope scope, Collection<Long> courseIds) {
+        String sql = "SELECT uc.course_id, u.id, u.full_name, u.email, u.role, u.organization_id"
+                + " FROM user_courses uc JOIN users u ON u.id = uc.user_id JOIN courses c ON c.id = uc.course_id";
+        return grouped(select(sql, "uc.course_id", "u.organization_id", OWN_COURSE, " ORDER BY u.full_name", scope,
+                courseIds, (rs, i) -> Map.entry(rs.getLong(1), user(rs, 2))));
+    }
+
+    @Override
+    public Map<Long, List<AttendanceDTO>> findAttendancesByClass(GraphQlScope scope, Collection<Long> classIds) {
+        // organization_id en el WHERE: clave de partición de attendances
+        return grouped(select(ATTENDANCES, "a.class_id", "a.organization_id", OWN_COURSE, " ORDER BY a.id", scope,
+                classIds, (rs, i) -> Map.entry(rs.getLong(1), attendance(rs))));
+    }
+
+    @Override
+    public Map<Long, List<CourseDTO>> findCoursesByUser(GraphQlScope scope, Collection<Long> userIds) {
+        String sql = "SELECT uc.user_id, c.id, c.name, c.description, c.university_program, c.instructor_id, c.organization_id"
+                + " FROM user_courses uc JOIN courses c ON c.id = uc.course_id";
+        return grouped(select(sql, "uc.user_id", "c.organization_id", OWN_COURSE, " ORDER BY c.name", scope,
+                userIds, (rs, i) -> Map.entry(rs.getLong(1), course(rs, 2))));
+    }
+
+    // ================== AUXILIARES ==================
+
+    // SELECT ... WHERE <idColumn> IN (:ids) [AND <tenantColumn> = :orgId] [AND <ownership>] <orderBy>, por bloques
+    private <T> List<T> select(String selectFrom, String idColumn, String tenantColumn, String ownership,
+                               String orderBy, GraphQlScope scope, Collection<Long> ids, RowMapper<T> mapper) {
+        if (ids.isEmpty()) return List.of();
+
+        Long tenantId = scope.tenantId();
+        String sql = selectFrom + " WHERE " + idColumn + " IN (:ids)"
+                + (tenantId != null ? " AND " + tenantColumn + " = :orgId" : "")
+                + (ownership != null && isInstructor(scope) ? " AND " + ownership : "")
+                + orderBy;
+
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<T> rows = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += ID_CHUNK) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", distinct.subList(from, Math.min(from + ID_CHUNK, distinct.size())))
+                    .addValue("orgId", tenantId)
+                    .addValue("userId", scope.userId());
+            rows.addAll(jdbcTemplate.query(sql, params, mapper));
+        }
+        return rows;
+    }
+
+    private static boolean isInstructor(GraphQlScope scope) {
+        return scope.role() == Rol.INSTRUCTOR;
+    }
+
+    private static <T> Map<Long, T> byId(List<T> rows, Function<T, Long> id) {
+        Map<Long, T> result = new HashMap<>(rows.size() * 2);
+        for (T row : rows) result.put(id.apply(row), row);
+        return result;
+    }
+
+    private static <T> Map<Long, List<T>> grouped(List<Map.Entry<Long, T>> rows) {
+        Map<Long, List<T>> result = new HashMap<>();
+        for (Map.Entry<Long, T> row : rows) {
+            result.computeIfAbsent(row.getKey(), k -> new ArrayList<>()).add(row.getValue());
+        }
+        return result;
+    }
+
+    private static OrganizationDTO organization(ResultSet rs, int col) throws SQLException {
+        return OrganizationDTO.builder()
+                .id(rs.getLong(col))
+                .name(rs.getString(col + 1))
+                .type(rs.getString(col + 2))
+                .address(rs.getString(col + 3))
+                .phone(rs.getString(col + 4))
+                .logoUrl(rs.getString(col + 5))
+                .build();
+    }
+
+    private static CourseDTO course(ResultSet rs, int col) throws SQLException {
+        return CourseDTO.builder()
+                .id(rs.getLong(col))
+                .name(rs.getString(col + 1))
+                .description(rs.getString(col + 2))
+                .universityProgram(rs.getString(col + 3))
+                .instructorId(rs.getObject(col + 4, Long.class))
+                .organizationId(rs.getObject(col + 5, Long.class))
+                .build();
+    }
+
+    private static ClassSummaryDTO classSummary(ResultSet rs, int col) throws SQLException {
+        return ClassSummaryDTO.builder()
+                .id(rs.getLong(col))
+                .name(rs.getString(col + 1))
+                .date(rs.getObject(col + 2, LocalDate.class))
+                .courseId(rs.getObject(col + 3, Long.class))
+                .build();
+    }
+
+    private static UserDTO user(ResultSet rs, int col) throws SQLException {
+        UserDTO dto = new UserDTO();
+        dto.setId(rs.getLong(col));
+        dto.setFullName(rs.getString(col + 1));
+        dto.setEmail(rs.getString(col + 2));
+        dto.setRole(rs.getString(col + 3));
+        dto.setOrganizationId(rs.getObject(col + 4, Long.class));
+        return dto;
+    }
+
+    // columnas de ATTENDANCES (la 1 es class_id, la clave del lote)
+    private static AttendanceDTO attendance(ResultSet rs) throws SQLException {
+        return AttendanceDTO.builder()
+                .classId(rs.getLong(1))
+                .id(rs.getLong(2))
+                .studentId(rs.getLong(3))
+                .attended(rs.getBoolean(4))
+                .courseId(rs.getLong(5))
+                .organizationId(rs.getLong(6))
+                .build();
+    }
+}
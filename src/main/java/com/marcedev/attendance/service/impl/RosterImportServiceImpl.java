@@ -0,0 +1,354 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.RosterImportReportDTO;
+import com.marcedev.attendance.dto.RosterImportRowDTO;
+import com.marcedev.attendance.enums.ImportRowStatus;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.repository.CourseRepository;
+import com.marcedev.attendance.repository.EnrollmentJdbcRepository;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.security.PasswordHashingService;
+import com.marcedev.attendance.service.RosterImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 🧩 Importación de padrones en CSV.
+ * Pipeline por bloques: parseo incremental → validación → deduplicación contra la BD
+ * (una consulta IN por bloque) → hash BCrypt en paralelo → INSERT en batch de
+ * usuarios e inscripciones, cada bloque en su propia transacción.
+ */
+@Service
+@RequiredArgsConstructor
+public class RosterImportServiceImpl implements RosterImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Pattern COURSE_SEPARATOR = Pattern.compile("[;|\\s]+");
+
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordHashingService passwordHashingService;
+
+    @Override
+    public RosterImportReportDTO importCsv(InputStream csv, Long organizationId, Rol creatorRole) {
+        Set<Long> orgCourseIds = new HashSet<>(courseRepository.findIdsByOrganizationId(organizationId));
+
+        List<RosterImportRowDTO> report = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingUser> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IllegalArgumentException("El archivo está vacío");
+            }
+            Map<String, Integer> columns = indexColumns(header);
+
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) continue;
+
+                RosterImportRowDTO row = RosterImportRowDTO.builder().line(reader.recordLine()).build();
+                report.add(row);
+
+                PendingUser pending = parseRow(record, columns, row, orgCourseIds, creatorRole, seenEmails);
+                if (pending == null) continue;
+
+                chunk.add(pending);
+                if (chunk.size() == CHUNK_SIZE) {
+                    flush(chunk, organizationId);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(chunk, organizationId);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo el CSV", e);
+        }
+
+        return RosterImportReportDTO.builder()
+                .organizationId(organizationId)
+                .totalRows(report.size())
+                .created(report.stream().filter(r -> r.getStatus() == ImportRowStatus.CREATED).count())
+                .skipped(report.stream().filter(r -> r.getStatus() == ImportRowStatus.SKIPPED).count())
+                .failed(report.stream().filter(r -> r.getStatus() == ImportRowStatus.FAILED).count())
+                .rows(report)
+                .build();
+    }
+
+    // ================== VALIDACIÓN ==================
+
+    private Map<String, Integer> indexColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase();
+            columns.put(name.replace("_", ""), i);
+        }
+        for (String required : List.of("fullname", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Falta la columna obligatoria: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private PendingUser parseRow(List<String> record,
+                                 Map<String, Integer> columns,
+                                 RosterImportRowDTO row,
+                                 Set<Long> orgCourseIds,
+                                 Rol creatorRole,
+                                 Set<String> seenEmails) {
+
+        String fullName = column(record, columns, "fullname");
+        String email = column(record, columns, "email").toLowerCase();
+        String password = column(record, columns, "password");
+        String roleValue = column(record, columns, "role");
+        String courseValue = column(record, columns, "courseids");
+
+        row.setEmail(email);
+
+        if (fullName.isBlank()) return fail(row, "El nombre es obligatorio");
+        if (!EMAIL.matcher(email).matches()) return fail(row, "Email inválido");
+        if (password.isBlank()) return fail(row, "La contraseña es obligatoria");
+
+        Rol role = Rol.USER;
+        if (!roleValue.isBlank()) {
+            try {
+                role = Rol.valueOf(roleValue.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return fail(row, "Rol inválido: " + roleValue);
+            }
+        }
+        if (role == Rol.SUPER_ADMIN && creatorRole != Rol.SUPER_ADMIN) {
+            return fail(row, "No puede crear SUPER_ADMIN");
+        }
+
+        List<Long> courseIds = new ArrayList<>();
+        if (!courseValue.isBlank()) {
+            for (String token : COURSE_SEPARATOR.split(courseValue.trim())) {
+                long courseId;
+                try {
+                    courseId = Long.parseLong(token);
+                } catch (NumberFormatException e) {
+                    return fail(row, "ID de curso inválido: " + token);
+                }
+                if (!orgCourseIds.contains(courseId)) {
+                    return fail(row, "El curso " + courseId + " no pertenece a la organización");
+                }
+                courseIds.add(courseId);
+            }
+        }
+
+        if (!seenEmails.add(email)) {
+            row.setStatus(ImportRowStatus.SKIPPED);
+            row.setMessage("Email repetido en el archivo");
+            return null;
+        }
+
+        return new PendingUser(row, fullName.trim(), email, password, role, courseIds);
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) return "";
+        return record.get(index).trim();
+    }
+
+    private static PendingUser fail(RosterImportRowDTO row, String message) {
+        row.setStatus(ImportRowStatus.FAILED);
+        row.setMessage(message);
+        return null;
+    }
+
+    // ================== ESCRITURA POR BLOQUE ==================
+
+    private void flush(List<PendingUser> chunk, Long organizationId) {
+        // 🔁 Deduplicar contra la BD con una sola consulta
+        Set<String> existing = new HashSet<>();
+        userRepository.findExistingEmails(chunk.stream().map(PendingUser::email).toList())
+                .forEach(e -> existing.add(e.toLowerCase()));
+
+        List<PendingUser> toCreate = new ArrayList<>(chunk.size());
+        for (PendingUser pending : chunk) {
+            if (existing.contains(pending.email())) {
+                pending.row().setStatus(ImportRowStatus.SKIPPED);
+                pending.row().setMessage("El email ya está registrado");
+            } else {
+                toCreate.add(pending);
+            }
+        }
+        if (toCreate.isEmpty()) return;
+
+        // 🔐 Hash en paralelo sobre el pool de importaciones (no compite con los logins)
+        List<String> encoded = passwordHashingService.encodeAll(toCreate.stream().map(PendingUser::rawPassword).toList());
+
+        try {
+            transactionTemplate.executeWithoutResult(tx -> insert(toCreate, encoded, organizationId));
+            toCreate.forEach(p -> p.row().setStatus(ImportRowStatus.CREATED));
+        } catch (DataAccessException e) {
+            // ⚠️ Si el lote falla (ej: email creado en paralelo), reintentar fila por fila
+            for (int i = 0; i < toCreate.size(); i++) {
+                PendingUser pending = toCreate.get(i);
+                List<String> hash = List.of(encoded.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(tx -> insert(List.of(pending), hash, organizationId));
+                    pending.row().setStatus(ImportRowStatus.CREATED);
+                } catch (DataAccessException rowError) {
+                    fail(pending.row(), "Error al guardar: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<PendingUser> users, List<String> encodedPasswords, Long organizationId) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (full_name, email, password, role, organization_id) VALUES (?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingUser user = users.get(i);
+                        ps.setString(1, user.fullName());
+                        ps.setString(2, user.email());
+                        ps.setString(3, encodedPasswords.get(i));
+                        ps.setString(4, user.role().name());
+                        ps.setLong(5, organizationId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                });
+
+        if (users.stream().allMatch(u -> u.courseIds().isEmpty())) return;
+
+        // 🔹 IDs generados → inscripciones
+        Map<String, Long> idsByEmail = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT id, email FROM users WHERE email IN (:emails)",
+                new MapSqlParameterSource("emails", users.stream().map(PendingUser::email).toList()),
+                rs -> {
+                    idsByEmail.put(rs.getString(2).toLowerCase(), rs.getLong(1));
+                });
+
+        List<long[]> pairs = new ArrayList<>();
+        for (PendingUser user : users) {
+            Long userId = idsByEmail.get(user.email());
+            if (userId == null) continue;
+            for (Long courseId : user.courseIds()) {
+                pairs.add(new long[]{userId, courseId});
+            }
+        }
+        enrollmentJdbcRepository.insertIgnorePairs(pairs);
+    }
+
+    private record PendingUser(RosterImportRowDTO row,
+                               String fullName,
+                               String email,
+                               String rawPassword,
+                               Rol role,
+                               List<Long> courseIds) {
+    }
+
+    // ================== CSV ==================
+
+    /**
+     * Lector CSV incremental (RFC 4180): comillas dobles, "" escapado y saltos de línea
+     * dentro de campos. Detecta ';' como separador si el comienzo del encabezado
+     * (HEADER_PEEK caracteres) no tiene comas (export de Excel en configuración regional es-AR).
+     */
+    private static final class CsvReader implements Closeable {
+        private static final int HEADER_PEEK = 8192;
+
+        private final BufferedReader in;
+        private final char delimiter;
+        private long line = 1;
+        private long recordLine;
+
+        CsvReader(Reader reader) throws IOException {
+            this.in = new BufferedReader(reader, 64 * 1024);
+            in.mark(1);
+            if (in.read() != '\uFEFF') in.reset(); // BOM de Excel
+            // Solo se mira el comienzo del encabezado: readLine() sobre una línea más larga
+            // que el límite del mark hacía fallar el reset()
+            char[] head = new char[HEADER_PEEK];
+            in.mark(HEADER_PEEK);
+            int length = 0;
+            int c;
+            while (length < head.length && (c = in.read()) != -1 && c != '\n') head[length++] = (char) c;
+            in.reset();
+            String first = new String(head, 0, length);
+            this.delimiter = first.indexOf(',') < 0 && first.indexOf(';') >= 0 ? ';' : ',';
+        }
+
+        long recordLine() {
+            return recordLine;
+        }
+
+        List<String> next() throws IOException {
+            int c = in.read();
+            if (c == -1) return null;
+
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int next = in.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            in.reset();
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.marcedev.attendance.service.impl;
 
+import com.marcedev.attendance.config.CacheConfig;
+import com.marcedev.attendance.config.SecondLevelCache;
 import com.marcedev.attendance.dto.UserDTO;
 import com.marcedev.attendance.entities.Course;
 import com.marcedev.attendance.entities.Organization;
@@ -8,12 +10,15 @@ import com.marcedev.attendance.enums.Rol;
 import com.marcedev.attendance.repository.CourseRepository;
 import com.marcedev.attendance.repository.OrganizationRepository;
 import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.security.PasswordHashingService;
 import com.marcedev.attendance.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,10 +35,12 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final OrganizationRepository organizationRepository;
     private final CourseRepository courseRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final SecondLevelCache secondLevelCache;
 
     // 🔹 Obtener todos los usuarios
     @Override
+    @Transactional(readOnly = true)
     public List<User> findAll() {
         return userRepository.findAll();
     }
@@ -58,7 +65,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public User save(User user) {
         if (user.getPassword() != null && !user.getPassword().isBlank()) {
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            user.setPassword(passwordHashingService.encode(user.getPassword()));
         }
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -79,13 +86,23 @@ public class UserServiceImpl implements UserService {
             });
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        if (saved.getCourses() != null && !saved.getCourses().isEmpty()) {
+            secondLevelCache.evictCourseStudents();
+        }
+        return saved;
     }
 
     // 🔹 Eliminar usuario por ID
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LISTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ORGANIZATIONS, allEntries = true)
+    })
     public void deleteById(Long id) {
         userRepository.deleteById(id);
+        // user_courses se borra desde el lado User: Course.students cacheado queda desactualizado
+        secondLevelCache.evictCourseStudents();
     }
 
     // 🔹 Asignar cursos a un usuario existente
@@ -98,12 +115,18 @@ public class UserServiceImpl implements UserService {
         user.getCourses().addAll(courseRepository.findAllById(courseIds));
 
         userRepository.save(user);
+        secondLevelCache.evictCourseStudents();
         return userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Error al recargar usuario actualizado"));
     }
 
     // 🔹 Actualizar datos de usuario
     @Override
+    // Nombre / rol del usuario aparecen en los listados cacheados (instructor, admin)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LISTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ORGANIZATIONS, allEntries = true)
+    })
     public void updateUser(Long id, User updatedUser) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -121,7 +144,7 @@ public class UserServiceImpl implements UserService {
         }
 
         if (updatedUser.getPassword() != null && !updatedUser.getPassword().isBlank()) {
-            user.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
+            user.setPassword(passwordHashingService.encode(updatedUser.getPassword()));
         }
 
         if (updatedUser.getOrganization() != null) {
@@ -169,7 +192,7 @@ public class UserServiceImpl implements UserService {
         if (newAdminData.getPassword() == null || newAdminData.getPassword().isBlank()) {
             throw new RuntimeException("La contraseña es obligatoria");
         }
-        String encodedPassword = passwordEncoder.encode(newAdminData.getPassword());
+        String encodedPassword = passwordHashingService.encode(newAdminData.getPassword());
 
         // 7️⃣ Crear nuevo administrador
         User admin = User.builder()
@@ -183,6 +206,10 @@ public class UserServiceImpl implements UserService {
         return userRepository.save(admin);
     }
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LISTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ORGANIZATIONS, allEntries = true)
+    })
     public UserDTO updateUser(Long id, UserDTO dto) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
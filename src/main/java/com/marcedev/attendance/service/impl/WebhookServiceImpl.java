@@ -0,0 +1,112 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.WebhookSubscriptionDTO;
+import com.marcedev.attendance.entities.Organization;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.entities.WebhookSubscription;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.enums.WebhookEventType;
+import com.marcedev.attendance.repository.OrganizationRepository;
+import com.marcedev.attendance.repository.WebhookSubscriptionRepository;
+import com.marcedev.attendance.service.WebhookService;
+import com.marcedev.attendance.webhook.WebhookDispatcher;
+import com.marcedev.attendance.webhook.WebhookUrlValidator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class WebhookServiceImpl implements WebhookService {
+
+    private static final int DEFAULT_ABSENCE_THRESHOLD = 3;
+
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final OrganizationRepository organizationRepository;
+    private final WebhookDispatcher webhookDispatcher;
+    private final WebhookUrlValidator webhookUrlValidator;
+
+    @Override
+    public List<WebhookSubscriptionDTO> findAll(User requester, Long organizationId) {
+        Long orgId = resolveOrganization(requester, organizationId);
+        return subscriptionRepository.findByOrganizationId(orgId).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    @Override
+    public WebhookSubscriptionDTO create(WebhookSubscriptionDTO dto, User requester) {
+        Long orgId = resolveOrganization(requester, dto.getOrganizationId());
+        Organization org = organizationRepository.findById(orgId)
+                .orElseThrow(() -> new IllegalArgumentException("Organización no encontrada"));
+
+        webhookUrlValidator.validate(dto.getUrl());
+        if (dto.getEvents() == null || dto.getEvents().isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un evento");
+        }
+
+        int threshold = dto.getAbsenceThreshold() != null ? dto.getAbsenceThreshold() : DEFAULT_ABSENCE_THRESHOLD;
+        if (dto.getEvents().contains(WebhookEventType.CONSECUTIVE_ABSENCES) && threshold < 1) {
+            throw new IllegalArgumentException("absenceThreshold debe ser mayor a 0");
+        }
+
+        WebhookSubscription saved = subscriptionRepository.save(WebhookSubscription.builder()
+                .organization(org)
+                .url(dto.getUrl())
+                .secret(dto.getSecret())
+                .events(EnumSet.copyOf(dto.getEvents()))
+                .absenceThreshold(threshold)
+                .active(dto.getActive() == null || dto.getActive())
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        webhookDispatcher.refreshSubscriptions();
+        return toDTO(saved);
+    }
+
+    @Override
+    public void delete(Long id, User requester) {
+        WebhookSubscription subscription = subscriptionRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Suscripción no encontrada"));
+
+        resolveOrganization(requester, subscription.getOrganization().getId());
+        subscriptionRepository.delete(subscription);
+        webhookDispatcher.refreshSubscriptions();
+    }
+
+    // 🧱 ADMIN solo opera sobre su organización; SUPER_ADMIN sobre cualquiera
+    private Long resolveOrganization(User requester, Long organizationId) {
+        if (requester.getRole() == Rol.SUPER_ADMIN) {
+            if (organizationId == null) {
+                throw new IllegalArgumentException("organizationId es obligatorio");
+            }
+            return organizationId;
+        }
+
+        if (requester.getRole() != Rol.ADMIN || requester.getOrganization() == null) {
+            throw new IllegalStateException("No tiene permisos para administrar webhooks");
+        }
+        Long own = requester.getOrganization().getId();
+        if (organizationId != null && !organizationId.equals(own)) {
+            throw new IllegalStateException("No puede administrar webhooks de otra organización");
+        }
+        return own;
+    }
+
+    private WebhookSubscriptionDTO toDTO(WebhookSubscription subscription) {
+        WebhookSubscriptionDTO dto = WebhookSubscriptionDTO.builder()
+                .id(subscription.getId())
+                .organizationId(subscription.getOrganization().getId())
+                .url(subscription.getUrl())
+                .events(subscription.getEvents())
+                .absenceThreshold(subscription.getAbsenceThreshold())
+                .active(subscription.isActive())
+                .createdAt(subscription.getCreatedAt())
+                .build();
+        webhookDispatcher.fillStatus(dto);
+        return dto;
+    }
+}
@@ -0,0 +1,376 @@
+package com.marcedev.attendance.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcedev.attendance.dto.AttendanceMarkDTO;
+import com.marcedev.attendance.dto.WebhookSubscriptionDTO;
+import com.marcedev.attendance.entities.WebhookSubscription;
+import com.marcedev.attendance.enums.WebhookEventType;
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import com.marcedev.attendance.repository.WebhookSubscriptionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🌐 Despacho de webhooks por organización.
+ * - El listener (después del commit) solo encola en una cola acotada: si está llena
+ *   el evento se descarta (métrica webhook.events.dropped), nunca bloquea la escritura.
+ * - Un ciclo programado agrupa los eventos por endpoint y envía un POST por lote
+ *   con el cliente HTTP asíncrono; como máximo un envío en vuelo por endpoint.
+ * - Reintentos con backoff exponencial (mismo lote, mismo X-Webhook-Delivery).
+ * - Circuit breaker por endpoint: tras N fallos seguidos se deja de enviar durante
+ *   un tiempo; luego se prueba con un lote (half-open).
+ * - Antes de cada envío se vuelve a validar la URL ({@link WebhookUrlValidator}) y no se
+ *   siguen redirecciones: un 3xx hacia una dirección interna cuenta como fallo.
+ */
+@Component
+public class WebhookDispatcher {
+
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final WebhookUrlValidator urlValidator;
+    private final HttpClient httpClient;
+
+    private final BlockingQueue<AttendanceChangedEvent> incoming;
+    private final int endpointBufferSize;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final long maxBackoffSeconds;
+    private final int failureThreshold;
+    private final long openSeconds;
+    private final Duration timeout;
+
+    private final Counter droppedEvents;
+    private final Counter deliveredBatches;
+    private final Counter failedBatches;
+    private final Counter abandonedBatches;
+
+    private final Map<Long, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile Map<Long, List<Endpoint>> endpointsByOrganization = Map.of();
+
+    public WebhookDispatcher(WebhookSubscriptionRepository subscriptionRepository,
+                             JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper,
+                             WebhookUrlValidator urlValidator,
+                             MeterRegistry registry,
+                             @Value("${webhooks.queue-capacity:10000}") int queueCapacity,
+                             @Value("${webhooks.endpoint-buffer:1000}") int endpointBufferSize,
+                             @Value("${webhooks.max-batch-size:100}") int maxBatchSize,
+                             @Value("${webhooks.max-attempts:8}") int maxAttempts,
+                             @Value("${webhooks.max-backoff-seconds:300}") long maxBackoffSeconds,
+                             @Value("${webhooks.circuit.failure-threshold:5}") int failureThreshold,
+                             @Value("${webhooks.circuit.open-seconds:60}") long openSeconds,
+                             @Value("${webhooks.timeout-ms:5000}") long timeoutMs) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.urlValidator = urlValidator;
+        this.incoming = new ArrayBlockingQueue<>(queueCapacity);
+        this.endpointBufferSize = endpointBufferSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        this.failureThreshold = failureThreshold;
+        this.openSeconds = openSeconds;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        this.droppedEvents = Counter.builder("webhook.events.dropped").register(registry);
+        this.deliveredBatches = Counter.builder("webhook.batches").tag("outcome", "delivered").register(registry);
+        this.failedBatches = Counter.builder("webhook.batches").tag("outcome", "failed").register(registry);
+        this.abandonedBatches = Counter.builder("webhook.batches").tag("outcome", "abandoned").register(registry);
+    }
+
+    // ================== ENTRADA ==================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        if (!endpointsByOrganization.containsKey(event.organizationId())) return;
+        if (!incoming.offer(event)) {
+            droppedEvents.increment();
+        }
+    }
+
+    // ================== CICLO DE ENVÍO ==================
+
+    @Scheduled(fixedDelayString = "${webhooks.flush-interval-ms:1000}")
+    public void flush() {
+        List<AttendanceChangedEvent> drained = new ArrayList<>();
+        incoming.drainTo(drained);
+
+        Map<String, Integer> streaks = new HashMap<>();
+        for (AttendanceChangedEvent event : drained) {
+            for (Endpoint endpoint : endpointsByOrganization.getOrDefault(event.organizationId(), List.of())) {
+                if (endpoint.events.contains(WebhookEventType.ROLL_CALL_SUBMITTED)) {
+                    endpoint.add(rollCallPayload(event));
+                }
+                if (endpoint.events.contains(WebhookEventType.CONSECUTIVE_ABSENCES)) {
+                    for (AttendanceMarkDTO mark : event.marks()) {
+                        if (mark.isPresent() || event.courseId() == null) continue;
+                        if (reachedAbsenceThreshold(mark.getUserId(), event.courseId(), endpoint.absenceThreshold, streaks)) {
+                            endpoint.add(absencesPayload(event, mark.getUserId(), endpoint.absenceThreshold));
+                        }
+                    }
+                }
+            }
+        }
+
+        Instant now = Instant.now();
+        endpoints.values().forEach(endpoint -> endpoint.trySend(now));
+    }
+
+    // 🔄 Recarga de suscripciones (también se llama al crear / borrar desde WebhookService)
+    @Scheduled(fixedDelayString = "${webhooks.refresh-interval-ms:30000}")
+    public synchronized void refreshSubscriptions() {
+        List<WebhookSubscription> active = subscriptionRepository.findByActiveTrue();
+
+        Set<Long> activeIds = new HashSet<>();
+        Map<Long, List<Endpoint>> byOrganization = new HashMap<>();
+        for (WebhookSubscription subscription : active) {
+            activeIds.add(subscription.getId());
+            Endpoint endpoint = endpoints.computeIfAbsent(subscription.getId(), id -> new Endpoint(id));
+            endpoint.update(subscription);
+            byOrganization.computeIfAbsent(endpoint.organizationId, id -> new ArrayList<>()).add(endpoint);
+        }
+        endpoints.keySet().retainAll(activeIds);
+        endpointsByOrganization = Map.copyOf(byOrganization);
+    }
+
+    /** Completa el estado de entrega de una suscripción (para el listado) */
+    public void fillStatus(WebhookSubscriptionDTO dto) {
+        Endpoint endpoint = endpoints.get(dto.getId());
+        if (endpoint != null) {
+            endpoint.fillStatus(dto);
+        }
+    }
+
+    // ================== EVENTOS ==================
+
+    private Map<String, Object> rollCallPayload(AttendanceChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", WebhookEventType.ROLL_CALL_SUBMITTED);
+        payload.put("classSessionId", event.classSessionId());
+        payload.put("courseId", event.courseId());
+        payload.put("marks", event.marks());
+        payload.put("occurredAt", event.changedAt());
+        return payload;
+    }
+
+    private Map<String, Object> absencesPayload(AttendanceChangedEvent event, Long studentId, int absences) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", WebhookEventType.CONSECUTIVE_ABSENCES);
+        payload.put("studentId", studentId);
+        payload.put("courseId", event.courseId());
+        payload.put("classSessionId", event.classSessionId());
+        payload.put("consecutiveAbsences", absences);
+        payload.put("occurredAt", event.changedAt());
+        return payload;
+    }
+
+    /**
+     * true solo cuando la racha llega exactamente a N (no se repite en N+1, N+2...).
+     * Lee las últimas N+1 clases del alumno en el curso, de la más nueva a la más vieja.
+     */
+    private boolean reachedAbsenceThreshold(Long studentId, Long courseId, int threshold, Map<String, Integer> cache) {
+        if (threshold <= 0) return false;
+
+        String key = studentId + ":" + courseId;
+        Integer streak = cache.computeIfAbsent(key, k -> {
+            List<Boolean> recent = jdbcTemplate.queryForList("""
+                    SELECT a.attended
+                    FROM attendances a
+                    JOIN classes c ON c.id = a.class_id
+                    WHERE a.student_id = ? AND a.course_id = ?
+                    ORDER BY c.date DESC, c.id DESC
+                    LIMIT ?
+                    """, Boolean.class, studentId, courseId, threshold + 1);
+            int count = 0;
+            for (Boolean attended : recent) {
+                if (Boolean.TRUE.equals(attended)) break;
+                count++;
+            }
+            return count;
+        });
+        return streak == threshold;
+    }
+
+    // ================== ENDPOINT ==================
+
+    private enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private record Batch(String id, List<Map<String, Object>> events) {
+    }
+
+    private final class Endpoint {
+        private final Long id;
+        private volatile Long organizationId;
+        private volatile String url;
+        private volatile String secret;
+        private volatile Set<WebhookEventType> events = Set.of();
+        private volatile int absenceThreshold;
+
+        private final Deque<Map<String, Object>> buffer = new ArrayDeque<>();
+        private Batch retryBatch;
+        private boolean inFlight;
+        private int attempts;
+        private int consecutiveFailures;
+        private Instant nextAttemptAt;
+        private Instant openUntil;
+        private String lastError;
+        private LocalDateTime lastDeliveryAt;
+
+        Endpoint(Long id) {
+            this.id = id;
+        }
+
+        void update(WebhookSubscription subscription) {
+            this.organizationId = subscription.getOrganization().getId();
+            this.url = subscription.getUrl();
+            this.secret = subscription.getSecret();
+            this.events = Set.copyOf(subscription.getEvents());
+            this.absenceThreshold = subscription.getAbsenceThreshold();
+        }
+
+        synchronized void add(Map<String, Object> event) {
+            if (buffer.size() >= endpointBufferSize) {
+                // ⚠️ Receptor caído o lento: se descarta lo más viejo
+                buffer.removeFirst();
+                droppedEvents.increment();
+            }
+            buffer.addLast(event);
+        }
+
+        void trySend(Instant now) {
+            Batch batch;
+            synchronized (this) {
+                if (inFlight) return;
+                if (nextAttemptAt != null && nextAttemptAt.isAfter(now)) return;
+                if (openUntil != null && openUntil.isAfter(now)) return;
+
+                if (retryBatch != null) {
+                    batch = retryBatch;
+                } else {
+                    if (buffer.isEmpty()) return;
+                    List<Map<String, Object>> events = new ArrayList<>(Math.min(buffer.size(), maxBatchSize));
+                    while (!buffer.isEmpty() && events.size() < maxBatchSize) {
+                        events.add(buffer.removeFirst());
+                    }
+                    batch = new Batch(UUID.randomUUID().toString(), events);
+                }
+                inFlight = true;
+            }
+
+            try {
+                // 🛡️ El DNS pudo cambiar desde el alta (rebinding): se valida en cada envío
+                URI target = urlValidator.validate(url);
+
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("subscriptionId", id);
+                body.put("organizationId", organizationId);
+                body.put("deliveryId", batch.id());
+                body.put("events", batch.events());
+                String json = objectMapper.writeValueAsString(body);
+
+                HttpRequest.Builder request = HttpRequest.newBuilder(target)
+                        .timeout(timeout)
+                        .header("Content-Type", "application/json")
+                        .header("X-Webhook-Delivery", batch.id())
+                        .POST(HttpRequest.BodyPublishers.ofString(json));
+                if (secret != null && !secret.isBlank()) {
+                    request.header("X-Webhook-Signature", "sha256=" + hmacSha256(secret, json));
+                }
+
+                httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            if (error == null && response.statusCode() / 100 == 2) {
+                                onSuccess();
+                            } else {
+                                onFailure(batch, error != null
+                                        ? error.getClass().getSimpleName() + ": " + error.getMessage()
+                                        : "HTTP " + response.statusCode());
+                            }
+                        });
+            } catch (Exception e) {
+                onFailure(batch, e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+
+        private synchronized void onSuccess() {
+            deliveredBatches.increment();
+            inFlight = false;
+            retryBatch = null;
+            attempts = 0;
+            consecutiveFailures = 0;
+            nextAttemptAt = null;
+            openUntil = null;
+            lastError = null;
+            lastDeliveryAt = LocalDateTime.now();
+        }
+
+        private synchronized void onFailure(Batch batch, String error) {
+            failedBatches.increment();
+            inFlight = false;
+            attempts++;
+            consecutiveFailures++;
+            lastError = error;
+
+            if (attempts >= maxAttempts) {
+                // ❌ Se abandona el lote; el circuito sigue contando fallos
+                abandonedBatches.increment();
+                retryBatch = null;
+                attempts = 0;
+                nextAttemptAt = null;
+            } else {
+                retryBatch = batch;
+                nextAttemptAt = Instant.now().plusSeconds(Math.min(maxBackoffSeconds, 1L << Math.min(attempts, 20)));
+            }
+
+            if (consecutiveFailures >= failureThreshold) {
+                openUntil = Instant.now().plusSeconds(openSeconds);
+            }
+        }
+
+        synchronized CircuitState circuitState() {
+            if (openUntil != null && openUntil.isAfter(Instant.now())) return CircuitState.OPEN;
+            if (consecutiveFailures >= failureThreshold) return CircuitState.HALF_OPEN;
+            return CircuitState.CLOSED;
+        }
+
+        synchronized void fillStatus(WebhookSubscriptionDTO dto) {
+            dto.setCircuitState(circuitState().name());
+            dto.setPendingEvents(buffer.size() + (retryBatch != null ? retryBatch.events().size() : 0));
+            dto.setLastError(lastError);
+            dto.setLastDeliveryAt(lastDeliveryAt);
+        }
+    }
+
+    private static String hmacSha256(String secret, String body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
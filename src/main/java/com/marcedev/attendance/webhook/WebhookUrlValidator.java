@@ -0,0 +1,79 @@
+package com.marcedev.attendance.webhook;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+
+/**
+ * 🛡️ Validación de URLs de webhooks (anti-SSRF).
+ * Un ADMIN de cualquier organización registra la URL y el servidor le hace POST desde
+ * adentro de la plataforma, así que se rechazan los hosts que resuelven a direcciones
+ * internas: loopback, privadas (RFC 1918 / fc00::/7), link-local (169.254.x.x, metadata
+ * de la nube), CGNAT, multicast y 0.0.0.0.
+ * Se valida al registrar y de nuevo antes de cada envío (DNS rebinding); el cliente HTTP
+ * usa el mismo cache de DNS de la JVM, así que conecta a la dirección ya validada.
+ * webhooks.allow-private-addresses=true solo para desarrollo y tests.
+ */
+@Component
+public class WebhookUrlValidator {
+
+    private final boolean allowPrivateAddresses;
+
+    public WebhookUrlValidator(@Value("${webhooks.allow-private-addresses:false}") boolean allowPrivateAddresses) {
+        this.allowPrivateAddresses = allowPrivateAddresses;
+    }
+
+    /** @throws IllegalArgumentException si la URL no es http(s) o apunta a una dirección interna */
+    public URI validate(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("URL inválida: " + url);
+        }
+        if (!"https".equalsIgnoreCase(uri.getScheme()) && !"http".equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException("La URL debe ser http(s)");
+        }
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("La URL no tiene host");
+        }
+        if (uri.getUserInfo() != null) {
+            throw new IllegalArgumentException("La URL no puede incluir usuario y contraseña");
+        }
+
+        if (!allowPrivateAddresses) {
+            InetAddress[] addresses;
+            try {
+                addresses = InetAddress.getAllByName(uri.getHost());
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException("No se pudo resolver el host " + uri.getHost());
+            }
+            for (InetAddress address : addresses) {
+                if (isInternal(address)) {
+                    throw new IllegalArgumentException("La URL apunta a una dirección no permitida: " + address.getHostAddress());
+                }
+            }
+        }
+        return uri;
+    }
+
+    static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isAnyLocalAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] ip = address.getAddress();
+        if (ip.length == 4) {
+            int first = ip[0] & 0xFF;
+            int second = ip[1] & 0xFF;
+            return first == 0                                       // 0.0.0.0/8
+                    || (first == 100 && second >= 64 && second < 128) // 100.64.0.0/10 (CGNAT)
+                    || (first == 192 && second == 0 && (ip[2] & 0xFF) == 0) // 192.0.0.0/24
+                    || first >= 240;                                // reservadas y broadcast
+        }
+        return (ip[0] & 0xFE) == 0xFC; // fc00::/7 (unique local)
+    }
+}
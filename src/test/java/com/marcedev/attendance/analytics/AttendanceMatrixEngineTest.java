@@ -0,0 +1,110 @@
+package com.marcedev.attendance.analytics;
+
+import com.marcedev.attendance.archive.ColdArchiveStore;
+import com.marcedev.attendance.archive.CourseMonthSnapshot;
+import com.marcedev.attendance.dto.CourseAttendanceRateDTO;
+import com.marcedev.attendance.dto.CourseMonthlyAttendanceDTO;
+import com.marcedev.attendance.repository.AttendanceArchiveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Carga de la matriz: las marcas de attendances_archive y del archivo en frío
+ * cuentan igual que las de attendances.
+ */
+class AttendanceMatrixEngineTest {
+
+    private static final LocalDate COLD_DAY = LocalDate.of(2022, 3, 7);
+    private static final LocalDate ARCHIVED_DAY = LocalDate.of(2023, 3, 6);
+    private static final LocalDate LIVE_DAY = LocalDate.of(2025, 3, 3);
+
+    @TempDir
+    Path coldDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private AttendanceArchiveRepository archiveRepository;
+    private AttendanceMatrixEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        archiveRepository = mock(AttendanceArchiveRepository.class);
+        when(archiveRepository.exists()).thenReturn(true);
+
+        ColdArchiveStore coldStore = new ColdArchiveStore(coldDir.toString());
+        coldStore.write(CourseMonthSnapshot.merge(null, 7L, 3L, YearMonth.from(COLD_DAY),
+                List.of(new CourseMonthSnapshot.Session(11L, COLD_DAY)),
+                List.of(new CourseMonthSnapshot.Mark(1L, 11L, COLD_DAY, true),
+                        new CourseMonthSnapshot.Mark(2L, 11L, COLD_DAY, false))));
+
+        when(jdbcTemplate.queryForList(contains("FROM courses"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(7L));
+        rows("FROM user_courses", new Object[]{1L, "Ana", "ana@escuela.com"}, new Object[]{2L, "Beto", "beto@escuela.com"});
+        rows("FROM classes", new Object[]{11L, COLD_DAY}, new Object[]{12L, ARCHIVED_DAY}, new Object[]{13L, LIVE_DAY});
+        rows("FROM attendances_archive", new Object[]{1L, ARCHIVED_DAY, true});
+        rows("FROM attendances a", new Object[]{1L, LIVE_DAY, false});
+
+        engine = new AttendanceMatrixEngine(jdbcTemplate, archiveRepository, coldStore, 10, 100);
+    }
+
+    // Cada fila se entrega al RowCallbackHandler de la consulta cuyo SQL contiene el fragmento
+    private void rows(String sqlFragment, Object[]... rows) throws Exception {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (Object[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                for (int i = 0; i < row.length; i++) {
+                    Object value = row[i];
+                    if (value instanceof Long l) when(rs.getLong(i + 1)).thenReturn(l);
+                    if (value instanceof String s) when(rs.getString(i + 1)).thenReturn(s);
+                    if (value instanceof LocalDate d) when(rs.getDate(i + 1)).thenReturn(Date.valueOf(d));
+                    if (value instanceof Boolean b) when(rs.getBoolean(i + 1)).thenReturn(b);
+                }
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains(sqlFragment), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void statsIncludeAcademicYearArchiveAndColdMonths() {
+        List<CourseMonthlyAttendanceDTO> stats = engine.matrix(3L).stats(COLD_DAY, LIVE_DAY.plusDays(1));
+
+        assertThat(stats).extracting(CourseMonthlyAttendanceDTO::getStudentId).containsExactly(1L, 2L);
+        assertThat(stats).extracting(CourseMonthlyAttendanceDTO::getPresent).containsExactly(2L, 0L);
+        assertThat(stats).extracting(CourseMonthlyAttendanceDTO::getTotalClasses).containsOnly(3L);
+    }
+
+    @Test
+    void rateCountsArchivedAbsencesToo() {
+        CourseAttendanceRateDTO rate = engine.matrix(3L).rate(COLD_DAY, LIVE_DAY.plusDays(1));
+
+        assertThat(rate.getPresent()).isEqualTo(2L);
+        assertThat(rate.getAbsent()).isEqualTo(2L);
+        assertThat(rate.getRate()).isEqualTo(50.0);
+    }
+
+    @Test
+    void withoutTheArchiveTableOnlyLiveAndColdMarksAreLoaded() {
+        when(archiveRepository.exists()).thenReturn(false);
+
+        List<CourseMonthlyAttendanceDTO> stats = engine.matrix(3L).stats(COLD_DAY, LIVE_DAY.plusDays(1));
+
+        assertThat(stats).extracting(CourseMonthlyAttendanceDTO::getPresent).containsExactly(1L, 0L);
+        verify(jdbcTemplate, never()).query(contains("FROM attendances_archive"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+}
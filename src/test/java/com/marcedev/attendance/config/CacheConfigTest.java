@@ -0,0 +1,51 @@
+package com.marcedev.attendance.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTest {
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Cache wrappedCache() {
+        CacheManager manager = (CacheManager) CacheConfig.transactionAwareCacheManager()
+                .postProcessAfterInitialization(new ConcurrentMapCacheManager(CacheConfig.COURSE_LISTS), "cacheManager");
+        Cache cache = manager.getCache(CacheConfig.COURSE_LISTS);
+        cache.put("all", "lista vieja");
+        return cache;
+    }
+
+    @Test
+    void evictInsideTransactionIsAppliedAfterCommit() {
+        Cache cache = wrappedCache();
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.clear();
+        assertThat(cache.get("all")).isNotNull();
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        assertThat(cache.get("all")).isNull();
+    }
+
+    @Test
+    void evictWithoutTransactionIsImmediate() {
+        Cache cache = wrappedCache();
+
+        cache.evict("all");
+        assertThat(cache.get("all")).isNull();
+    }
+}
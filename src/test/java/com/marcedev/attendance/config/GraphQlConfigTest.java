@@ -0,0 +1,47 @@
+package com.marcedev.attendance.config;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GraphQlConfigTest {
+
+    private static GraphQL graphQl() throws IOException {
+        try (Reader reader = new InputStreamReader(
+                new ClassPathResource("graphql/schema.graphqls").getInputStream(), StandardCharsets.UTF_8)) {
+            GraphQLSchema schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(new SchemaParser().parse(reader));
+            return GraphQL.newGraphQL(schema)
+                    .instrumentation(new MaxQueryComplexityInstrumentation(1000, GraphQlConfig.listWeightedComplexity(10)))
+                    .build();
+        }
+    }
+
+    private static boolean rejectedByComplexity(ExecutionResult result) {
+        return result.getErrors().stream().anyMatch(e -> e.getMessage().contains("complexity"));
+    }
+
+    @Test
+    void oneNestedListPerLevelIsAccepted() throws IOException {
+        ExecutionResult result = graphQl().execute("{ courses { name students { fullName } classes { date } } }");
+        assertThat(rejectedByComplexity(result)).isFalse();
+    }
+
+    @Test
+    void listsNestedThreeLevelsDeepAreRejected() throws IOException {
+        ExecutionResult result = graphQl().execute(
+                "{ courses { classes { attendances { attended student { fullName } } } } }");
+        assertThat(rejectedByComplexity(result)).isTrue();
+    }
+}
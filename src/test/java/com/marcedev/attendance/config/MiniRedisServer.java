@@ -0,0 +1,237 @@
+package com.marcedev.attendance.config;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.regex.Pattern;
+
+/**
+ * Servidor mínimo compatible con el protocolo de Redis (RESP2) para tests.
+ * Implementa solo lo que usan el cache de dos niveles y su invalidación:
+ * GET, SET, DEL, KEYS, PUBLISH, SUBSCRIBE, UNSUBSCRIBE, PING y CLIENT.
+ * HELLO responde "unknown command" para que Lettuce baje a RESP2.
+ */
+class MiniRedisServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, byte[]> store = new ConcurrentHashMap<>();
+    private final Map<String, Set<Client>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Client> clients = new CopyOnWriteArraySet<>();
+
+    MiniRedisServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "mini-redis-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    Set<String> keys() {
+        return store.keySet();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Client client : clients) client.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Client client = new Client(serverSocket.accept());
+                clients.add(client);
+                Thread thread = new Thread(client, "mini-redis-client");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private final class Client implements Runnable, Closeable {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Client(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<byte[]> command;
+                while ((command = readCommand()) != null) {
+                    handle(command);
+                }
+            } catch (IOException ignored) {
+                // conexión cerrada
+            } finally {
+                subscribers.values().forEach(s -> s.remove(this));
+                clients.remove(this);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        private void handle(List<byte[]> args) throws IOException {
+            String name = str(args.get(0)).toUpperCase();
+            synchronized (out) {
+                switch (name) {
+                    case "PING" -> simple("PONG");
+                    case "CLIENT", "SELECT" -> simple("OK");
+                    case "GET" -> bulk(store.get(str(args.get(1))));
+                    case "SET" -> {
+                        store.put(str(args.get(1)), args.get(2));
+                        simple("OK");
+                    }
+                    case "DEL" -> {
+                        int removed = 0;
+                        for (int i = 1; i < args.size(); i++) {
+                            if (store.remove(str(args.get(i))) != null) removed++;
+                        }
+                        integer(removed);
+                    }
+                    case "KEYS" -> {
+                        Pattern pattern = glob(str(args.get(1)));
+                        List<byte[]> keys = new ArrayList<>();
+                        store.keySet().stream().filter(k -> pattern.matcher(k).matches())
+                                .forEach(k -> keys.add(k.getBytes(StandardCharsets.UTF_8)));
+                        array(keys);
+                    }
+                    case "SUBSCRIBE" -> {
+                        for (int i = 1; i < args.size(); i++) {
+                            String channel = str(args.get(i));
+                            subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArraySet<>()).add(this);
+                            push("subscribe", channel, i);
+                        }
+                    }
+                    case "UNSUBSCRIBE" -> {
+                        for (int i = 1; i < args.size(); i++) {
+                            String channel = str(args.get(i));
+                            Set<Client> set = subscribers.get(channel);
+                            if (set != null) set.remove(this);
+                            push("unsubscribe", channel, 0);
+                        }
+                    }
+                    case "PUBLISH" -> {
+                        Set<Client> targets = subscribers.getOrDefault(str(args.get(1)), Set.of());
+                        for (Client target : targets) {
+                            target.message(args.get(1), args.get(2));
+                        }
+                        integer(targets.size());
+                    }
+                    default -> error("ERR unknown command '" + name + "'");
+                }
+                out.flush();
+            }
+        }
+
+        private void message(byte[] channel, byte[] payload) throws IOException {
+            synchronized (out) {
+                out.write("*3\r\n".getBytes(StandardCharsets.UTF_8));
+                bulk("message".getBytes(StandardCharsets.UTF_8));
+                bulk(channel);
+                bulk(payload);
+                out.flush();
+            }
+        }
+
+        private void push(String kind, String channel, int count) throws IOException {
+            out.write("*3\r\n".getBytes(StandardCharsets.UTF_8));
+            bulk(kind.getBytes(StandardCharsets.UTF_8));
+            bulk(channel.getBytes(StandardCharsets.UTF_8));
+            integer(count);
+        }
+
+        private List<byte[]> readCommand() throws IOException {
+            String header = readLine();
+            if (header == null) return null;
+            if (!header.startsWith("*")) throw new IOException("Comando inline no soportado: " + header);
+
+            int count = Integer.parseInt(header.substring(1));
+            List<byte[]> args = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = Integer.parseInt(readLine().substring(1));
+                byte[] data = in.readNBytes(length);
+                in.readNBytes(2); // \r\n
+                args.add(data);
+            }
+            return args;
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\r') {
+                    in.read(); // \n
+                    return line.toString(StandardCharsets.UTF_8);
+                }
+                line.write(b);
+            }
+            return null;
+        }
+
+        private void simple(String value) throws IOException {
+            out.write(("+" + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void error(String message) throws IOException {
+            out.write(("-" + message + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void integer(long value) throws IOException {
+            out.write((":" + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void bulk(byte[] value) throws IOException {
+            if (value == null) {
+                out.write("$-1\r\n".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+            out.write(value);
+            out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void array(List<byte[]> values) throws IOException {
+            out.write(("*" + values.size() + "\r\n").getBytes(StandardCharsets.UTF_8));
+            for (byte[] value : values) bulk(value);
+        }
+    }
+
+    private static String str(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,148 @@
+package com.marcedev.attendance.config;
+
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Ruteo primario / réplica con el mismo armado que ReplicaDataSourceConfig
+ * (LazyConnectionDataSourceProxy → ReplicaRoutingDataSource) sobre dos datasources
+ * que anotan qué pool entregó cada conexión física.
+ */
+class ReplicaRoutingTest {
+
+    private final List<String> opened = new ArrayList<>();
+    private long replicaLagSeconds;
+
+    private ReplicaRouting routing;
+    private ReplicaLagMonitor lagMonitor;
+    private DataSource dataSource;
+    private TransactionTemplate readWriteTx;
+    private TransactionTemplate readOnlyTx;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        routing = new ReplicaRouting("jdbc:mysql://replica/attendance", 10);
+        DataSource primary = pool("primary");
+        DataSource replica = pool("replica");
+        dataSource = new ReplicaDataSourceConfig(routing).dataSource(primary, replica);
+        lagMonitor = new ReplicaLagMonitor(replica, routing, 5, new SimpleMeterRegistry());
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        replicaLagSeconds = 0;
+        lagMonitor.checkLag();
+        opened.clear(); // la conexión del chequeo de lag no cuenta
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Pool falso: cada conexión física queda anotada; SHOW REPLICA STATUS devuelve replicaLagSeconds
+    private DataSource pool(String name) throws SQLException {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(inv -> {
+            opened.add(name);
+            Connection connection = mock(Connection.class);
+            Statement statement = mock(Statement.class);
+            ResultSet status = mock(ResultSet.class);
+            when(connection.createStatement()).thenReturn(statement);
+            when(connection.getAutoCommit()).thenReturn(true);
+            when(statement.executeQuery(anyString())).thenReturn(status);
+            when(status.next()).thenReturn(true);
+            when(status.getLong(anyString())).thenAnswer(i -> replicaLagSeconds);
+            return connection;
+        });
+        return pool;
+    }
+
+    // Usa la conexión de la transacción (o una suelta): recién ahí el proxy elige el pool
+    private void query() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            connection.createStatement();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void loginAs(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+        readOnlyTx.executeWithoutResult(status -> query());
+        readWriteTx.executeWithoutResult(status -> query());
+
+        assertThat(opened).containsExactly("replica", "primary");
+    }
+
+    @Test
+    void exportsOutsideTransactionsGoToTheReplica() {
+        routing.onReplica(this::query);
+        query();
+
+        assertThat(opened).containsExactly("replica", "primary");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimaryUntilItCatchesUp() {
+        replicaLagSeconds = 30;
+        lagMonitor.checkLag();
+        opened.clear();
+
+        readOnlyTx.executeWithoutResult(status -> query());
+        routing.onReplica(this::query);
+        assertThat(opened).containsExactly("primary", "primary");
+
+        replicaLagSeconds = 1;
+        lagMonitor.checkLag();
+        opened.clear();
+
+        readOnlyTx.executeWithoutResult(status -> query());
+        assertThat(opened).containsExactly("replica");
+    }
+
+    @Test
+    void userWhoJustTookAttendanceReadsTheirWritesFromThePrimary() {
+        loginAs("profe@escuela.com");
+        routing.onAttendanceChanged(new AttendanceChangedEvent(1L, 2L, 3L, List.of(), LocalDateTime.now()));
+
+        readOnlyTx.executeWithoutResult(status -> query());
+        routing.onReplica(this::query);
+
+        loginAs("otro@escuela.com");
+        readOnlyTx.executeWithoutResult(status -> query());
+
+        assertThat(opened).containsExactly("primary", "primary", "replica");
+    }
+}
@@ -0,0 +1,108 @@
+package com.marcedev.attendance.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Cache de dos niveles con dos "nodos" (dos RedisCacheConfig, cada uno con su L1)
+ * contra un servidor compatible con Redis embebido: lo que escribe o invalida un
+ * nodo tiene que dejar de servirse desde el L1 del otro.
+ */
+class TwoLevelCacheRedisTest {
+
+    private MiniRedisServer server;
+    private final List<LettuceConnectionFactory> factories = new ArrayList<>();
+    private final List<RedisMessageListenerContainer> containers = new ArrayList<>();
+
+    private Cache nodeA;
+    private Cache nodeB;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MiniRedisServer();
+        nodeA = startNode().getCache(CacheConfig.COURSE_LISTS);
+        nodeB = startNode().getCache(CacheConfig.COURSE_LISTS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        containers.forEach(RedisMessageListenerContainer::stop);
+        factories.forEach(LettuceConnectionFactory::destroy);
+        server.close();
+    }
+
+    @Test
+    void readsFallBackToTheSharedLevel() {
+        nodeA.put("org:1", list("Jiu-Jitsu Adultos"));
+
+        assertThat(server.keys()).anyMatch(k -> k.startsWith("attendance:" + CacheConfig.COURSE_LISTS));
+        assertThat(nodeB.get("org:1", List.class)).containsExactly("Jiu-Jitsu Adultos");
+    }
+
+    @Test
+    void putOnOneNodeInvalidatesTheOtherL1() {
+        nodeA.put("org:1", list("v1"));
+        assertThat(nodeB.get("org:1", List.class)).containsExactly("v1"); // queda en el L1 de B
+
+        nodeA.put("org:1", list("v2"));
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(nodeB.get("org:1", List.class)).containsExactly("v2"));
+    }
+
+    @Test
+    void evictAndClearOnOneNodeInvalidateTheOtherL1() {
+        nodeA.put("org:1", list("v1"));
+        nodeA.put("org:2", list("v1"));
+        assertThat(nodeB.get("org:1")).isNotNull();
+        assertThat(nodeB.get("org:2")).isNotNull();
+
+        nodeA.evict("org:1");
+        await().atMost(Duration.ofSeconds(5)).until(() -> nodeB.get("org:1") == null);
+        assertThat(nodeB.get("org:2")).isNotNull();
+
+        nodeA.clear();
+        await().atMost(Duration.ofSeconds(5)).until(() -> nodeB.get("org:2") == null);
+    }
+
+    // Como en los servicios: lista mutable (List.of no lleva tipo en el JSON de Redis)
+    private static List<String> list(String value) {
+        return new ArrayList<>(List.of(value));
+    }
+
+    private CacheManager startNode() throws Exception {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("localhost", server.port()));
+        factory.afterPropertiesSet();
+        factory.start();
+        factories.add(factory);
+
+        StringRedisTemplate template = new StringRedisTemplate(factory);
+        template.afterPropertiesSet();
+
+        RedisCacheConfig config = new RedisCacheConfig();
+        CacheManager cacheManager = config.cacheManager(factory, template, new SimpleMeterRegistry(),
+                "maximumSize=100,expireAfterWrite=10m", Duration.ofMinutes(30));
+
+        RedisMessageListenerContainer container = config.cacheInvalidationListener(factory);
+        container.afterPropertiesSet();
+        container.start();
+        containers.add(container);
+        return cacheManager;
+    }
+}
@@ -0,0 +1,283 @@
+package com.marcedev.attendance.controller;
+
+import jakarta.persistence.Entity;
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.Handle;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los controllers devuelven DTOs: ninguna entidad JPA puede llegar al serializador.
+ * - Tipos declarados: se recorre el tipo de retorno (genéricos y campos de los DTOs).
+ * - ResponseEntity&lt;?&gt;: se lee el bytecode y se revisa el valor que recibe
+ *   ResponseEntity.ok / body / of (también como method reference).
+ */
+class ControllerEntityExposureTest {
+
+    private static final String BASE_PACKAGE = "com.marcedev.attendance";
+    private static final String RESPONSE_ENTITY = "org/springframework/http/ResponseEntity";
+    private static final Pattern CLASS_IN_SIGNATURE = Pattern.compile("L([\\w/$]+)[;<]");
+
+    @Test
+    void handlerReturnTypesDoNotExposeEntities() throws ClassNotFoundException {
+        List<String> violations = new ArrayList<>();
+        for (Class<?> controller : controllers()) {
+            for (Method method : controller.getDeclaredMethods()) {
+                if (!isHandler(method)) continue;
+                if (exposesEntity(method.getGenericReturnType(), new HashSet<>())) {
+                    violations.add(controller.getSimpleName() + "." + method.getName()
+                            + " -> " + method.getGenericReturnType().getTypeName());
+                }
+            }
+        }
+        assertThat(violations).as("endpoints que devuelven entidades JPA").isEmpty();
+    }
+
+    @Test
+    void responseBodiesDoNotExposeEntities() throws ClassNotFoundException, IOException {
+        List<String> violations = new ArrayList<>();
+        for (Class<?> controller : controllers()) {
+            String resource = controller.getName().replace('.', '/') + ".class";
+            try (InputStream in = controller.getClassLoader().getResourceAsStream(resource)) {
+                new ClassReader(in).accept(new ClassVisitor(Opcodes.ASM9) {
+                    @Override
+                    public MethodVisitor visitMethod(int access, String name, String descriptor,
+                                                     String signature, String[] exceptions) {
+                        return new BodyScanner(controller.getSimpleName() + "." + name, violations);
+                    }
+                }, 0);
+            }
+        }
+        assertThat(violations).as("cuerpos de respuesta con entidades JPA").isEmpty();
+    }
+
+    @Test
+    void detectsEntitiesNestedInGenericsAndDtoFields() {
+        record Wrapper(String name, Optional<List<Sample>> samples) {}
+        assertThat(exposesEntity(Sample.class, new HashSet<>())).isTrue();
+        assertThat(exposesEntity(Wrapper.class, new HashSet<>())).isTrue();
+        assertThat(exposesEntity(String.class, new HashSet<>())).isFalse();
+    }
+
+    @Entity
+    private static class Sample {
+    }
+
+    // ================== HELPERS ==================
+
+    private static List<Class<?>> controllers() throws ClassNotFoundException {
+        var scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Controller.class)); // incluye @RestController
+        List<Class<?>> result = new ArrayList<>();
+        for (BeanDefinition bd : scanner.findCandidateComponents(BASE_PACKAGE)) {
+            result.add(Class.forName(bd.getBeanClassName()));
+        }
+        assertThat(result).as("controllers escaneados").isNotEmpty();
+        return result;
+    }
+
+    private static boolean isHandler(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class)
+                || AnnotatedElementUtils.hasAnnotation(method, SchemaMapping.class)
+                || AnnotatedElementUtils.hasAnnotation(method, BatchMapping.class);
+    }
+
+    static boolean exposesEntity(Type type, Set<Type> visited) {
+        if (!visited.add(type)) return false;
+        if (type instanceof ParameterizedType p) {
+            if (exposesEntity(p.getRawType(), visited)) return true;
+            for (Type arg : p.getActualTypeArguments()) {
+                if (exposesEntity(arg, visited)) return true;
+            }
+            return false;
+        }
+        if (type instanceof WildcardType w) {
+            return Arrays.stream(w.getUpperBounds()).anyMatch(b -> exposesEntity(b, visited));
+        }
+        if (type instanceof TypeVariable<?> v) {
+            return Arrays.stream(v.getBounds()).anyMatch(b -> exposesEntity(b, visited));
+        }
+        if (type instanceof GenericArrayType a) {
+            return exposesEntity(a.getGenericComponentType(), visited);
+        }
+        if (!(type instanceof Class<?> c)) return false;
+        if (c.isArray()) return exposesEntity(c.getComponentType(), visited);
+        if (c.isAnnotationPresent(Entity.class)) return true;
+        // Solo se entra en los DTOs propios; JDK y librerías se ven por sus genéricos
+        if (c.isEnum() || !c.getName().startsWith(BASE_PACKAGE)) return false;
+        for (Class<?> k = c; k != null && k != Object.class; k = k.getSuperclass()) {
+            for (Field field : k.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) continue;
+                if (exposesEntity(field.getGenericType(), visited)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean signatureExposesEntity(String signature) {
+        Matcher m = CLASS_IN_SIGNATURE.matcher(signature);
+        while (m.find()) {
+            try {
+                Class<?> c = Class.forName(m.group(1).replace('/', '.'), false,
+                        ControllerEntityExposureTest.class.getClassLoader());
+                if (exposesEntity(c, new HashSet<>())) return true;
+            } catch (ClassNotFoundException ignored) {
+                // tipos que no están en el classpath de test no son entidades nuestras
+            }
+        }
+        return false;
+    }
+
+    private static Type genericReturnType(String owner, String name, String descriptor) {
+        try {
+            Class<?> c = Class.forName(owner.replace('/', '.'), false, ControllerEntityExposureTest.class.getClassLoader());
+            Deque<Class<?>> pending = new ArrayDeque<>(List.of(c));
+            while (!pending.isEmpty()) {
+                Class<?> k = pending.poll();
+                for (Method m : k.getDeclaredMethods()) {
+                    if (m.getName().equals(name) && org.springframework.asm.Type.getMethodDescriptor(m).equals(descriptor)) {
+                        return m.getGenericReturnType();
+                    }
+                }
+                if (k.getSuperclass() != null) pending.add(k.getSuperclass());
+                pending.addAll(List.of(k.getInterfaces()));
+            }
+        } catch (ClassNotFoundException ignored) {
+            // idem
+        }
+        return Object.class;
+    }
+
+    /**
+     * Sigue la última instrucción que dejó un valor en la pila: llamada (tipo de retorno genérico)
+     * o carga de variable local (firma genérica de la LocalVariableTypeTable, resuelta al final).
+     */
+    private static final class BodyScanner extends MethodVisitor {
+
+        private record Load(int slot, int position) {}
+
+        private final String where;
+        private final List<String> violations;
+        private final Map<Label, Integer> labels = new HashMap<>();
+        private final List<Load> bodyLoads = new ArrayList<>();
+        private int position;
+        private Object producer; // Type de una llamada, Load de una variable, o null
+
+        BodyScanner(String where, List<String> violations) {
+            super(Opcodes.ASM9);
+            this.where = where;
+            this.violations = violations;
+        }
+
+        @Override
+        public void visitLabel(Label label) {
+            labels.put(label, position);
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int varIndex) {
+            position++;
+            producer = opcode == Opcodes.ALOAD ? new Load(varIndex, position) : null;
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            position++;
+            if (opcode != Opcodes.CHECKCAST) producer = null; // un cast no cambia el valor
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            position++;
+            boolean body = owner.startsWith(RESPONSE_ENTITY)
+                    && (name.equals("ok") || name.equals("body") || name.equals("of"))
+                    && org.springframework.asm.Type.getArgumentTypes(descriptor).length == 1;
+            if (body) check();
+            producer = genericReturnType(owner, name, descriptor);
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bsm, Object... bsmArgs) {
+            position++;
+            // ResponseEntity::ok sobre un Optional / Stream: el receptor es el valor anterior
+            for (Object arg : bsmArgs) {
+                if (arg instanceof Handle h && h.getOwner().equals(RESPONSE_ENTITY) && h.getName().equals("ok")) {
+                    check();
+                }
+            }
+            producer = null;
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            position++;
+            producer = null;
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            position++;
+            producer = null;
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            position++;
+            producer = null;
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            position++;
+            producer = null;
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            position++;
+            producer = null;
+        }
+
+        private void check() {
+            if (producer instanceof Type type && exposesEntity(type, new HashSet<>())) {
+                violations.add(where + " -> " + type.getTypeName());
+            } else if (producer instanceof Load load) {
+                bodyLoads.add(load);
+            }
+        }
+
+        @Override
+        public void visitLocalVariable(String name, String descriptor, String signature,
+                                       Label start, Label end, int index) {
+            Integer from = labels.get(start);
+            Integer to = labels.get(end);
+            for (Load load : bodyLoads) {
+                if (load.slot() != index || from == null || to == null
+                        || load.position() < from || load.position() > to) continue;
+                if (signatureExposesEntity(signature != null ? signature : descriptor)) {
+                    violations.add(where + " -> variable '" + name + "' " + (signature != null ? signature : descriptor));
+                }
+            }
+        }
+    }
+}
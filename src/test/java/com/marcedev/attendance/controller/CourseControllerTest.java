@@ -0,0 +1,83 @@
+package com.marcedev.attendance.controller;
+
+import com.marcedev.attendance.dto.BulkEnrollmentResultDTO;
+import com.marcedev.attendance.entities.Organization;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.mapper.CourseMapper;
+import com.marcedev.attendance.mapper.UserMapper;
+import com.marcedev.attendance.repository.CourseRepository;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.service.AttendanceStreakService;
+import com.marcedev.attendance.service.CourseService;
+import com.marcedev.attendance.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Inscripción masiva: el permiso sobre el curso se resuelve con organization_id,
+ * sin cargar el curso con sus clases.
+ */
+class CourseControllerTest {
+
+    private CourseService courseService;
+    private CourseRepository courseRepository;
+    private CourseController controller;
+
+    @BeforeEach
+    void setUp() {
+        courseService = mock(CourseService.class);
+        courseRepository = mock(CourseRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        controller = new CourseController(courseService, courseRepository, mock(UserService.class), userRepository,
+                mock(CourseMapper.class), mock(UserMapper.class), mock(AttendanceStreakService.class));
+
+        User admin = User.builder().id(1L).email("admin@escuela.com").role(Rol.ADMIN)
+                .organization(Organization.builder().id(7L).build()).build();
+        when(userRepository.findByEmail("admin@escuela.com")).thenReturn(Optional.of(admin));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin@escuela.com", null, List.of()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void bulkEnrollmentInOwnOrganizationOnlyReadsTheOrganizationId() {
+        when(courseRepository.findOrganizationIdById(3L)).thenReturn(Optional.of(7L));
+        when(courseService.addStudentsToCourse(3L, List.of(10L, 11L))).thenReturn(BulkEnrollmentResultDTO.builder().courseId(3L).requested(2).enrolled(2).build());
+
+        assertThat(controller.addStudentsBulk(3L, List.of(10L, 11L)).getStatusCode().value()).isEqualTo(200);
+        verify(courseService, never()).findById(anyLong());
+    }
+
+    @Test
+    void courseOfAnotherOrganizationIsForbidden() {
+        when(courseRepository.findOrganizationIdById(3L)).thenReturn(Optional.of(8L));
+
+        assertThat(controller.addStudentsBulk(3L, List.of(10L)).getStatusCode().value()).isEqualTo(403);
+        verify(courseService, never()).addStudentsToCourse(anyLong(), anyList());
+    }
+
+    @Test
+    void courseWithoutOrganizationIsForbiddenAndUnknownCourseIsNotFound() {
+        when(courseRepository.findOrganizationIdById(anyLong())).thenReturn(Optional.empty());
+        when(courseRepository.existsById(3L)).thenReturn(true);
+
+        assertThat(controller.addStudentsBulk(3L, List.of(10L)).getStatusCode().value()).isEqualTo(403);
+        assertThat(controller.addStudentsBulk(4L, List.of(10L)).getStatusCode().value()).isEqualTo(404);
+        verify(courseService, never()).addStudentsToCourse(anyLong(), anyList());
+    }
+}
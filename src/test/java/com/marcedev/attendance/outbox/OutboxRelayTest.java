@@ -0,0 +1,101 @@
+package com.marcedev.attendance.outbox;
+
+import com.marcedev.attendance.dto.OutboxMessageDTO;
+import com.marcedev.attendance.entities.OutboxEvent;
+import com.marcedev.attendance.enums.OutboxEventType;
+import com.marcedev.attendance.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository repository;
+    private JdbcTemplate jdbcTemplate;
+    private final List<Long> delivered = new ArrayList<>();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        OutboxSink sink = new OutboxSink() {
+            @Override
+            public String getName() {
+                return "test";
+            }
+
+            @Override
+            public void publish(OutboxMessageDTO message) {
+                if (message.getId() == 1L) throw new IllegalStateException("consumidor caído");
+                delivered.add(message.getId());
+            }
+        };
+        jdbcTemplate = mock(JdbcTemplate.class);
+        relay = new OutboxRelay(repository, List.of(sink), jdbcTemplate);
+        ReflectionTestUtils.setField(relay, "batchSize", 200);
+        ReflectionTestUtils.setField(relay, "maxBackoffSeconds", 600L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+    }
+
+    @Test
+    void failingEventHoldsBackOnlyItsOwnSession() {
+        when(repository.findReady(any(), any(Pageable.class)))
+                .thenReturn(List.of(event(1L, 10L, 0), event(2L, 10L, 0), event(3L, 20L, 0)));
+
+        relay.relayBatch();
+
+        assertThat(delivered).containsExactly(3L);
+        verify(repository).markFailed(eq(1L), any(LocalDateTime.class), contains("consumidor caído"));
+        verify(repository).markPublished(eq(List.of(3L)), any());
+        verify(repository, never()).markDead(any(), any(), any());
+    }
+
+    @Test
+    void eventIsDeadAfterMaxAttempts() {
+        when(repository.findReady(any(), any(Pageable.class)))
+                .thenReturn(List.of(event(1L, 10L, 2)));
+
+        relay.relayBatch();
+
+        verify(repository).markDead(eq(1L), any(LocalDateTime.class), contains("consumidor caído"));
+        verify(repository, never()).markFailed(any(), any(), any());
+    }
+
+    @Test
+    void purgeDeletesOldDeadEventsWithTheirOwnRetention() {
+        ReflectionTestUtils.setField(relay, "retentionDays", 7);
+        ReflectionTestUtils.setField(relay, "deadRetentionDays", 30);
+        ReflectionTestUtils.setField(relay, "retentionChunkSize", 2);
+        // dos bloques llenos de DEAD y uno parcial
+        when(jdbcTemplate.update(contains("dead_at <"), any(Object[].class))).thenReturn(2, 2, 1);
+
+        relay.purgePublished();
+
+        verify(jdbcTemplate).update(contains("published_at IS NOT NULL AND published_at <"),
+                argThat((LocalDateTime limit) -> limit.isBefore(LocalDateTime.now().minusDays(6))), eq(2));
+        verify(jdbcTemplate, times(3)).update(contains("published_at IS NULL AND dead_at <"),
+                argThat((LocalDateTime limit) -> limit.isBefore(LocalDateTime.now().minusDays(29))
+                        && limit.isAfter(LocalDateTime.now().minusDays(31))), eq(2));
+    }
+
+    private OutboxEvent event(long id, Long sessionId, int attempts) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventType(OutboxEventType.ATTENDANCE_MARKED)
+                .classSessionId(sessionId)
+                .payload("{}")
+                .attempts(attempts)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.marcedev.attendance.repository;
+
+import com.marcedev.attendance.entities.OutboxEvent;
+import com.marcedev.attendance.enums.OutboxEventType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void eventWaitingForRetryDoesNotFillTheBatch() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // evento envenenado de la clase 10 esperando su backoff, seguido de más de un lote de la misma clase
+        OutboxEvent poison = save(10L, now.plusMinutes(5), null);
+        for (int i = 0; i < 250; i++) save(10L, null, null);
+        OutboxEvent otherSession = save(20L, null, null);
+        OutboxEvent noSession = save(null, null, null);
+
+        List<OutboxEvent> ready = outboxEventRepository.findReady(now, PageRequest.of(0, 200));
+
+        assertThat(ready).extracting(OutboxEvent::getId)
+                .containsExactly(otherSession.getId(), noSession.getId())
+                .doesNotContain(poison.getId());
+    }
+
+    @Test
+    void deadEventDoesNotBlockItsSession() {
+        LocalDateTime now = LocalDateTime.now();
+
+        save(10L, null, now.minusMinutes(1));
+        OutboxEvent next = save(10L, null, null);
+
+        assertThat(outboxEventRepository.findReady(now, PageRequest.of(0, 200)))
+                .extracting(OutboxEvent::getId)
+                .containsExactly(next.getId());
+    }
+
+    @Test
+    void dueRetryIsSelectedBeforeTheRestOfItsSession() {
+        LocalDateTime now = LocalDateTime.now();
+
+        OutboxEvent retry = save(10L, now.minusSeconds(1), null);
+        OutboxEvent next = save(10L, null, null);
+
+        assertThat(outboxEventRepository.findReady(now, PageRequest.of(0, 200)))
+                .extracting(OutboxEvent::getId)
+                .containsExactly(retry.getId(), next.getId());
+    }
+
+    private OutboxEvent save(Long sessionId, LocalDateTime nextAttemptAt, LocalDateTime deadAt) {
+        return outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(OutboxEventType.ATTENDANCE_MARKED)
+                .classSessionId(sessionId)
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .attempts(nextAttemptAt != null || deadAt != null ? 1 : 0)
+                .nextAttemptAt(nextAttemptAt)
+                .deadAt(deadAt)
+                .build());
+    }
+}
@@ -0,0 +1,145 @@
+package com.marcedev.attendance.repository;
+
+import com.marcedev.attendance.config.SecondLevelCache;
+import com.marcedev.attendance.entities.ClassSession;
+import com.marcedev.attendance.entities.Course;
+import com.marcedev.attendance.entities.Organization;
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache de segundo nivel en el camino del pase de lista: la segunda carga de
+ * curso → organización → clase del día no debe ir a la base.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({SecondLevelCache.class, EnrollmentJdbcRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // cada paso en su propia transacción, como en producción
+class RollCallSecondLevelCacheTest {
+
+    @Autowired private OrganizationRepository organizationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private ClassSessionRepository classSessionRepository;
+    @Autowired private EnrollmentJdbcRepository enrollmentJdbcRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void secondRollCallLoadDoesNotSelectSessionCourseOrOrganization() {
+        Long courseId = tx.execute(s -> createCourseWithTodaySession());
+
+        rollCallLoad(courseId); // llena el cache
+        statistics.clear();
+
+        rollCallLoad(courseId);
+
+        for (Class<?> entity : List.of(Course.class, Organization.class, ClassSession.class)) {
+            assertThat(statistics.getEntityStatistics(entity.getName()).getLoadCount())
+                    .as("SELECT de %s", entity.getSimpleName()).isZero();
+            assertThat(statistics.getEntityStatistics(entity.getName()).getFetchCount())
+                    .as("fetch de %s", entity.getSimpleName()).isZero();
+        }
+        assertThat(statistics.getEntityStatistics(Course.class.getName()).getCacheHitCount()).isPositive();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheMissCount()).isZero();
+    }
+
+    @Test
+    void jdbcEnrollmentIsVisibleAfterCommitEvenIfReCachedMeanwhile() throws Exception {
+        Long courseId = tx.execute(s -> createCourseWithTodaySession());
+        Long studentId = tx.execute(s -> userRepository.save(user(Rol.USER, null)).getId());
+
+        assertThat(studentCount(courseId)).isZero(); // Course.students cacheado vacío
+
+        tx.executeWithoutResult(s -> {
+            enrollmentJdbcRepository.insertIgnore(courseId, List.of(studentId));
+
+            // otra request lee antes del commit y vuelve a cachear la colección vieja
+            Thread reader = new Thread(() -> studentCount(courseId));
+            reader.start();
+            try {
+                reader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThat(studentCount(courseId)).isEqualTo(1);
+    }
+
+    // Mismo recorrido que getOrCreateTodaySession + registro de asistencias
+    private void rollCallLoad(Long courseId) {
+        tx.executeWithoutResult(s -> {
+            Course course = courseRepository.findById(courseId).orElseThrow();
+            assertThat(course.getOrganization().getName()).isNotNull();
+
+            ClassSession session = classSessionRepository.findByCourseIdAndDate(courseId, LocalDate.now()).orElseThrow();
+            assertThat(session.getOrganization().getName()).isNotNull();
+            assertThat(session.getCourse().getName()).isNotNull();
+        });
+    }
+
+    private int studentCount(Long courseId) {
+        return tx.execute(s -> courseRepository.findById(courseId).orElseThrow().getStudents().size());
+    }
+
+    private Long createCourseWithTodaySession() {
+        Organization org = organizationRepository.save(Organization.builder().name("Academia").build());
+        User instructor = userRepository.save(user(Rol.INSTRUCTOR, org));
+
+        Course course = courseRepository.save(Course.builder()
+                .name("Jiu-Jitsu Adultos")
+                .instructor(instructor)
+                .organization(org)
+                .build());
+
+        classSessionRepository.save(ClassSession.builder()
+                .name("Jiu-Jitsu Adultos – hoy")
+                .date(LocalDate.now())
+                .course(course)
+                .organization(org)
+                .instructor(instructor)
+                .build());
+        return course.getId();
+    }
+
+    private User user(Rol role, Organization org) {
+        return User.builder()
+                .fullName("Usuario " + role)
+                .email(UUID.randomUUID() + "@test.com")
+                .password("x")
+                .role(role)
+                .organization(org)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.marcedev.attendance.repository;
+
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Re-hash al iniciar sesión: el hash nuevo solo se escribe si la contraseña no cambió
+ * mientras BCrypt corría en segundo plano.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void rehashReplacesTheHashThatWasVerified() {
+        Long id = save("$2a$04$viejo");
+
+        assertThat(userRepository.updatePassword(id, "$2a$04$viejo", "$2a$12$nuevo")).isEqualTo(1);
+        assertThat(passwordOf(id)).isEqualTo("$2a$12$nuevo");
+    }
+
+    @Test
+    void rehashDoesNotOverwriteAPasswordChangedWhileHashing() {
+        Long id = save("$2a$04$viejo");
+        // el usuario resetea su contraseña antes de que termine el re-hash del login
+        User user = userRepository.findById(id).orElseThrow();
+        user.setPassword("$2a$12$reseteada");
+        entityManager.flush();
+
+        assertThat(userRepository.updatePassword(id, "$2a$04$viejo", "$2a$12$rehashDeLaVieja")).isZero();
+        assertThat(passwordOf(id)).isEqualTo("$2a$12$reseteada");
+    }
+
+    private Long save(String hash) {
+        User user = userRepository.save(User.builder()
+                .fullName("Ana")
+                .email("ana@test.com")
+                .password(hash)
+                .role(Rol.USER)
+                .build());
+        entityManager.flush();
+        return user.getId();
+    }
+
+    private String passwordOf(Long id) {
+        entityManager.clear();
+        return userRepository.findById(id).orElseThrow().getPassword();
+    }
+}
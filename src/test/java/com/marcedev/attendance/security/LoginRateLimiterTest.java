@@ -0,0 +1,126 @@
+package com.marcedev.attendance.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTest {
+
+    private LoginRateLimiter limiter(int maxPerEmail, int maxPerIp, int maxKeys) {
+        return new LoginRateLimiter(true, 300, 10, maxPerEmail, maxPerIp, maxKeys, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void successfulLoginsDoNotConsumeTheIpBudget() {
+        LoginRateLimiter limiter = limiter(10, 5, 100);
+
+        // toda una academia detrás del mismo NAT
+        for (int i = 0; i < 100; i++) {
+            String email = "alumno" + i + "@academia.com";
+            assertThat(limiter.isAllowed(email, "10.0.0.1")).isTrue();
+            limiter.reset(email);
+        }
+        assertThat(limiter.isAllowed("otro@academia.com", "10.0.0.1")).isTrue();
+    }
+
+    @Test
+    void failedAttemptsBlockTheEmailAndTheIp() {
+        LoginRateLimiter limiter = limiter(3, 5, 100);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("victima@academia.com", "10.0.0.1");
+        }
+        assertThat(limiter.isAllowed("victima@academia.com", "10.0.0.2")).isFalse();
+        assertThat(limiter.isAllowed("otro@academia.com", "10.0.0.1")).isTrue();
+
+        limiter.recordFailure("a@academia.com", "10.0.0.1");
+        limiter.recordFailure("b@academia.com", "10.0.0.1");
+        assertThat(limiter.isAllowed("otro@academia.com", "10.0.0.1")).isFalse();
+        assertThat(limiter.isAllowed("otro@academia.com", "10.0.0.2")).isTrue();
+    }
+
+    @Test
+    void resetForgetsOnlyTheEmailFailures() {
+        LoginRateLimiter limiter = limiter(2, 100, 100);
+
+        limiter.recordFailure("user@academia.com", "10.0.0.1");
+        limiter.recordFailure("user@academia.com", "10.0.0.1");
+        assertThat(limiter.isAllowed("user@academia.com", "10.0.0.1")).isFalse();
+
+        limiter.reset("USER@academia.com");
+        assertThat(limiter.isAllowed("user@academia.com", "10.0.0.1")).isTrue();
+    }
+
+    @Test
+    void fullTableDoesNotLockOutNewOrExistingKeys() {
+        LoginRateLimiter limiter = limiter(2, 2, 3);
+
+        limiter.recordFailure("tracked@academia.com", "10.0.0.1");
+        limiter.recordFailure("tracked@academia.com", "10.0.0.1");
+
+        // un atacante llena la tabla con claves nuevas
+        for (int i = 0; i < 1000; i++) {
+            limiter.recordFailure("random" + i + "@x.com", "203.0.113." + (i % 250));
+        }
+
+        // las claves que no entraron no comparten una ventana común: nadie nuevo queda bloqueado
+        assertThat(limiter.isAllowed("nuevo@academia.com", "10.0.0.9")).isTrue();
+        // las existentes siguen limitadas
+        assertThat(limiter.isAllowed("tracked@academia.com", "10.0.0.9")).isFalse();
+        assertThat(limiter.isAllowed("nuevo@academia.com", "10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void parallelBurstCannotExceedTheEmailLimitWhileBcryptRuns() throws Exception {
+        LoginRateLimiter limiter = limiter(5, 1000, 100);
+        int threads = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<LoginRateLimiter.Attempt>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    // todas las contraseñas son incorrectas: ninguna reserva se devuelve
+                    return limiter.tryAcquire("victima@academia.com", "10.0.0.1");
+                }));
+            }
+            start.countDown();
+
+            int admitted = 0;
+            for (Future<LoginRateLimiter.Attempt> result : results) {
+                if (result.get() != null) admitted++;
+            }
+            assertThat(admitted).isEqualTo(5);
+            assertThat(limiter.isAllowed("victima@academia.com", "10.0.0.2")).isFalse();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void releasedAttemptsDoNotConsumeTheBudget() {
+        LoginRateLimiter limiter = limiter(2, 2, 100);
+
+        for (int i = 0; i < 10; i++) {
+            LoginRateLimiter.Attempt attempt = limiter.tryAcquire("alumno" + i + "@academia.com", "10.0.0.1");
+            assertThat(attempt).isNotNull();
+            limiter.release(attempt);
+        }
+        assertThat(limiter.isAllowed("otro@academia.com", "10.0.0.1")).isTrue();
+
+        // un email sin cupo no consume el de la IP
+        assertThat(limiter.tryAcquire("user@academia.com", "10.0.0.2")).isNotNull();
+        assertThat(limiter.tryAcquire("user@academia.com", "10.0.0.3")).isNotNull();
+        assertThat(limiter.tryAcquire("user@academia.com", "10.0.0.1")).isNull();
+        assertThat(limiter.tryAcquire("otro@academia.com", "10.0.0.1")).isNotNull();
+    }
+}
@@ -0,0 +1,208 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.archive.ColdArchiveStore;
+import com.marcedev.attendance.archive.CourseMonthSnapshot;
+import com.marcedev.attendance.dto.AttendanceMarkDTO;
+import com.marcedev.attendance.dto.CourseMonthlyAttendanceDTO;
+import com.marcedev.attendance.entities.*;
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import com.marcedev.attendance.mapper.AttendanceMapper;
+import com.marcedev.attendance.repository.AttendanceArchiveRepository;
+import com.marcedev.attendance.repository.AttendanceRepository;
+import com.marcedev.attendance.repository.ClassSessionRepository;
+import com.marcedev.attendance.repository.CourseRepository;
+import com.marcedev.attendance.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pase de lista (applyMarks): cambios de comportamiento respecto de la versión anterior.
+ * - Una sesión parcialmente registrada recibe filas para los alumnos que faltaban.
+ * - Registrar dos veces el mismo día actualiza las filas en vez de duplicarlas.
+ * Estadísticas: los presentes de attendances_archive se suman a los de attendances.
+ * Archivos: una sesión de un mes en frío o de un año académico cerrado no acepta marcas
+ * (no se duplican en los reportes ni al volver a archivar).
+ */
+class AttendanceServiceImplTest {
+
+    private AttendanceRepository attendanceRepository;
+    private ClassSessionRepository classSessionRepository;
+    private UserRepository userRepository;
+    private CourseRepository courseRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private AttendanceArchiveRepository archiveRepository;
+    private AttendanceServiceImpl service;
+
+    @TempDir
+    Path coldDir;
+
+    private Organization org;
+    private Course course;
+    private ClassSession session;
+
+    @BeforeEach
+    void setUp() {
+        attendanceRepository = mock(AttendanceRepository.class);
+        classSessionRepository = mock(ClassSessionRepository.class);
+        userRepository = mock(UserRepository.class);
+        courseRepository = mock(CourseRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        archiveRepository = mock(AttendanceArchiveRepository.class);
+        service = new AttendanceServiceImpl(attendanceRepository, classSessionRepository, userRepository,
+                mock(AttendanceMapper.class), courseRepository, eventPublisher, mock(ColdArchiveStore.class),
+                archiveRepository);
+
+        org = Organization.builder().id(7L).build();
+        course = Course.builder().id(3L).name("Álgebra").organization(org).build();
+        session = ClassSession.builder().id(11L).course(course).organization(org).date(LocalDate.now()).build();
+
+        when(classSessionRepository.findById(11L)).thenReturn(Optional.of(session));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenAnswer(inv -> User.builder().id(inv.getArgument(0)).build());
+        when(userRepository.findExistingIds(anyCollection()))
+                .thenAnswer(inv -> new ArrayList<Long>(inv.getArgument(0)));
+    }
+
+    private Attendance row(long studentId, boolean attended) {
+        return Attendance.builder()
+                .student(User.builder().id(studentId).build())
+                .classSession(session)
+                .course(course)
+                .organization(org)
+                .attended(attended)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Attendance> savedRows() {
+        ArgumentCaptor<List<Attendance>> captor = ArgumentCaptor.forClass(List.class);
+        verify(attendanceRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private List<AttendanceMarkDTO> publishedMarks() {
+        ArgumentCaptor<AttendanceChangedEvent> captor = ArgumentCaptor.forClass(AttendanceChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        return captor.getValue().marks();
+    }
+
+    @Test
+    void partiallyRegisteredSessionGetsRowsForMissingStudents() {
+        Attendance existing = row(1L, true);
+        when(attendanceRepository.findByClassSessionIdAndOrganizationId(11L, 7L))
+                .thenReturn(new ArrayList<>(List.of(existing)));
+
+        service.registerAttendance(11L, List.of(
+                new AttendanceMarkDTO(1L, true),
+                new AttendanceMarkDTO(2L, false),
+                new AttendanceMarkDTO(3L, true)));
+
+        List<Attendance> created = savedRows();
+        assertThat(created).extracting(a -> a.getStudent().getId()).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(created).allSatisfy(a -> {
+            assertThat(a.getClassSession()).isSameAs(session);
+            assertThat(a.getOrganization()).isSameAs(org);
+        });
+        // el alumno 1 no cambió: solo se notifican las filas nuevas
+        assertThat(publishedMarks()).extracting(AttendanceMarkDTO::getUserId).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void sameDayReRegisterOverwritesInsteadOfInserting() {
+        when(courseRepository.findById(3L)).thenReturn(Optional.of(course));
+        when(classSessionRepository.findByCourseIdAndDate(3L, LocalDate.now())).thenReturn(Optional.of(session));
+        Attendance first = row(1L, true);
+        Attendance second = row(2L, false);
+        when(attendanceRepository.findByClassSessionIdAndOrganizationId(11L, 7L))
+                .thenReturn(new ArrayList<>(List.of(first, second)));
+
+        Map<Long, Boolean> marks = new LinkedHashMap<>();
+        marks.put(1L, false);
+        marks.put(2L, false);
+        service.registerAttendanceByCourse(3L, marks);
+
+        assertThat(savedRows()).isEmpty();
+        assertThat(first.isAttended()).isFalse();
+        assertThat(second.isAttended()).isFalse();
+        verify(classSessionRepository, never()).save(any());
+        verify(userRepository, never()).findExistingIds(anyCollection());
+        assertThat(publishedMarks()).extracting(AttendanceMarkDTO::getUserId).containsExactly(1L);
+    }
+
+    @Test
+    void monthlyStatsAddPresentsFromTheAcademicYearArchive() {
+        when(courseRepository.findById(3L)).thenReturn(Optional.of(course));
+        LocalDate from = LocalDate.of(2023, 5, 1);
+        LocalDate to = LocalDate.of(2023, 6, 1);
+        when(attendanceRepository.getMonthlyCourseStats(3L, 7L, from, to)).thenReturn(List.of(
+                new CourseMonthlyAttendanceDTO(1L, "Ana", 1L, 4L, 25.0),
+                new CourseMonthlyAttendanceDTO(2L, "Beto", 0L, 4L, 0.0)));
+        when(archiveRepository.presentByStudent(7L, 3L, from, to)).thenReturn(new HashMap<>(Map.of(1L, 2L)));
+
+        List<CourseMonthlyAttendanceDTO> stats = service.getCourseMonthlyStats(3L, 5, 2023);
+
+        assertThat(stats).extracting(CourseMonthlyAttendanceDTO::getPresent).containsExactly(3L, 0L);
+        assertThat(stats.get(0).getPercent()).isEqualTo(75.0);
+    }
+
+    @Test
+    void archivedMonthRejectsNewMarksSoStatsCountEachMarkOnce() throws Exception {
+        LocalDate day = LocalDate.of(2022, 3, 7);
+        session.setDate(day);
+        ColdArchiveStore coldStore = new ColdArchiveStore(coldDir.toString());
+        coldStore.write(CourseMonthSnapshot.merge(null, 7L, 3L, YearMonth.from(day),
+                List.of(new CourseMonthSnapshot.Session(11L, day)),
+                List.of(new CourseMonthSnapshot.Mark(1L, 11L, day, true))));
+        service = new AttendanceServiceImpl(attendanceRepository, classSessionRepository, userRepository,
+                mock(AttendanceMapper.class), courseRepository, eventPublisher, coldStore, archiveRepository);
+
+        assertThatThrownBy(() -> service.registerAttendance(11L, List.of(new AttendanceMarkDTO(1L, true))))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("archivado");
+        verify(attendanceRepository, never()).saveAll(any());
+        verify(eventPublisher, never()).publishEvent(any());
+
+        // La marca sigue solo en el archivo: el mes cuenta un presente, no dos
+        when(courseRepository.findById(3L)).thenReturn(Optional.of(course));
+        LocalDate from = LocalDate.of(2022, 3, 1);
+        when(attendanceRepository.getMonthlyCourseStats(3L, 7L, from, from.plusMonths(1))).thenReturn(List.of(
+                new CourseMonthlyAttendanceDTO(1L, "Ana", 0L, 1L, 0.0)));
+        when(archiveRepository.presentByStudent(7L, 3L, from, from.plusMonths(1))).thenReturn(new HashMap<>());
+
+        List<CourseMonthlyAttendanceDTO> stats = service.getCourseMonthlyStats(3L, 3, 2022);
+
+        assertThat(stats).extracting(CourseMonthlyAttendanceDTO::getPresent).containsExactly(1L);
+        assertThat(stats.get(0).getPercent()).isEqualTo(100.0);
+    }
+
+    @Test
+    void closedAcademicYearRejectsMarksOnArchivedSessions() {
+        when(archiveRepository.containsClass(7L, 3L, 11L)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.registerAttendance(11L, List.of(new AttendanceMarkDTO(2L, true))))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("año académico archivado");
+        verify(attendanceRepository, never()).findByClassSessionIdAndOrganizationId(anyLong(), anyLong());
+        verify(attendanceRepository, never()).saveAll(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
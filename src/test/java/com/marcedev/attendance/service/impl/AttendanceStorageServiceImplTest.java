@@ -0,0 +1,92 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.StorageJobDTO;
+import com.marcedev.attendance.enums.JobStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Archivo y particionado como jobs: progreso y error quedan en el job (no solo en el log).
+ */
+class AttendanceStorageServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final List<Runnable> queued = new ArrayList<>();
+    private AttendanceStorageServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        namedJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(inv -> queued.add(inv.getArgument(0))).when(executor).execute(any(Runnable.class));
+
+        service = new AttendanceStorageServiceImpl(jdbcTemplate, namedJdbcTemplate, transactionTemplate,
+                executor, "03-01", 2);
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(1);
+    }
+
+    private void runQueued() {
+        new ArrayList<>(queued).forEach(Runnable::run);
+        queued.clear();
+    }
+
+    @Test
+    void archiveJobReportsMovedRowsAndTheFailingOrganization() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM organizations"), eq(Long.class)))
+                .thenReturn(List.of(1L, 2L));
+        // organización 1: un bloque de 2 y uno vacío; organización 2: se cae la conexión
+        when(jdbcTemplate.queryForList(contains("FROM attendances a"), eq(Long.class), eq(1L), any(), any(), anyInt()))
+                .thenReturn(List.of(10L, 11L), List.of());
+        when(jdbcTemplate.queryForList(contains("FROM attendances a"), eq(Long.class), eq(2L), any(), any(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("conexión perdida"));
+
+        StorageJobDTO job = service.archiveAcademicYearAsync(2020, null);
+        assertThat(job.getStatus()).isEqualTo(JobStatus.PENDING);
+        runQueued();
+
+        assertThat(service.findJob(job.getId())).containsSame(job);
+        assertThat(job.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(job.getStep()).isEqualTo("organización 2");
+        assertThat(job.getProcessedRows()).isEqualTo(2);
+        assertThat(job.getError()).contains("conexión perdida");
+        assertThat(job.getFinishedAt()).isNotNull();
+        verify(namedJdbcTemplate, times(2)).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void secondRequestWhileRunningReturnsTheSameJob() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM organizations"), eq(Long.class)))
+                .thenReturn(List.of());
+
+        StorageJobDTO first = service.archiveAcademicYearAsync(2020, null);
+        StorageJobDTO second = service.archiveAcademicYearAsync(2021, null);
+        assertThat(second).isSameAs(first);
+
+        runQueued();
+        assertThat(first.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(service.archiveAcademicYearAsync(2021, null)).isNotSameAs(first);
+    }
+}
@@ -0,0 +1,88 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.entities.User;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.security.PasswordHashingService;
+import com.marcedev.attendance.security.jwt.JwtService;
+import com.marcedev.attendance.security.model.AuthRequest;
+import com.marcedev.attendance.security.model.AuthResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Login con re-hash en segundo plano: la respuesta no espera a BCrypt y el hash
+ * nuevo se escribe condicionado al hash que se verificó.
+ */
+class AuthServiceImplTest {
+
+    private static final String OLD_HASH = "$2a$04$viejo";
+
+    private UserRepository userRepository;
+    private PasswordHashingService hashing;
+    private AuthServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        hashing = mock(PasswordHashingService.class);
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateToken(any())).thenReturn("token");
+        service = new AuthServiceImpl(userRepository, hashing, jwtService);
+
+        User user = User.builder().id(5L).fullName("Ana").email("ana@test.com").password(OLD_HASH).role(Rol.USER).build();
+        when(userRepository.findByEmail("ana@test.com")).thenReturn(Optional.of(user));
+        when(hashing.matches("secreta", OLD_HASH)).thenReturn(true);
+    }
+
+    private AuthRequest request() {
+        return AuthRequest.builder().email("Ana@test.com").password("secreta").build();
+    }
+
+    @Test
+    void outdatedHashIsUpgradedAfterRespondingAndOnlyOverTheVerifiedHash() {
+        when(hashing.needsUpgrade(OLD_HASH)).thenReturn(true);
+        CompletableFuture<String> rehash = new CompletableFuture<>();
+        when(hashing.encodeAsync("secreta")).thenReturn(rehash);
+
+        AuthResponse response = service.login(request());
+
+        assertThat(response.getToken()).isEqualTo("token");
+        verify(userRepository, never()).updatePassword(any(), any(), any());
+
+        rehash.complete("$2a$12$nuevo");
+        verify(userRepository).updatePassword(5L, OLD_HASH, "$2a$12$nuevo");
+    }
+
+    @Test
+    void passwordChangedWhileHashingIsNotOverwritten() {
+        when(hashing.needsUpgrade(OLD_HASH)).thenReturn(true);
+        CompletableFuture<String> rehash = new CompletableFuture<>();
+        when(hashing.encodeAsync("secreta")).thenReturn(rehash);
+        // la base ya tiene otra contraseña: el UPDATE condicionado no encuentra la fila
+        when(userRepository.updatePassword(5L, OLD_HASH, "$2a$12$nuevo")).thenReturn(0);
+
+        service.login(request());
+        rehash.complete("$2a$12$nuevo");
+
+        verify(userRepository).updatePassword(eq(5L), eq(OLD_HASH), anyString());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void currentHashIsNotRehashed() {
+        when(hashing.needsUpgrade(OLD_HASH)).thenReturn(false);
+
+        service.login(request());
+
+        verify(hashing, never()).encodeAsync(any());
+        verify(userRepository, never()).updatePassword(any(), any(), any());
+    }
+}
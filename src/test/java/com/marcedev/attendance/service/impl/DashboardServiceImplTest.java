@@ -0,0 +1,93 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.repository.AttendanceArchiveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Conciliación completa del dashboard con asistencias archivadas:
+ * - los años cerrados (attendances_archive) entran en los agregados;
+ * - las semanas con meses en frío no se borran ni se recalculan.
+ */
+class DashboardServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AttendanceArchiveRepository archiveRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        archiveRepository = mock(AttendanceArchiveRepository.class);
+        when(jdbcTemplate.queryForList("SELECT id FROM organizations", Long.class)).thenReturn(List.of(7L));
+    }
+
+    private DashboardServiceImpl service(boolean coldEnabled) {
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            inv.<java.util.function.Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(tx).executeWithoutResult(any());
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        return new DashboardServiceImpl(jdbcTemplate, mock(NamedParameterJdbcTemplate.class), tx, executor,
+                archiveRepository, 8, coldEnabled, 24);
+    }
+
+    private List<String> updates() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).update(sql.capture(), any(Object[].class));
+        return sql.getAllValues();
+    }
+
+    @Test
+    void fullReconcileAggregatesTheAcademicYearArchive() {
+        when(archiveRepository.exists()).thenReturn(true);
+
+        service(false).reconcileAllAsync();
+
+        List<String> aggregates = updates().stream().filter(sql -> sql.startsWith("INSERT")).toList();
+        assertThat(aggregates).hasSize(2).allSatisfy(sql -> assertThat(sql)
+                .contains("FROM attendances a")
+                .contains("UNION ALL")
+                .contains("FROM attendances_archive x"));
+    }
+
+    @Test
+    void withoutTheArchiveTableOnlyLiveMarksAreAggregated() {
+        service(false).reconcileAllAsync();
+
+        assertThat(updates()).filteredOn(sql -> sql.startsWith("INSERT"))
+                .hasSize(2)
+                .noneMatch(sql -> sql.contains("attendances_archive"));
+    }
+
+    @Test
+    void coldWeeksAreNotDeletedByTheFullReconcile() {
+        service(true).reconcileAllAsync();
+
+        LocalDate liveFrom = YearMonth.now().minusMonths(24).atDay(1)
+                .with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).update(startsWith("DELETE"), args.capture());
+        assertThat(args.getAllValues()).allSatisfy(a -> assertThat(a[1]).isEqualTo(Date.valueOf(liveFrom)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.graphql.GraphQlScope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * El predicado de propiedad del INSTRUCTOR va en todas las consultas (raíces, por ID y @BatchMapping),
+ * no solo en la raíz courses.
+ */
+class GraphQlReadServiceImplTest {
+
+    private static final GraphQlScope INSTRUCTOR = new GraphQlScope(5L, Rol.INSTRUCTOR, 7L);
+    private static final GraphQlScope ADMIN = new GraphQlScope(9L, Rol.ADMIN, 7L);
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private GraphQlReadServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        service = new GraphQlReadServiceImpl(jdbcTemplate);
+    }
+
+    private List<String> runAll(GraphQlScope scope) {
+        List<Long> ids = List.of(1L, 2L);
+        service.findCourses(scope);
+        service.findCoursesById(scope, ids);
+        service.findClassesById(scope, ids);
+        service.findUsersById(scope, ids);
+        service.findCoursesByOrganization(scope, ids);
+        service.findClassesByCourse(scope, ids);
+        service.findStudentsByCourse(scope, ids);
+        service.findAttendancesByClass(scope, ids);
+        service.findCoursesByUser(scope, ids);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate, times(9)).query(sql.capture(), params.capture(), any(RowMapper.class));
+        assertThat(params.getAllValues()).allSatisfy(p -> {
+            assertThat(((MapSqlParameterSource) p).getValue("orgId")).isEqualTo(7L);
+        });
+        return sql.getAllValues();
+    }
+
+    @Test
+    void instructorQueriesCarryTheOwnershipPredicate() {
+        List<String> statements = runAll(INSTRUCTOR);
+
+        assertThat(statements).allSatisfy(sql -> assertThat(sql).contains("instructor_id = :userId"));
+    }
+
+    @Test
+    void adminQueriesOnlyFilterByOrganization() {
+        List<String> statements = runAll(ADMIN);
+
+        assertThat(statements).noneSatisfy(sql -> assertThat(sql).contains(":userId"));
+    }
+}
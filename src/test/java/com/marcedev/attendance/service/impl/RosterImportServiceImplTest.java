@@ -0,0 +1,64 @@
+package com.marcedev.attendance.service.impl;
+
+import com.marcedev.attendance.dto.RosterImportReportDTO;
+import com.marcedev.attendance.enums.ImportRowStatus;
+import com.marcedev.attendance.enums.Rol;
+import com.marcedev.attendance.repository.CourseRepository;
+import com.marcedev.attendance.repository.EnrollmentJdbcRepository;
+import com.marcedev.attendance.repository.UserRepository;
+import com.marcedev.attendance.security.PasswordHashingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Lectura del CSV: el separador se detecta con el comienzo del encabezado, sin importar su largo.
+ * Las filas usan emails inválidos para no llegar a la base.
+ */
+class RosterImportServiceImplTest {
+
+    private RosterImportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        CourseRepository courseRepository = mock(CourseRepository.class);
+        when(courseRepository.findIdsByOrganizationId(1L)).thenReturn(List.of());
+        service = new RosterImportServiceImpl(mock(UserRepository.class), courseRepository,
+                mock(EnrollmentJdbcRepository.class), mock(JdbcTemplate.class), mock(NamedParameterJdbcTemplate.class),
+                mock(TransactionTemplate.class), mock(PasswordHashingService.class));
+    }
+
+    private RosterImportReportDTO importCsv(String csv) {
+        return service.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 1L, Rol.ADMIN);
+    }
+
+    @Test
+    void headerLongerThanThePeekLimitIsRead() {
+        // una planilla con una columna extra de 100 000 caracteres (más que el buffer del lector) en el encabezado
+        String header = "fullName,email,password," + "x".repeat(100_000);
+        RosterImportReportDTO report = importCsv("\uFEFF" + header + "\nAna,no-es-un-email,secreta,\n");
+
+        assertThat(report.getTotalRows()).isEqualTo(1);
+        assertThat(report.getRows().get(0).getStatus()).isEqualTo(ImportRowStatus.FAILED);
+        assertThat(report.getRows().get(0).getMessage()).isEqualTo("Email inválido");
+    }
+
+    @Test
+    void semicolonIsDetectedFromTheStartOfALongHeader() {
+        String header = "fullName;email;password;" + "y".repeat(100_000) + ",z";
+        RosterImportReportDTO report = importCsv(header + "\r\nAna;no-es-un-email;secreta;\r\n");
+
+        assertThat(report.getTotalRows()).isEqualTo(1);
+        assertThat(report.getRows().get(0).getEmail()).isEqualTo("no-es-un-email");
+        assertThat(report.getRows().get(0).getMessage()).isEqualTo("Email inválido");
+    }
+}
@@ -0,0 +1,54 @@
+package com.marcedev.attendance.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongObjectMapTest {
+
+    @Test
+    void putReplacesAndReturnsThePreviousValue() {
+        LongObjectMap<String> map = new LongObjectMap<>(2);
+
+        assertThat(map.put(7L, "a")).isNull();
+        assertThat(map.put(7L, "b")).isEqualTo("a");
+        assertThat(map.get(7L)).isEqualTo("b");
+        assertThat(map.containsKey(8L)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void growsPastTheExpectedSizeWithCollidingKeys() {
+        LongObjectMap<Long> map = new LongObjectMap<>(1);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            // mezcla de ids consecutivos, múltiplos de potencias de dos y negativos
+            long key = switch (i % 3) {
+                case 0 -> i;
+                case 1 -> (long) i << 20;
+                default -> -random.nextLong(1, Long.MAX_VALUE);
+            };
+            map.put(key, key);
+            expected.put(key, key);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsNullValues() {
+        assertThatThrownBy(() -> new LongObjectMap<String>(4).put(1L, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,162 @@
+package com.marcedev.attendance.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.marcedev.attendance.dto.AttendanceMarkDTO;
+import com.marcedev.attendance.dto.WebhookSubscriptionDTO;
+import com.marcedev.attendance.entities.Organization;
+import com.marcedev.attendance.entities.WebhookSubscription;
+import com.marcedev.attendance.enums.WebhookEventType;
+import com.marcedev.attendance.events.AttendanceChangedEvent;
+import com.marcedev.attendance.repository.WebhookSubscriptionRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Entrega de webhooks contra un servidor HTTP stub (JDK HttpServer).
+ */
+class WebhookDispatcherTest {
+
+    private static final String SECRET = "s3cr3t";
+
+    private HttpServer server;
+    private final BlockingQueue<Delivery> deliveries = new LinkedBlockingQueue<>();
+    private volatile int status = 200;
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private record Delivery(String deliveryId, String signature, String body) {
+    }
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/hook", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            deliveries.add(new Delivery(exchange.getRequestHeaders().getFirst("X-Webhook-Delivery"),
+                    exchange.getRequestHeaders().getFirst("X-Webhook-Signature"), body));
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void deliversSignedBatchToTheEndpoint() throws Exception {
+        WebhookDispatcher dispatcher = dispatcher(true);
+
+        dispatcher.onAttendanceChanged(event(7L));
+        dispatcher.onAttendanceChanged(event(8L));
+        dispatcher.flush();
+
+        Delivery delivery = deliveries.poll(5, TimeUnit.SECONDS);
+        assertThat(delivery).isNotNull();
+        assertThat(delivery.deliveryId()).isNotBlank();
+        assertThat(delivery.signature()).isEqualTo("sha256=" + hmac(delivery.body()));
+
+        JsonNode body = objectMapper.readTree(delivery.body());
+        assertThat(body.get("subscriptionId").asLong()).isEqualTo(1L);
+        assertThat(body.get("events")).hasSize(2);
+        assertThat(body.get("events").get(0).get("type").asText()).isEqualTo("ROLL_CALL_SUBMITTED");
+        assertThat(body.get("events").get(1).get("classSessionId").asLong()).isEqualTo(8L);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> status(dispatcher).getLastDeliveryAt() != null);
+        assertThat(status(dispatcher).getPendingEvents()).isZero();
+    }
+
+    @Test
+    void failedDeliveryIsKeptForRetryWithTheSameDeliveryId() throws Exception {
+        status = 500;
+        WebhookDispatcher dispatcher = dispatcher(true);
+
+        dispatcher.onAttendanceChanged(event(7L));
+        dispatcher.flush();
+
+        Delivery first = deliveries.poll(5, TimeUnit.SECONDS);
+        assertThat(first).isNotNull();
+        await().atMost(Duration.ofSeconds(5)).until(() -> "HTTP 500".equals(status(dispatcher).getLastError()));
+        assertThat(status(dispatcher).getPendingEvents()).isEqualTo(1);
+
+        // backoff de 1 s (max-backoff-seconds): el reintento lleva el mismo lote
+        status = 200;
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            dispatcher.flush();
+            return !deliveries.isEmpty();
+        });
+        assertThat(deliveries.poll().deliveryId()).isEqualTo(first.deliveryId());
+    }
+
+    @Test
+    void doesNotPostToInternalAddresses() throws Exception {
+        WebhookDispatcher dispatcher = dispatcher(false);
+
+        dispatcher.onAttendanceChanged(event(7L));
+        dispatcher.flush();
+
+        assertThat(deliveries.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(status(dispatcher).getLastError()).contains("no permitida");
+    }
+
+    private WebhookDispatcher dispatcher(boolean allowPrivateAddresses) {
+        WebhookSubscriptionRepository repository = mock(WebhookSubscriptionRepository.class);
+        when(repository.findByActiveTrue()).thenReturn(List.of(WebhookSubscription.builder()
+                .id(1L)
+                .organization(Organization.builder().id(1L).build())
+                .url("http://127.0.0.1:" + server.getAddress().getPort() + "/hook")
+                .secret(SECRET)
+                .events(Set.of(WebhookEventType.ROLL_CALL_SUBMITTED))
+                .active(true)
+                .build()));
+
+        WebhookDispatcher dispatcher = new WebhookDispatcher(repository, mock(JdbcTemplate.class), objectMapper,
+                new WebhookUrlValidator(allowPrivateAddresses), new SimpleMeterRegistry(),
+                100, 100, 100, 3, 1, 5, 60, 2000);
+        dispatcher.refreshSubscriptions();
+        return dispatcher;
+    }
+
+    private WebhookSubscriptionDTO status(WebhookDispatcher dispatcher) {
+        WebhookSubscriptionDTO dto = WebhookSubscriptionDTO.builder().id(1L).build();
+        dispatcher.fillStatus(dto);
+        return dto;
+    }
+
+    private AttendanceChangedEvent event(Long classSessionId) {
+        return new AttendanceChangedEvent(classSessionId, 3L, 1L,
+                List.of(new AttendanceMarkDTO(10L, true)), LocalDateTime.now());
+    }
+
+    private static String hmac(String body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}